@@ -0,0 +1,75 @@
+#!/usr/bin/env bash
+# Fast-startup build and time-to-first-request measurement.
+#
+#   scripts/startup.sh build              AOT-processed jar (mvn -Paot), extracted for CDS
+#   scripts/startup.sh train              training run that writes the class-data sharing archive
+#   scripts/startup.sh run                start with the prod profile, AOT and the archive
+#   scripts/startup.sh measure [runs]     time to first request, plain boot vs fast startup
+#
+# The training run refreshes the context against the database in spring.datasource.*,
+# applying the migrations, then exits. Point it at a scratch copy, not production.
+# Java 21 archives need the same JDK and classpath at run time as in training.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+JAR=backend-0.0.1-SNAPSHOT.jar
+APP_DIR=target/app
+ARCHIVE=$APP_DIR/application.jsa
+URL=${URL:-http://localhost:8081/api/recipes}
+
+build() {
+    ./mvnw -B -Paot -DskipTests package
+    rm -rf "$APP_DIR"
+    java -Djarmode=tools -jar "target/$JAR" extract --destination "$APP_DIR"
+}
+
+train() {
+    java -XX:ArchiveClassesAtExit="$ARCHIVE" -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+        -jar "$APP_DIR/$JAR" --spring.profiles.active=prod
+}
+
+fast() {
+    exec java -XX:SharedArchiveFile="$ARCHIVE" -Dspring.aot.enabled=true \
+        -jar "$APP_DIR/$JAR" --spring.profiles.active=prod "$@"
+}
+
+plain() {
+    exec java -jar "target/$JAR" "$@"
+}
+
+# Milliseconds from launching the JVM until $URL first answers 200. plain and fast exec
+# the JVM, so the background pid is the JVM itself.
+time_to_first_request() {
+    local start pid
+    start=$(date +%s%N)
+    "$@" > /dev/null 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "$URL"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "application exited before answering" >&2
+            return 1
+        fi
+        sleep 0.02
+    done
+    echo $(( ($(date +%s%N) - start) / 1000000 ))
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+}
+
+measure() {
+    local runs=${1:-5} mode i
+    for mode in plain fast; do
+        for ((i = 1; i <= runs; i++)); do
+            echo "$mode run $i: $(time_to_first_request "$mode") ms"
+        done
+    done
+}
+
+case "${1:-}" in
+    build) build ;;
+    train) train ;;
+    run) shift; fast "$@" ;;
+    measure) shift; measure "$@" ;;
+    *) sed -n '2,11p' "$0"; exit 1 ;;
+esac
@@ -0,0 +1,45 @@
+package backend.Controller;
+
+import backend.Service.EntityBatchService;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Shared shape of the {@code batch-get} and {@code batch} endpoints. Size
+ * limits and malformed requests are a 400 for the whole batch; otherwise each
+ * item carries its own outcome.
+ */
+final class BatchRequests {
+
+    public record BatchGetRequest(List<Long> ids) {
+    }
+
+    private BatchRequests() {
+    }
+
+    static ResponseEntity<?> get(Supplier<? extends EntityBatchService.BatchGet<?>> batch) {
+        try {
+            return ResponseEntity.ok(batch.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    static ResponseEntity<?> write(Supplier<List<EntityBatchService.ItemResult>> batch) {
+        try {
+            List<EntityBatchService.ItemResult> results = batch.get();
+            long rejected = results.stream().filter(result -> result.status() >= 400).count();
+            return ResponseEntity.ok(Map.of(
+                    "written", results.size() - rejected,
+                    "rejected", rejected,
+                    "results", results));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package backend.Controller;
+
+import backend.Service.CatalogTransferService;
+import backend.Service.CatalogTransferService.Kind;
+import backend.config.UploadEndpoint;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bulk export and import of recipes, challenges and plans as NDJSON, one
+ * record per line.
+ */
+@RestController
+@CrossOrigin(origins = "http://localhost:3000",
+             allowedHeaders = "*",
+             methods = {RequestMethod.GET, RequestMethod.POST},
+             allowCredentials = "true",
+             maxAge = 3600)
+@RequestMapping("/api/catalog")
+public class CatalogTransferController {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private CatalogTransferService catalogTransferService;
+
+    @GetMapping(value = "/{kind}/export", produces = NDJSON)
+    public ResponseEntity<?> export(@PathVariable String kind) {
+        Kind parsed = parseKind(kind);
+        if (parsed == null) {
+            return unknownKind(kind);
+        }
+        StreamingResponseBody body = out -> catalogTransferService.export(parsed, out);
+        return ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=\"" + parsed.name().toLowerCase(Locale.ROOT) + ".ndjson\"")
+                .body(body);
+    }
+
+    @UploadEndpoint
+    @PostMapping(value = "/{kind}/import", consumes = {NDJSON, "application/json", "text/plain"})
+    public ResponseEntity<?> importRecords(@PathVariable String kind, HttpServletRequest request) throws IOException {
+        Kind parsed = parseKind(kind);
+        if (parsed == null) {
+            return unknownKind(kind);
+        }
+        // Read straight from the request so large files are never buffered whole
+        return ResponseEntity.ok(catalogTransferService.importRecords(parsed, request.getInputStream()));
+    }
+
+    private static Kind parseKind(String kind) {
+        try {
+            return Kind.parse(kind);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static ResponseEntity<?> unknownKind(String kind) {
+        return ResponseEntity.badRequest()
+                .body(Map.of("error", "Unknown catalog kind: " + kind + " (expected recipes, challenges or plans)"));
+    }
+}
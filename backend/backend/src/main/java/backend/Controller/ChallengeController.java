@@ -1,73 +1,192 @@
 package backend.Controller;
 
+import backend.Event.ChallengeChangedEvent;
+import backend.Event.ChangeType;
 import backend.Exception.ChallengeNotFoundException;
 import backend.Model.ChallengeModel;
 import backend.Repository.ChallengeRepository;
+import backend.Service.ChallengeScheduleService;
+import backend.Service.EntityBatchService;
+import backend.Service.EntityLookupService;
+import backend.Service.FieldProjectionService;
+import backend.config.ReadOnlyEndpoint;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.PagedModel;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/challenges")
-@CrossOrigin(origins = "http://localhost:3000")
+@CrossOrigin(origins = "http://localhost:3000", exposedHeaders = KeysetPage.NEXT_CURSOR_HEADER)
 public class ChallengeController {
 
+    private static final int MAX_UPCOMING_DAYS = 366;
+
     private final ChallengeRepository challengeRepository;
+    private final EntityLookupService entityLookupService;
+    private final ChallengeScheduleService challengeScheduleService;
+    private final FieldProjectionService fieldProjectionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityBatchService entityBatchService;
 
     @Autowired
-    public ChallengeController(ChallengeRepository challengeRepository) {
+    public ChallengeController(ChallengeRepository challengeRepository, EntityLookupService entityLookupService,
+                               ChallengeScheduleService challengeScheduleService,
+                               FieldProjectionService fieldProjectionService,
+                               ApplicationEventPublisher eventPublisher,
+                               EntityBatchService entityBatchService) {
         this.challengeRepository = challengeRepository;
+        this.entityLookupService = entityLookupService;
+        this.challengeScheduleService = challengeScheduleService;
+        this.fieldProjectionService = fieldProjectionService;
+        this.eventPublisher = eventPublisher;
+        this.entityBatchService = entityBatchService;
     }
 
-    // Get all challenges
+    // Get challenges, one keyset page at a time; ?view=summary or ?fields= for sparse rows
     @GetMapping
-    public ResponseEntity<List<ChallengeModel>> getAllChallenges() {
-        return ResponseEntity.ok(challengeRepository.findAll());
+    public ResponseEntity<?> getAllChallenges(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestParam(value = "view", required = false) String view) {
+        if (fields != null || view != null) {
+            List<String> selected;
+            try {
+                selected = fieldProjectionService.resolveFields(ChallengeModel.class, fields, view);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", e.getMessage()));
+            }
+            return KeysetPage.ofRows(fieldProjectionService.keysetPage(ChallengeModel.class, selected,
+                    KeysetPage.after(after), KeysetPage.size(limit)), limit);
+        }
+        List<ChallengeModel> page = challengeRepository.findByIdGreaterThanOrderByIdAsc(
+                KeysetPage.after(after), KeysetPage.limit(limit));
+        return KeysetPage.of(page, limit, ChallengeModel::getId);
+    }
+
+    // Challenges running on a day, today by default.
+    // Paged and sorted with ?page=&size=&sort=category,asc&sort=difficulty,desc
+    @GetMapping("/active")
+    public ResponseEntity<?> getActiveChallenges(
+            @RequestParam(value = "date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @PageableDefault(size = 20) Pageable pageable) {
+        LocalDate day = date != null ? date : LocalDate.now();
+        return paged(() -> challengeScheduleService.activeOn(day, pageable));
+    }
+
+    // Challenges sharing at least one day with [from, to]
+    @GetMapping("/overlapping")
+    public ResponseEntity<?> getOverlappingChallenges(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @PageableDefault(size = 20) Pageable pageable) {
+        if (from.isAfter(to)) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "from must not be after to"));
+        }
+        return paged(() -> challengeScheduleService.overlapping(from, to, pageable));
+    }
+
+    // Challenges starting between today and today + days
+    @GetMapping("/upcoming")
+    public ResponseEntity<?> getUpcomingChallenges(
+            @RequestParam(value = "days", defaultValue = "7") int days,
+            @PageableDefault(size = 20, sort = "startDate") Pageable pageable) {
+        if (days < 0 || days > MAX_UPCOMING_DAYS) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "days must be between 0 and " + MAX_UPCOMING_DAYS));
+        }
+        LocalDate today = LocalDate.now();
+        return paged(() -> challengeScheduleService.startingBetween(today, today.plusDays(days), pageable));
+    }
+
+    private static ResponseEntity<?> paged(Supplier<Page<ChallengeModel>> query) {
+        try {
+            return ResponseEntity.ok(new PagedModel<>(query.get()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        }
     }
 
     // Create new challenge
     @PostMapping
     public ResponseEntity<ChallengeModel> createChallenge(@RequestBody ChallengeModel challenge) {
         ChallengeModel savedChallenge = challengeRepository.save(challenge);
+        eventPublisher.publishEvent(new ChallengeChangedEvent(savedChallenge.getId(), savedChallenge, ChangeType.CREATED));
         return ResponseEntity.ok(savedChallenge);
     }
 
+    // Create or update up to batch.max-items challenges in one transaction
+    @PostMapping("/batch")
+    public ResponseEntity<?> createChallenges(@RequestBody List<ChallengeModel> challenges) {
+        return BatchRequests.write(() -> entityBatchService.createChallenges(challenges));
+    }
+
+    @PutMapping("/batch")
+    public ResponseEntity<?> updateChallenges(@RequestBody List<ChallengeModel> challenges) {
+        return BatchRequests.write(() -> entityBatchService.updateChallenges(challenges));
+    }
+
+    // Challenges by id in request order, with null and a "missing" entry for unknown ids
+    @ReadOnlyEndpoint
+    @PostMapping("/batch-get")
+    public ResponseEntity<?> getChallenges(@RequestBody BatchRequests.BatchGetRequest request) {
+        return BatchRequests.get(() -> entityBatchService.getChallenges(request.ids()));
+    }
+
     // Get challenge by ID
     @GetMapping("/{id}")
     public ResponseEntity<ChallengeModel> getChallengeById(@PathVariable Long id) {
-        ChallengeModel challenge = challengeRepository.findById(id)
-                .orElseThrow(() -> new ChallengeNotFoundException(id));
-        return ResponseEntity.ok(challenge);
+        ChallengeModel challenge = entityLookupService.findChallenge(id);
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(challenge.getVersion()))
+                .body(challenge);
     }
 
     // Update challenge
     @PutMapping("/{id}")
     public ResponseEntity<ChallengeModel> updateChallenge(
             @PathVariable Long id,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch,
             @RequestBody ChallengeModel challengeDetails) {
 
         return challengeRepository.findById(id)
                 .map(challenge -> {
-                    challenge.setChallengeTitle(challengeDetails.getChallengeTitle());
-                    challenge.setChallengeDescription(challengeDetails.getChallengeDescription());
-                    challenge.setCategory(challengeDetails.getCategory());
-                    challenge.setDifficulty(challengeDetails.getDifficulty());
-                    challenge.setStartDate(challengeDetails.getStartDate());
-                    challenge.setEndDate(challengeDetails.getEndDate());
+                    EntityTags.checkIfMatch(ifMatch, challenge.getVersion());
+                    challenge.applyUpdate(challengeDetails);
                     ChallengeModel updatedChallenge = challengeRepository.save(challenge);
-                    return ResponseEntity.ok(updatedChallenge);
+                    entityLookupService.putChallenge(updatedChallenge);
+                    eventPublisher.publishEvent(new ChallengeChangedEvent(id, updatedChallenge, ChangeType.UPDATED));
+                    return ResponseEntity.ok()
+                            .eTag(EntityTags.of(updatedChallenge.getVersion()))
+                            .body(updatedChallenge);
                 })
                 .orElseThrow(() -> new ChallengeNotFoundException(id));
     }
 
     // Delete challenge
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteChallenge(@PathVariable Long id) {
+    public ResponseEntity<?> deleteChallenge(@PathVariable Long id,
+                                             @RequestHeader(value = "If-Match", required = false) String ifMatch) {
         return challengeRepository.findById(id)
                 .map(challenge -> {
+                    EntityTags.checkIfMatch(ifMatch, challenge.getVersion());
                     challengeRepository.delete(challenge);
+                    entityLookupService.evictChallenge(id);
+                    eventPublisher.publishEvent(new ChallengeChangedEvent(id, null, ChangeType.DELETED));
                     return ResponseEntity.ok().build();
                 })
                 .orElseThrow(() -> new ChallengeNotFoundException(id));
@@ -0,0 +1,53 @@
+package backend.Controller;
+
+import backend.Service.ChangeFeedService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/changes")
+@CrossOrigin(origins = "http://localhost:3000")
+public class ChangeFeedController {
+
+    private final ChangeFeedService changeFeedService;
+
+    public ChangeFeedController(ChangeFeedService changeFeedService) {
+        this.changeFeedService = changeFeedService;
+    }
+
+    // Server-sent events for every create, update and delete; ?entities=recipe,challenge to narrow it.
+    // EventSource sends Last-Event-ID itself when it reconnects; ?lastEventId= resumes a fresh connection.
+    @GetMapping
+    public SseEmitter changes(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(value = "lastEventId", required = false) String lastEventId,
+            @RequestParam(value = "entities", required = false) String entities) {
+        Set<ChangeFeedService.Entity> selected = EnumSet.noneOf(ChangeFeedService.Entity.class);
+        if (entities != null && !entities.isBlank()) {
+            for (String entity : entities.split(",")) {
+                selected.add(ChangeFeedService.Entity.valueOf(entity.trim().toUpperCase(Locale.ROOT)));
+            }
+        }
+        return changeFeedService.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventId, selected);
+    }
+
+    // Event streams cannot carry a JSON error body, so these answer with the status alone
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Void> unknownEntity() {
+        return ResponseEntity.badRequest().build();
+    }
+
+    @ExceptionHandler(ChangeFeedService.FeedFullException.class)
+    public ResponseEntity<Void> feedFull() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .build();
+    }
+}
@@ -0,0 +1,38 @@
+package backend.Controller;
+
+import backend.Exception.PreconditionFailedException;
+
+/**
+ * Strong ETags derived from an entity's {@code @Version}. GET handlers put
+ * the tag on the {@code ResponseEntity}, and Spring answers a matching
+ * {@code If-None-Match} with 304. PUT and DELETE handlers check
+ * {@code If-Match} themselves.
+ */
+final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    static String of(Long version) {
+        return "\"" + (version != null ? version : 0L) + "\"";
+    }
+
+    /**
+     * Throws when an {@code If-Match} header is present and names neither
+     * {@code *} nor the current version. Weak tags never match, as required
+     * for If-Match.
+     */
+    static void checkIfMatch(String ifMatch, Long version) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return;
+        }
+        String current = of(version);
+        for (String tag : ifMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.equals("*") || candidate.equals(current)) {
+                return;
+            }
+        }
+        throw new PreconditionFailedException("If-Match " + ifMatch + " does not match current version " + current);
+    }
+}
@@ -0,0 +1,56 @@
+package backend.Controller;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Shared helpers for cursor (keyset on id) pagination of the list endpoints.
+ * Clients pass the last id they have seen as {@code after}; the id to continue
+ * from is returned in the {@value #NEXT_CURSOR_HEADER} header while the body
+ * stays a plain JSON array.
+ */
+final class KeysetPage {
+
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 200;
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private KeysetPage() {
+    }
+
+    static long after(Long cursor) {
+        return cursor == null ? 0L : cursor;
+    }
+
+    static int size(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(requested, MAX_LIMIT);
+    }
+
+    static Limit limit(Integer requested) {
+        return Limit.of(size(requested));
+    }
+
+    static <T> ResponseEntity<List<T>> of(List<T> items, Integer requested, Function<T, Long> idOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        // A full page means there may be more rows after the last id
+        if (!items.isEmpty() && items.size() >= size(requested)) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(idOf.apply(items.get(items.size() - 1))));
+        }
+        return response.body(items);
+    }
+
+    /**
+     * A page of sparse rows from {@code FieldProjectionService}, which always
+     * carry the id.
+     */
+    static ResponseEntity<List<Map<String, Object>>> ofRows(List<Map<String, Object>> rows, Integer requested) {
+        return of(rows, requested, row -> (Long) row.get("id"));
+    }
+}
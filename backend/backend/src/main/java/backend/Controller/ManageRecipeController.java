@@ -1,182 +1,203 @@
 package backend.Controller;
 
-import backend.Exception.RecipeNotFoundException;
+import backend.Event.ChangeType;
+import backend.Event.RecipeChangedEvent;
 import backend.Model.ManageRecipeModel;
 import backend.Model.ManageRecipeModel.MediaItem;
 import backend.Repository.ManageRecipeRepository;
+import backend.Service.ContentAddressedMediaStore;
+import backend.Service.EntityBatchService;
+import backend.Service.EntityLookupService;
+import backend.Service.FieldProjectionService;
+import backend.Service.MediaDerivativeService;
+import backend.Service.MediaFileService;
+import backend.Service.MediaMetrics;
+import backend.Service.MediaProbe;
+import backend.Service.MediaUploadRules;
+import backend.Service.PantryMatcher;
+import backend.Service.RecipeIndexLoader;
+import backend.Service.RecipePageService;
+import backend.Service.RecipeSearchIndex;
+import backend.Service.RecipeSimilarityIndex;
+import backend.config.ReadOnlyEndpoint;
+import backend.config.UploadEndpoint;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
-import jakarta.annotation.PostConstruct;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
-import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @CrossOrigin(origins = "http://localhost:3000", 
              allowedHeaders = "*", 
              methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE},
              allowCredentials = "true",
+             exposedHeaders = KeysetPage.NEXT_CURSOR_HEADER,
              maxAge = 3600)
 @RequestMapping("/api/recipes")
 public class ManageRecipeController {
 
+    private static final Logger log = LoggerFactory.getLogger(ManageRecipeController.class);
+
     @Autowired
     private ManageRecipeRepository manageRecipeRepository;
 
-    private final String UPLOAD_DIR = "uploads";
-    private final Path uploadPath = Paths.get(UPLOAD_DIR).toAbsolutePath().normalize();
-    private final long MAX_VIDEO_DURATION = 30; // maximum video duration in seconds
-    private final int MAX_PHOTO_COUNT = 3; // maximum number of photos per recipe
+    @Autowired
+    private MediaFileService mediaFileService;
 
-    @PostConstruct
-    public void init() {
-        try {
-            Files.createDirectories(uploadPath);
-            System.out.println("Upload directory created at: " + uploadPath);
-        } catch (IOException e) {
-            throw new RuntimeException("Could not create upload directory!", e);
-        }
-    }
+    @Autowired
+    private ContentAddressedMediaStore contentAddressedMediaStore;
 
-    private boolean isValidMediaType(String contentType, String type) {
-        if (contentType == null) return false;
-        if ("photo".equals(type)) {
-            return contentType.startsWith("image/");
-        } else if ("video".equals(type)) {
-            return contentType.startsWith("video/");
-        }
-        return false;
-    }
+    @Autowired
+    private MediaUploadRules mediaUploadRules;
 
-    private boolean validateMediaRequirements(List<MediaItem> mediaItems) {
-        if (mediaItems == null || mediaItems.isEmpty()) {
-            return false;
-        }
+    @Autowired
+    private MediaDerivativeService mediaDerivativeService;
 
-        long videoCount = mediaItems.stream()
-            .filter(item -> "video".equals(item.getType()))
-            .count();
+    @Autowired
+    private MediaMetrics mediaMetrics;
 
-        long photoCount = mediaItems.stream()
-            .filter(item -> "photo".equals(item.getType()))
-            .count();
+    @Autowired
+    private RecipeSearchIndex recipeSearchIndex;
 
-        // Either one video OR up to 3 photos, but not both
-        if (videoCount > 0) {
-            return videoCount == 1 && photoCount == 0;
-        } else {
-            return photoCount > 0 && photoCount <= MAX_PHOTO_COUNT;
-        }
-    }
+    @Autowired
+    private PantryMatcher pantryMatcher;
+
+    @Autowired
+    private RecipeSimilarityIndex recipeSimilarityIndex;
+
+    @Autowired
+    private RecipeIndexLoader recipeIndexLoader;
+
+    @Autowired
+    private EntityLookupService entityLookupService;
 
+    @Autowired
+    private FieldProjectionService fieldProjectionService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MediaProbe mediaProbe;
+
+    @Autowired
+    private RecipePageService recipePageService;
+
+    @Autowired
+    private EntityBatchService entityBatchService;
+
+    @UploadEndpoint
     @PostMapping(value = "/upload-media", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<?> uploadMedia(@RequestParam("file") MultipartFile file, 
                                        @RequestParam("type") String type,
                                        @RequestParam(value = "duration", required = false) Long duration,
                                        @RequestParam(value = "existingMedia", required = false) String existingMediaJson) {
         try {
-            // Validate file size (max 50MB)
-            if (file.getSize() > 50 * 1024 * 1024) {
+            String fileError = mediaUploadRules.checkFile(file.getSize(), file.getContentType(), type);
+            if (fileError != null) {
+                mediaMetrics.recordRejection(MediaMetrics.MULTIPART, MediaMetrics.fileRejectionReason(file.getSize()));
                 return ResponseEntity.badRequest()
-                    .body(Map.of("error", "File size must be less than 50MB"));
+                    .body(Map.of("error", fileError));
             }
 
-            // Validate file type
-            String contentType = file.getContentType();
-            if (!isValidMediaType(contentType, type)) {
+            // Parse existing media from JSON
+            List<MediaItem> currentMedia;
+            try {
+                currentMedia = mediaUploadRules.parseExistingMedia(existingMediaJson);
+            } catch (JsonProcessingException e) {
+                mediaMetrics.recordRejection(MediaMetrics.MULTIPART, MediaMetrics.INVALID_EXISTING_MEDIA);
                 return ResponseEntity.badRequest()
-                    .body(Map.of("error", "Invalid file type. Allowed types: image/*, video/*"));
+                    .body(Map.of("error", "Invalid media data format"));
             }
 
-            // Parse existing media from JSON
-            List<MediaItem> currentMedia = new ArrayList<>();
-            if (existingMediaJson != null && !existingMediaJson.isEmpty()) {
-                ObjectMapper mapper = new ObjectMapper();
-                try {
-                    currentMedia = mapper.readValue(existingMediaJson, 
-                        mapper.getTypeFactory().constructCollectionType(List.class, MediaItem.class));
-                } catch (JsonProcessingException e) {
-                    return ResponseEntity.badRequest()
-                        .body(Map.of("error", "Invalid media data format"));
-                }
+            String mediaError = mediaUploadRules.checkAgainstExisting(type, duration, currentMedia);
+            if (mediaError != null) {
+                mediaMetrics.recordRejection(MediaMetrics.MULTIPART, MediaMetrics.MEDIA_RULES);
+                return ResponseEntity.badRequest()
+                    .body(Map.of("error", mediaError));
             }
 
-            // Check existing media items
-            if ("video".equals(type)) {
-                // If trying to upload a video, check if photos exist
-                if (currentMedia.stream().anyMatch(item -> "photo".equals(item.getType()))) {
-                    return ResponseEntity.badRequest()
-                        .body(Map.of("error", "Cannot add video when photos exist. Please remove photos first."));
-                }
-                
-                // Check if video already exists
-                if (currentMedia.stream().anyMatch(item -> "video".equals(item.getType()))) {
-                    return ResponseEntity.badRequest()
-                        .body(Map.of("error", "Only one video is allowed per recipe"));
-                }
-
-                // Check video duration
-                if (duration == null || duration > MAX_VIDEO_DURATION) {
-                    return ResponseEntity.badRequest()
-                        .body(Map.of("error", "Video duration must be 30 seconds or less"));
+            long started = System.nanoTime();
+            String extension = MediaFileService.extension(file.getOriginalFilename());
+            String fileName;
+            MediaProbe.MediaInfo info;
+            String contentError;
+            if (contentAddressedMediaStore.isEnabled()) {
+                // Store once per distinct content; the name is the content hash
+                ContentAddressedMediaStore.StagedMedia staged =
+                    contentAddressedMediaStore.stage(file.getInputStream(), extension);
+                info = mediaProbe.probe(staged.file());
+                contentError = mediaUploadRules.checkContent(type, info);
+                if (contentError != null) {
+                    contentAddressedMediaStore.discard(staged);
                 }
+                fileName = contentError == null ? contentAddressedMediaStore.commit(staged) : null;
             } else {
-                // If trying to upload a photo, check if video exists or photo limit reached
-                if (currentMedia.stream().anyMatch(item -> "video".equals(item.getType()))) {
-                    return ResponseEntity.badRequest()
-                        .body(Map.of("error", "Cannot add photos when video exists. Please remove video first."));
-                }
-
-                long photoCount = currentMedia.stream()
-                    .filter(item -> "photo".equals(item.getType()))
-                    .count();
-                if (photoCount >= MAX_PHOTO_COUNT) {
-                    return ResponseEntity.badRequest()
-                        .body(Map.of("error", "Maximum 3 photos allowed"));
+                // Generate unique filename
+                fileName = mediaFileService.legacyName(extension);
+                Path filePath = mediaFileService.getUploadPath().resolve(fileName).normalize();
+
+                // Save file
+                Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+                info = mediaProbe.probe(filePath);
+                contentError = mediaUploadRules.checkContent(type, info);
+                if (contentError != null) {
+                    Files.deleteIfExists(filePath);
                 }
             }
+            // The declared type and duration are only trusted once the bytes agree with them
+            if (contentError != null) {
+                mediaMetrics.recordRejection(MediaMetrics.MULTIPART, MediaMetrics.INVALID_CONTENT);
+                return ResponseEntity.badRequest()
+                    .body(Map.of("error", contentError));
+            }
+            mediaMetrics.recordUpload(MediaMetrics.MULTIPART, file.getSize(), System.nanoTime() - started);
 
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String extension = originalFilename != null ? originalFilename.substring(originalFilename.lastIndexOf(".")) : "";
-            String fileName = System.currentTimeMillis() + "_" + Math.round(Math.random() * 1000) + extension;
-            Path filePath = uploadPath.resolve(fileName).normalize();
-
-            // Save file
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            if ("photo".equals(type)) {
+                mediaDerivativeService.submit(fileName);
+            }
 
             Map<String, Object> response = new HashMap<>();
             response.put("filename", fileName);
             response.put("type", type);
-            if (duration != null) {
-                response.put("duration", duration);
+            if (info.kind() == MediaProbe.Kind.VIDEO) {
+                response.put("duration", info.durationSeconds());
+                response.put("width", info.width());
+                response.put("height", info.height());
+                response.put("codec", info.codec());
             }
 
             return ResponseEntity.ok(response);
 
         } catch (IOException e) {
-            e.printStackTrace();
+            log.error("Failed to store uploaded media {}", file.getOriginalFilename(), e);
+            mediaMetrics.recordRejection(MediaMetrics.MULTIPART, MediaMetrics.IO_ERROR);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", "Failed to upload media file: " + e.getMessage()));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Unexpected error uploading media {}", file.getOriginalFilename(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", "An unexpected error occurred: " + e.getMessage()));
         }
@@ -184,59 +205,211 @@ public class ManageRecipeController {
 
     @PostMapping
     public ResponseEntity<?> createRecipe(@RequestBody ManageRecipeModel newRecipe) {
-        if (!validateMediaRequirements(newRecipe.getMediaItems())) {
+        if (!mediaUploadRules.validateMediaRequirements(newRecipe.getMediaItems())) {
             return ResponseEntity.badRequest()
-                .body(Map.of("error", "Recipe must include at least one video (max 30 sec) and up to 3 media items total"));
+                .body(Map.of("error", EntityBatchService.MEDIA_RULES_ERROR));
         }
-        return ResponseEntity.ok(manageRecipeRepository.save(newRecipe));
+        ManageRecipeModel savedRecipe = manageRecipeRepository.save(newRecipe);
+        contentAddressedMediaStore.retain(savedRecipe.getMediaItems());
+        eventPublisher.publishEvent(new RecipeChangedEvent(savedRecipe.getId(), savedRecipe, ChangeType.CREATED));
+        return ResponseEntity.ok(savedRecipe);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<?> updateRecipe(
             @PathVariable Long id,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch,
             @RequestBody ManageRecipeModel recipeDetails) {
-        if (!validateMediaRequirements(recipeDetails.getMediaItems())) {
+        if (!mediaUploadRules.validateMediaRequirements(recipeDetails.getMediaItems())) {
             return ResponseEntity.badRequest()
-                .body(Map.of("error", "Recipe must include at least one video (max 30 sec) and up to 3 media items total"));
+                .body(Map.of("error", EntityBatchService.MEDIA_RULES_ERROR));
         }
 
         return manageRecipeRepository.findById(id)
                 .map(recipe -> {
-                    recipe.setRecipeName(recipeDetails.getRecipeName());
-                    recipe.setRecipeDescription(recipeDetails.getRecipeDescription());
-                    recipe.setPrepTime(recipeDetails.getPrepTime());
-                    recipe.setCookTime(recipeDetails.getCookTime());
-                    recipe.setServings(recipeDetails.getServings());
-                    recipe.setDifficultyLevel(recipeDetails.getDifficultyLevel());
-                    recipe.setCategory(recipeDetails.getCategory());
-                    recipe.setIngredients(recipeDetails.getIngredients());
-                    recipe.setInstructions(recipeDetails.getInstructions());
-                    recipe.setMediaItems(recipeDetails.getMediaItems());
-                    recipe.setVideoUrl(recipeDetails.getVideoUrl());
-                    return ResponseEntity.ok(manageRecipeRepository.save(recipe));
+                    EntityTags.checkIfMatch(ifMatch, recipe.getVersion());
+                    List<MediaItem> previousMedia = new ArrayList<>(recipe.getMediaItems());
+                    recipe.applyUpdate(recipeDetails);
+                    ManageRecipeModel updatedRecipe = manageRecipeRepository.save(recipe);
+                    entityLookupService.putRecipe(updatedRecipe);
+                    contentAddressedMediaStore.replace(previousMedia, updatedRecipe.getMediaItems());
+                    eventPublisher.publishEvent(new RecipeChangedEvent(id, updatedRecipe, ChangeType.UPDATED));
+                    return ResponseEntity.ok()
+                            .eTag(EntityTags.of(updatedRecipe.getVersion()))
+                            .body(updatedRecipe);
                 })
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    // Up to batch.max-items recipes in one transaction; each item gets its own result
+    @PostMapping("/batch")
+    public ResponseEntity<?> createRecipes(@RequestBody List<ManageRecipeModel> recipes) {
+        return BatchRequests.write(() -> entityBatchService.createRecipes(recipes));
+    }
+
+    @PutMapping("/batch")
+    public ResponseEntity<?> updateRecipes(@RequestBody List<ManageRecipeModel> recipes) {
+        return BatchRequests.write(() -> entityBatchService.updateRecipes(recipes));
+    }
+
+    // Recipes by id in request order, with null and a "missing" entry for unknown ids
+    @ReadOnlyEndpoint
+    @PostMapping("/batch-get")
+    public ResponseEntity<?> getRecipes(@RequestBody BatchRequests.BatchGetRequest request) {
+        return BatchRequests.get(() -> entityBatchService.getRecipes(request.ids()));
+    }
+
+    // ?view=summary or ?fields=recipeName,category,coverMedia return only those fields
     @GetMapping
-    public List<ManageRecipeModel> getAllRecipes() {
-        return manageRecipeRepository.findAll();
+    public ResponseEntity<?> getAllRecipes(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestParam(value = "view", required = false) String view) {
+        if (fields != null || view != null) {
+            List<String> selected;
+            try {
+                selected = fieldProjectionService.resolveFields(ManageRecipeModel.class, fields, view);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+            }
+            return KeysetPage.ofRows(fieldProjectionService.keysetPage(ManageRecipeModel.class, selected,
+                    KeysetPage.after(after), KeysetPage.size(limit)), limit);
+        }
+        List<ManageRecipeModel> page = manageRecipeRepository.findByIdGreaterThanOrderByIdAsc(
+                KeysetPage.after(after), KeysetPage.limit(limit));
+        return KeysetPage.of(page, limit, ManageRecipeModel::getId);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchRecipes(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        if (!recipeIndexLoader.isReady()) {
+            return indexNotReady();
+        }
+        List<RecipeSearchIndex.SearchHit> hits = recipeSearchIndex.search(query, KeysetPage.size(limit));
+        List<Long> ids = hits.stream().map(RecipeSearchIndex.SearchHit::recipeId).toList();
+        Map<Long, ManageRecipeModel> recipesById = new HashMap<>();
+        for (ManageRecipeModel recipe : manageRecipeRepository.findAllById(ids)) {
+            recipesById.put(recipe.getId(), recipe);
+        }
+        // Keep the ranking order; skip hits deleted since they were indexed
+        List<ManageRecipeModel> results = ids.stream()
+                .map(recipesById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return ResponseEntity.ok(results);
+    }
+
+    public record PantryRequest(List<String> ingredients, Integer maxMissing, Integer limit) {
+    }
+
+    // Recipes ranked by how many of their ingredients the user already has
+    @ReadOnlyEndpoint
+    @PostMapping("/what-can-i-cook")
+    public ResponseEntity<?> whatCanICook(@RequestBody PantryRequest request) {
+        if (request.ingredients() == null || request.ingredients().isEmpty()) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "At least one ingredient is required"));
+        }
+        if (!recipeIndexLoader.isReady()) {
+            return indexNotReady();
+        }
+        int maxMissing = request.maxMissing() != null ? Math.max(0, request.maxMissing()) : Integer.MAX_VALUE;
+        List<PantryMatcher.PantryMatch> matches =
+                pantryMatcher.match(request.ingredients(), maxMissing, KeysetPage.size(request.limit()));
+
+        Map<Long, ManageRecipeModel> recipesById = new HashMap<>();
+        for (ManageRecipeModel recipe : manageRecipeRepository.findAllById(
+                matches.stream().map(PantryMatcher.PantryMatch::recipeId).toList())) {
+            recipesById.put(recipe.getId(), recipe);
+        }
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (PantryMatcher.PantryMatch match : matches) {
+            ManageRecipeModel recipe = recipesById.get(match.recipeId());
+            if (recipe != null) {
+                Map<String, Object> result = new HashMap<>();
+                result.put("recipe", recipe);
+                result.put("matched", match.matched());
+                result.put("missing", match.missing());
+                result.put("coverage", match.coverage());
+                result.put("missingIngredients", match.missingIngredients());
+                results.add(result);
+            }
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    // Recipes sharing the most ingredients, category and difficulty with this one
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<?> getSimilarRecipes(
+            @PathVariable Long id,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        if (!recipeIndexLoader.isReady()) {
+            return indexNotReady();
+        }
+        ManageRecipeModel recipe = entityLookupService.findRecipe(id);
+        List<RecipeSimilarityIndex.SimilarRecipe> similar =
+                recipeSimilarityIndex.similar(recipe, KeysetPage.size(limit));
+
+        Map<Long, ManageRecipeModel> recipesById = new HashMap<>();
+        for (ManageRecipeModel candidate : manageRecipeRepository.findAllById(
+                similar.stream().map(RecipeSimilarityIndex.SimilarRecipe::recipeId).toList())) {
+            recipesById.put(candidate.getId(), candidate);
+        }
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (RecipeSimilarityIndex.SimilarRecipe match : similar) {
+            ManageRecipeModel candidate = recipesById.get(match.recipeId());
+            if (candidate != null) {
+                Map<String, Object> result = new HashMap<>();
+                result.put("recipe", candidate);
+                result.put("similarity", match.similarity());
+                results.add(result);
+            }
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    // A partial index would silently return partial results
+    private static ResponseEntity<?> indexNotReady() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "30")
+            .body(Map.of("error", "Recipe index is still loading"));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<ManageRecipeModel> getRecipeById(@PathVariable Long id) {
-        ManageRecipeModel recipe = manageRecipeRepository.findById(id)
-                .orElseThrow(() -> new RecipeNotFoundException(id));
-        return ResponseEntity.ok(recipe);
+        ManageRecipeModel recipe = entityLookupService.findRecipe(id);
+        // A matching If-None-Match is answered with 304 by Spring
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(recipe.getVersion()))
+                .body(recipe);
+    }
+
+    // Recipe, related challenges and plans in one round trip, loaded concurrently
+    @GetMapping("/{id}/page")
+    public ResponseEntity<?> getRecipePage(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(recipePageService.page(id));
+        } catch (TimeoutException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("error", "Timed out loading recipe " + id));
+        }
     }
 
     @GetMapping("/media/{filename:.+}")
-    public ResponseEntity<?> getMedia(@PathVariable String filename) {
+    public ResponseEntity<?> getMedia(@PathVariable String filename,
+                                      @RequestParam(value = "w", required = false) Integer width,
+                                      ServletWebRequest webRequest,
+                                      HttpServletRequest request,
+                                      HttpServletResponse response) {
         try {
-            Path filePath = uploadPath.resolve(filename).normalize();
-            
+            Path filePath = mediaFileService.resolve(filename);
+
             // Security check to prevent directory traversal
-            if (!filePath.getParent().equals(uploadPath)) {
+            if (filePath == null) {
                 return ResponseEntity.badRequest()
                     .body(Map.of("error", "Invalid file path"));
             }
@@ -245,29 +418,54 @@ public class ManageRecipeController {
                 return ResponseEntity.notFound().build();
             }
 
-            String contentType = Files.probeContentType(filePath);
-            if (contentType == null) {
-                contentType = "application/octet-stream";
+            // Serve a resized copy when one is ready, otherwise fall back to the original
+            boolean derived = false;
+            if (width != null) {
+                Path derivative = mediaDerivativeService.find(filename, width);
+                if (derivative != null) {
+                    filePath = derivative;
+                    filename = derivative.getFileName().toString();
+                    derived = true;
+                }
+            }
+
+            BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+            // An original standing in for a pending derivative is only good until the derivative exists
+            mediaFileService.applyCacheHeaders(response, width == null || derived);
+            if (webRequest.checkNotModified(mediaFileService.etag(filename, attributes),
+                    attributes.lastModifiedTime().toMillis())) {
+                // 304 with validators already written
+                return null;
             }
 
-            Resource resource = new FileSystemResource(filePath.toFile());
-            return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .body(resource);
+            long served = mediaFileService.write(filePath, filename, attributes, request, response);
+            mediaMetrics.recordServed(derived, served);
+            return null;
         } catch (IOException e) {
-            e.printStackTrace();
+            if (response.isCommitted()) {
+                // Client went away mid-transfer, typically while seeking
+                return null;
+            }
+            log.error("Failed to serve media {}", filename, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", "Failed to retrieve media file: " + e.getMessage()));
         }
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteRecipe(@PathVariable Long id) {
-        if (manageRecipeRepository.existsById(id)) {
-            manageRecipeRepository.deleteById(id);
-            return ResponseEntity.noContent().build();
-        }
-        return ResponseEntity.notFound().build();
+    public ResponseEntity<Void> deleteRecipe(@PathVariable Long id,
+                                             @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        return manageRecipeRepository.findById(id)
+                .map(recipe -> {
+                    EntityTags.checkIfMatch(ifMatch, recipe.getVersion());
+                    List<MediaItem> media = new ArrayList<>(recipe.getMediaItems());
+                    manageRecipeRepository.delete(recipe);
+                    entityLookupService.evictRecipe(id);
+                    contentAddressedMediaStore.release(media);
+                    eventPublisher.publishEvent(new RecipeChangedEvent(id, null, ChangeType.DELETED));
+                    return ResponseEntity.noContent().<Void>build();
+                })
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
 }
\ No newline at end of file
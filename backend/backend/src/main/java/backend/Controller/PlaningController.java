@@ -1,60 +1,143 @@
 package backend.Controller;
 
+import backend.Event.ChangeType;
+import backend.Event.PlanChangedEvent;
 import backend.Exception.PlaningNotFoundException;
 import backend.Model.PlaningModel;
 import backend.Repository.PlaningRepository;
+import backend.Service.EntityBatchService;
+import backend.Service.EntityLookupService;
+import backend.Service.FieldProjectionService;
+import backend.Service.MealPlanService;
+import backend.config.ReadOnlyEndpoint;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
-@CrossOrigin("http://localhost:3000")
+@CrossOrigin(origins = "http://localhost:3000", exposedHeaders = KeysetPage.NEXT_CURSOR_HEADER)
 @RequestMapping("/plans")
 public class PlaningController {
     @Autowired
     private PlaningRepository planingRepository;
 
+    @Autowired
+    private EntityLookupService entityLookupService;
+
+    @Autowired
+    private MealPlanService mealPlanService;
+
+    @Autowired
+    private FieldProjectionService fieldProjectionService;
+
+    @Autowired
+    private EntityBatchService entityBatchService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @PostMapping
     public PlaningModel newPlan(@RequestBody PlaningModel newPlan) {
-        return planingRepository.save(newPlan);
+        PlaningModel savedPlan = planingRepository.save(newPlan);
+        eventPublisher.publishEvent(new PlanChangedEvent(savedPlan.getId(), savedPlan, ChangeType.CREATED));
+        return savedPlan;
     }
 
+    // Create or update up to batch.max-items plans in one transaction
+    @PostMapping("/batch")
+    public ResponseEntity<?> newPlans(@RequestBody List<PlaningModel> plans) {
+        return BatchRequests.write(() -> entityBatchService.createPlans(plans));
+    }
+
+    @PutMapping("/batch")
+    public ResponseEntity<?> updatePlans(@RequestBody List<PlaningModel> plans) {
+        return BatchRequests.write(() -> entityBatchService.updatePlans(plans));
+    }
+
+    // Plans by id in request order, with null and a "missing" entry for unknown ids
+    @ReadOnlyEndpoint
+    @PostMapping("/batch-get")
+    public ResponseEntity<?> getPlans(@RequestBody BatchRequests.BatchGetRequest request) {
+        return BatchRequests.get(() -> entityBatchService.getPlans(request.ids()));
+    }
+
+    // ?view=summary or ?fields=planTitle,meals return only those fields
     @GetMapping("/plans")
-    List<PlaningModel> getAllPlans() {
-        return planingRepository.findAll();
+    ResponseEntity<?> getAllPlans(
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestParam(value = "view", required = false) String view) {
+        if (fields != null || view != null) {
+            List<String> selected;
+            try {
+                selected = fieldProjectionService.resolveFields(PlaningModel.class, fields, view);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", e.getMessage()));
+            }
+            return KeysetPage.ofRows(fieldProjectionService.keysetPage(PlaningModel.class, selected,
+                    KeysetPage.after(after), KeysetPage.size(limit)), limit);
+        }
+        List<PlaningModel> page = planingRepository.findByIdGreaterThanOrderByIdAsc(
+                KeysetPage.after(after), KeysetPage.limit(limit));
+        return KeysetPage.of(page, limit, PlaningModel::getId);
     }
 
     @GetMapping("/plans/{id}")
-    PlaningModel getPlanById(@PathVariable Long id) {
-        return planingRepository.findById(id)
-                .orElseThrow(() -> new PlaningNotFoundException(id));
+    ResponseEntity<PlaningModel> getPlanById(@PathVariable Long id) {
+        PlaningModel plan = entityLookupService.findPlan(id);
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(plan.getVersion()))
+                .body(plan);
+    }
+
+    // The plan with every referenced recipe, fetched in one query
+    @GetMapping("/{id}/expanded")
+    public MealPlanService.ExpandedPlan getExpandedPlan(@PathVariable Long id) {
+        return mealPlanService.expand(id);
+    }
+
+    @GetMapping("/{id}/shopping-list")
+    public MealPlanService.ShoppingList getShoppingList(@PathVariable Long id) {
+        return mealPlanService.shoppingList(id);
     }
 
     @PutMapping("/plans/{id}")
-    public PlaningModel updatePlan(
+    public ResponseEntity<PlaningModel> updatePlan(
             @RequestBody PlaningModel updatedPlan,
-            @PathVariable Long id
+            @PathVariable Long id,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch
     ) {
         return planingRepository.findById(id)
                 .map(plan -> {
-                    plan.setPlanTitle(updatedPlan.getPlanTitle());
-                    plan.setPlanDescription(updatedPlan.getPlanDescription());
-                    plan.setPlanDuration(updatedPlan.getPlanDuration());
-                    plan.setPlanDifficulty(updatedPlan.getPlanDifficulty());
-                    plan.setPlanCategory(updatedPlan.getPlanCategory());
-                    plan.setMeals(updatedPlan.getMeals());
-                    return planingRepository.save(plan);
+                    EntityTags.checkIfMatch(ifMatch, plan.getVersion());
+                    plan.applyUpdate(updatedPlan);
+                    PlaningModel savedPlan = planingRepository.save(plan);
+                    entityLookupService.putPlan(savedPlan);
+                    mealPlanService.evictShoppingList(id);
+                    eventPublisher.publishEvent(new PlanChangedEvent(id, savedPlan, ChangeType.UPDATED));
+                    return ResponseEntity.ok()
+                            .eTag(EntityTags.of(savedPlan.getVersion()))
+                            .body(savedPlan);
                 })
                 .orElseThrow(() -> new PlaningNotFoundException(id));
     }
 
     @DeleteMapping("/plans/{id}")
-    public String deletePlan(@PathVariable Long id) {
-        if (!planingRepository.existsById(id)) {
-            throw new PlaningNotFoundException(id);
-        }
-        planingRepository.deleteById(id);
+    public String deletePlan(@PathVariable Long id,
+                             @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        PlaningModel plan = planingRepository.findById(id)
+                .orElseThrow(() -> new PlaningNotFoundException(id));
+        EntityTags.checkIfMatch(ifMatch, plan.getVersion());
+        planingRepository.delete(plan);
+        entityLookupService.evictPlan(id);
+        mealPlanService.evictShoppingList(id);
+        eventPublisher.publishEvent(new PlanChangedEvent(id, null, ChangeType.DELETED));
         return "Plan with id " + id + " has been deleted successfully.";
     }
 }
\ No newline at end of file
@@ -0,0 +1,195 @@
+package backend.Controller;
+
+import backend.Exception.UploadSessionNotFoundException;
+import backend.Model.ManageRecipeModel.MediaItem;
+import backend.Service.MediaDerivativeService;
+import backend.Service.MediaMetrics;
+import backend.Service.MediaProbe;
+import backend.Service.MediaUploadRules;
+import backend.Service.UploadSessionService;
+import backend.Service.UploadSessionService.UploadSession;
+import backend.config.UploadEndpoint;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resumable media uploads. A client creates a session, PATCHes raw chunks
+ * with an {@code Upload-Offset} header, asks for the current offset after a
+ * dropped connection, and finalizes once every byte has arrived.
+ */
+@RestController
+@CrossOrigin(origins = "http://localhost:3000",
+             allowedHeaders = "*",
+             exposedHeaders = {UploadSessionController.UPLOAD_OFFSET, UploadSessionController.UPLOAD_LENGTH, "Location"},
+             methods = {RequestMethod.GET, RequestMethod.HEAD, RequestMethod.POST, RequestMethod.PATCH, RequestMethod.DELETE},
+             allowCredentials = "true",
+             maxAge = 3600)
+@RequestMapping("/api/recipes/uploads")
+public class UploadSessionController {
+
+    static final String UPLOAD_OFFSET = "Upload-Offset";
+    static final String UPLOAD_LENGTH = "Upload-Length";
+
+    @Autowired
+    private UploadSessionService uploadSessionService;
+
+    @Autowired
+    private MediaUploadRules mediaUploadRules;
+
+    @Autowired
+    private MediaDerivativeService mediaDerivativeService;
+
+    @Autowired
+    private MediaMetrics mediaMetrics;
+
+    @Autowired
+    private MediaProbe mediaProbe;
+
+    public record CreateUploadRequest(String fileName, String type, String contentType, Long length,
+                                      Long duration, List<MediaItem> existingMedia) {
+    }
+
+    // Charged to the per-client upload rate once; its chunks and finalize call are not
+    @UploadEndpoint(streamsBody = false)
+    @PostMapping
+    public ResponseEntity<?> createUpload(@RequestBody CreateUploadRequest request) throws IOException {
+        if (request.length() == null || request.length() <= 0) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "Upload length is required"));
+        }
+        // Reject obviously invalid uploads before any bytes are sent; the full rules run again at finalize
+        String fileError = mediaUploadRules.checkFile(request.length(), request.contentType(), request.type());
+        if (fileError != null) {
+            mediaMetrics.recordRejection(MediaMetrics.RESUMABLE, MediaMetrics.fileRejectionReason(request.length()));
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", fileError));
+        }
+        List<MediaItem> existingMedia = request.existingMedia() != null ? request.existingMedia() : List.of();
+        String mediaError = mediaUploadRules.checkAgainstExisting(request.type(), request.duration(), existingMedia);
+        if (mediaError != null) {
+            mediaMetrics.recordRejection(MediaMetrics.RESUMABLE, MediaMetrics.MEDIA_RULES);
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", mediaError));
+        }
+
+        UploadSession session = uploadSessionService.create(request.fileName(), request.type(),
+                request.contentType(), request.length(), request.duration(), existingMedia);
+        return ResponseEntity.created(URI.create("/api/recipes/uploads/" + session.getId()))
+                .header(UPLOAD_OFFSET, "0")
+                .header(UPLOAD_LENGTH, String.valueOf(session.getLength()))
+                .body(status(session));
+    }
+
+    // Also answers HEAD, which is how clients ask where to resume
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getUpload(@PathVariable String id) {
+        UploadSession session = find(id);
+        return ResponseEntity.ok()
+                .header(UPLOAD_OFFSET, String.valueOf(session.getOffset()))
+                .header(UPLOAD_LENGTH, String.valueOf(session.getLength()))
+                .header("Cache-Control", "no-store")
+                .body(status(session));
+    }
+
+    @UploadEndpoint(startsUpload = false)
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> appendChunk(@PathVariable String id,
+                                         @RequestHeader(UPLOAD_OFFSET) long offset,
+                                         HttpServletRequest request) throws IOException {
+        UploadSession session = find(id);
+        try {
+            long started = System.nanoTime();
+            long newOffset = uploadSessionService.append(session, offset, request.getInputStream());
+            mediaMetrics.recordUpload(MediaMetrics.RESUMABLE, newOffset - offset, System.nanoTime() - started);
+            return ResponseEntity.noContent()
+                    .header(UPLOAD_OFFSET, String.valueOf(newOffset))
+                    .build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(UPLOAD_OFFSET, String.valueOf(session.getOffset()))
+                .body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .header(UPLOAD_OFFSET, String.valueOf(session.getOffset()))
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @UploadEndpoint(startsUpload = false)
+    @PostMapping("/{id}/finalize")
+    public ResponseEntity<?> finalizeUpload(@PathVariable String id) throws IOException {
+        // Locked so a concurrent chunk, abort or second finalize cannot interleave
+        return uploadSessionService.finalizeUpload(find(id), session -> {
+            if (!session.isComplete()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .header(UPLOAD_OFFSET, String.valueOf(session.getOffset()))
+                    .body(Map.of("error", "Upload is incomplete"));
+            }
+
+            String fileError = mediaUploadRules.checkFile(session.getLength(), session.getContentType(), session.getType());
+            String mediaError = fileError != null ? fileError
+                    : mediaUploadRules.checkAgainstExisting(session.getType(), session.getDuration(), session.getExistingMedia());
+            if (mediaError != null) {
+                mediaMetrics.recordRejection(MediaMetrics.RESUMABLE, fileError != null
+                        ? MediaMetrics.fileRejectionReason(session.getLength()) : MediaMetrics.MEDIA_RULES);
+                uploadSessionService.abort(session);
+                return ResponseEntity.badRequest()
+                    .body(Map.of("error", mediaError));
+            }
+
+            MediaProbe.MediaInfo info = mediaProbe.probe(session.getFile());
+            String contentError = mediaUploadRules.checkContent(session.getType(), info);
+            if (contentError != null) {
+                mediaMetrics.recordRejection(MediaMetrics.RESUMABLE, MediaMetrics.INVALID_CONTENT);
+                uploadSessionService.abort(session);
+                return ResponseEntity.badRequest()
+                    .body(Map.of("error", contentError));
+            }
+
+            String fileName = uploadSessionService.complete(session);
+            if ("photo".equals(session.getType())) {
+                mediaDerivativeService.submit(fileName);
+            }
+            Map<String, Object> response = new HashMap<>();
+            response.put("filename", fileName);
+            response.put("type", session.getType());
+            if (info.kind() == MediaProbe.Kind.VIDEO) {
+                response.put("duration", info.durationSeconds());
+                response.put("width", info.width());
+                response.put("height", info.height());
+                response.put("codec", info.codec());
+            }
+            return ResponseEntity.ok(response);
+        });
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> abortUpload(@PathVariable String id) throws IOException {
+        uploadSessionService.abort(find(id));
+        return ResponseEntity.noContent().build();
+    }
+
+    private UploadSession find(String id) {
+        UploadSession session = uploadSessionService.get(id);
+        if (session == null) {
+            throw new UploadSessionNotFoundException(id);
+        }
+        return session;
+    }
+
+    private static Map<String, Object> status(UploadSession session) {
+        return Map.of(
+                "id", session.getId(),
+                "offset", session.getOffset(),
+                "length", session.getLength());
+    }
+}
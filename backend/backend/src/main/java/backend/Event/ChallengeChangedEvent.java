@@ -0,0 +1,10 @@
+package backend.Event;
+
+import backend.Model.ChallengeModel;
+
+/**
+ * Published by the challenge write endpoints after the change is saved.
+ * {@code challenge} is the saved state, or {@code null} for deletions.
+ */
+public record ChallengeChangedEvent(Long challengeId, ChallengeModel challenge, ChangeType type) {
+}
@@ -0,0 +1,7 @@
+package backend.Event;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,10 @@
+package backend.Event;
+
+import backend.Model.PlaningModel;
+
+/**
+ * Published by the plan write endpoints after the change is saved.
+ * {@code plan} is the saved state, or {@code null} for deletions.
+ */
+public record PlanChangedEvent(Long planId, PlaningModel plan, ChangeType type) {
+}
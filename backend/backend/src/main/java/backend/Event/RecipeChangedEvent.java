@@ -0,0 +1,10 @@
+package backend.Event;
+
+import backend.Model.ManageRecipeModel;
+
+/**
+ * Published by the recipe write endpoints after the change is saved.
+ * {@code recipe} is the saved state, or {@code null} for deletions.
+ */
+public record RecipeChangedEvent(Long recipeId, ManageRecipeModel recipe, ChangeType type) {
+}
@@ -0,0 +1,11 @@
+package backend.Exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class UploadSessionNotFoundException extends RuntimeException {
+    public UploadSessionNotFoundException(String id) {
+        super("Could not find upload session with id: " + id);
+    }
+}
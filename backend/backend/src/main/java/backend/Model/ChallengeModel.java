@@ -1,12 +1,22 @@
 package backend.Model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 
 @Entity
+@Table(indexes = {
+        // Range queries: "starts before B and ends after A", and "starts between A and B"
+        @Index(name = "idx_challenge_start_end", columnList = "start_date, end_date"),
+        @Index(name = "idx_challenge_end", columnList = "end_date")
+})
 public class ChallengeModel {
     @Id
     @GeneratedValue
@@ -14,13 +24,19 @@ public class ChallengeModel {
 
     private String challengeTitle;
     private String challengeDescription;
-    private String Category;
+    private String category;
 
     private String difficulty;
 
     private LocalDate startDate;
     private LocalDate endDate;
 
+    // Bumped on every update; exposed as the ETag for conditional requests
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     public ChallengeModel(){
 
     }
@@ -30,12 +46,24 @@ public class ChallengeModel {
         this.id = id;
         this.challengeTitle = challengeTitle;
         this.challengeDescription = challengeDescription;
-        Category = category;
+        this.category = category;
         this.difficulty = difficulty;
         this.startDate = startDate;
         this.endDate = endDate;
     }
 
+    /**
+     * Copies the editable fields of an update onto this managed challenge.
+     */
+    public void applyUpdate(ChallengeModel details) {
+        challengeTitle = details.challengeTitle;
+        challengeDescription = details.challengeDescription;
+        category = details.category;
+        difficulty = details.difficulty;
+        startDate = details.startDate;
+        endDate = details.endDate;
+    }
+
     public Long getId() {
         return id;
     }
@@ -61,11 +89,11 @@ public class ChallengeModel {
     }
 
     public String getCategory() {
-        return Category;
+        return category;
     }
 
     public void setCategory(String category) {
-        Category = category;
+        this.category = category;
     }
 
     public String getDifficulty() {
@@ -91,4 +119,12 @@ public class ChallengeModel {
     public void setEndDate(LocalDate endDate) {
         this.endDate = endDate;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
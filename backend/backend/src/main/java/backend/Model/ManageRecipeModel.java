@@ -1,8 +1,12 @@
 package backend.Model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 @Entity
 public class ManageRecipeModel {
@@ -18,18 +22,33 @@ public class ManageRecipeModel {
     private String difficultyLevel;
     private String category;
 
+    // Collections of a page of recipes are loaded together, one query per collection.
+    // The order column makes them indexed lists, so an edit touches only the rows that changed.
     @ElementCollection
+    @BatchSize(size = 100)
+    @OrderColumn(name = "list_index")
     private List<String> ingredients;
 
     @ElementCollection
+    @BatchSize(size = 100)
+    @OrderColumn(name = "list_index")
     private List<String> instructions;
 
     @ElementCollection
-    @CollectionTable(name = "recipe_media_items", joinColumns = @JoinColumn(name = "recipe_id"))
+    @BatchSize(size = 100)
+    @OrderColumn(name = "list_index")
+    @CollectionTable(name = "recipe_media_items", joinColumns = @JoinColumn(name = "recipe_id"),
+            indexes = @Index(name = "idx_recipe_media_path", columnList = "path"))
     private List<MediaItem> mediaItems = new ArrayList<>();
 
     private String videoUrl;
 
+    // Bumped on every update; exposed as the ETag for conditional requests
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @Embeddable
     public static class MediaItem {
         private String path;
@@ -52,6 +71,19 @@ public class ManageRecipeModel {
         
         public Long getDuration() { return duration; }
         public void setDuration(Long duration) { this.duration = duration; }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) return true;
+            if (!(other instanceof MediaItem item)) return false;
+            return Objects.equals(path, item.path) && Objects.equals(type, item.type)
+                    && Objects.equals(duration, item.duration);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, type, duration);
+        }
     }
 
     public ManageRecipeModel() {
@@ -75,6 +107,46 @@ public class ManageRecipeModel {
         this.videoUrl = videoUrl;
     }
 
+    /**
+     * Copies an edit onto this managed recipe. The lists are changed in place,
+     * position by position, rather than replaced, so Hibernate updates,
+     * inserts or deletes only the rows that differ instead of rewriting every
+     * child row.
+     */
+    public void applyUpdate(ManageRecipeModel details) {
+        recipeName = details.recipeName;
+        recipeDescription = details.recipeDescription;
+        prepTime = details.prepTime;
+        cookTime = details.cookTime;
+        servings = details.servings;
+        difficultyLevel = details.difficultyLevel;
+        category = details.category;
+        ingredients = merge(ingredients, details.ingredients);
+        instructions = merge(instructions, details.instructions);
+        mediaItems = merge(mediaItems, details.mediaItems);
+        videoUrl = details.videoUrl;
+    }
+
+    private static <T> List<T> merge(List<T> stored, List<T> incoming) {
+        List<T> target = incoming != null ? incoming : List.of();
+        if (stored == null) {
+            return new ArrayList<>(target);
+        }
+        int common = Math.min(stored.size(), target.size());
+        for (int i = 0; i < common; i++) {
+            // Setting an equal element would still mark the collection dirty and bump the version
+            if (!Objects.equals(stored.get(i), target.get(i))) {
+                stored.set(i, target.get(i));
+            }
+        }
+        if (stored.size() > target.size()) {
+            stored.subList(target.size(), stored.size()).clear();
+        } else {
+            stored.addAll(target.subList(common, target.size()));
+        }
+        return stored;
+    }
+
     public Long getId() {
         return id;
     }
@@ -170,5 +242,12 @@ public class ManageRecipeModel {
     public void setVideoUrl(String videoUrl) {
         this.videoUrl = videoUrl;
     }
-}
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,74 @@
+package backend.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+import java.time.Instant;
+
+@Entity
+public class MediaBlob {
+    // Hex SHA-256 of the file content
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    private String extension;
+    private long size;
+
+    // Number of recipes whose media items point at this blob
+    private int refCount;
+
+    private Instant createdAt;
+
+    public MediaBlob() {
+    }
+
+    public MediaBlob(String hash, String extension, long size, int refCount, Instant createdAt) {
+        this.hash = hash;
+        this.extension = extension;
+        this.size = size;
+        this.refCount = refCount;
+        this.createdAt = createdAt;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public void setExtension(String extension) {
+        this.extension = extension;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public int getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(int refCount) {
+        this.refCount = refCount;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -1,11 +1,20 @@
 package backend.Model;
 
 
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
-
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OrderColumn;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.util.ArrayList;
 import java.util.List;
 
 @Entity
@@ -22,8 +31,23 @@ public class PlaningModel {
     private String planCategory;
 
     @ElementCollection
+    @BatchSize(size = 100)
     private List<String>meals;
 
+    // Recipes cooked in this plan, in plan order; a recipe may appear more than once
+    @ElementCollection
+    @BatchSize(size = 100)
+    @CollectionTable(name = "plan_recipe_ids", joinColumns = @JoinColumn(name = "plan_id"),
+            indexes = @Index(name = "idx_plan_recipe_ids_recipe", columnList = "recipe_id"))
+    @OrderColumn(name = "list_index")
+    @Column(name = "recipe_id")
+    private List<Long> recipeIds = new ArrayList<>();
+
+    // Bumped on every update; exposed as the ETag for conditional requests
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 
     public  PlaningModel(){
 
@@ -39,6 +63,19 @@ public class PlaningModel {
         this.meals = meals;
     }
 
+    /**
+     * Copies the editable fields of an update onto this managed plan.
+     */
+    public void applyUpdate(PlaningModel details) {
+        planTitle = details.planTitle;
+        PlanDescription = details.PlanDescription;
+        planDuration = details.planDuration;
+        planDifficulty = details.planDifficulty;
+        planCategory = details.planCategory;
+        meals = details.meals;
+        recipeIds = details.recipeIds;
+    }
+
     public Long getId() {
         return id;
     }
@@ -94,4 +131,20 @@ public class PlaningModel {
     public void setMeals(List<String> meals) {
         this.meals = meals;
     }
+
+    public List<Long> getRecipeIds() {
+        return recipeIds;
+    }
+
+    public void setRecipeIds(List<Long> recipeIds) {
+        this.recipeIds = recipeIds;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
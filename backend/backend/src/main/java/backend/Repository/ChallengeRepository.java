@@ -1,7 +1,27 @@
 package backend.Repository;
 
 import backend.Model.ChallengeModel;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
 
 public interface ChallengeRepository extends JpaRepository<ChallengeModel,Long> {
+
+    List<ChallengeModel> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Overlap with [from, to]: called as (to, from, pageable)
+    Page<ChallengeModel> findByStartDateLessThanEqualAndEndDateGreaterThanEqual(LocalDate to, LocalDate from, Pageable pageable);
+
+    Page<ChallengeModel> findByStartDateBetweenAndEndDateIsNotNull(LocalDate from, LocalDate to, Pageable pageable);
+
+    // Unfinished challenges in a recipe's category, without loading the recipe first
+    @Query("select c from ChallengeModel c where lower(c.category) = "
+            + "(select lower(r.category) from ManageRecipeModel r where r.id = :recipeId) "
+            + "and (c.endDate is null or c.endDate >= :today) order by c.startDate asc, c.id asc")
+    List<ChallengeModel> findCurrentInRecipeCategory(Long recipeId, LocalDate today, Limit limit);
 }
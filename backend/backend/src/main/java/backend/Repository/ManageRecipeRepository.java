@@ -1,8 +1,23 @@
 package backend.Repository;
 
 import backend.Model.ManageRecipeModel;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface ManageRecipeRepository extends JpaRepository<ManageRecipeModel, Long> {
-    // You can add custom query methods here if needed
-}
\ No newline at end of file
+
+    // Keyset page: recipes with id greater than the cursor, in id order
+    List<ManageRecipeModel> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Which of these media names some recipe still points at; uses the path index
+    @Query("select distinct m.path from ManageRecipeModel r join r.mediaItems m where m.path in :paths")
+    List<String> findReferencedMediaPaths(Collection<String> paths);
+
+    // Whether some recipe points at a blob under any extension; a prefix match on the path index
+    @Query("select count(m) > 0 from ManageRecipeModel r join r.mediaItems m where m.path = :hash or m.path like concat(:hash, '.%')")
+    boolean isMediaHashReferenced(String hash);
+}
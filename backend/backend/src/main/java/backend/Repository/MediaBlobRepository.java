@@ -0,0 +1,18 @@
+package backend.Repository;
+
+import backend.Model.MediaBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+public interface MediaBlobRepository extends JpaRepository<MediaBlob, String> {
+
+    @Modifying
+    @Transactional
+    @Query("update MediaBlob b set b.refCount = b.refCount + :delta where b.hash in :hashes")
+    int adjustRefCount(@Param("hashes") Collection<String> hashes, @Param("delta") int delta);
+}
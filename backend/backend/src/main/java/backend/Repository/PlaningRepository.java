@@ -1,7 +1,16 @@
 package backend.Repository;
 
 import backend.Model.PlaningModel;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface PlaningRepository extends JpaRepository<PlaningModel, Long> {
+
+    List<PlaningModel> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("select distinct p.id from PlaningModel p join p.recipeIds r where r = :recipeId")
+    List<Long> findIdsByRecipeId(Long recipeId);
 }
@@ -0,0 +1,260 @@
+package backend.Service;
+
+import backend.Event.ChallengeChangedEvent;
+import backend.Event.ChangeType;
+import backend.Event.PlanChangedEvent;
+import backend.Event.RecipeChangedEvent;
+import backend.Model.ChallengeModel;
+import backend.Model.ManageRecipeModel;
+import backend.Model.ManageRecipeModel.MediaItem;
+import backend.Model.PlaningModel;
+import backend.Repository.ChallengeRepository;
+import backend.Repository.ManageRecipeRepository;
+import backend.Repository.PlaningRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bulk export and import of the catalog as newline-delimited JSON.
+ * <p>
+ * Export walks the table in keyset pages, each read in its own short
+ * read-only transaction with batch-fetched collections, so memory stays flat
+ * however large the table is. Keyset pages are used instead of one streaming
+ * result set because MySQL cannot run the collection queries on a connection
+ * whose streaming result set is still open.
+ * <p>
+ * Import parses one record at a time and persists them in batches that
+ * Hibernate sends as JDBC batches, clearing the persistence context after
+ * each one.
+ */
+@Service
+public class CatalogTransferService {
+
+    private static final int EXPORT_PAGE_SIZE = 500;
+    private static final int IMPORT_BATCH_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    public enum Kind {
+        RECIPES, CHALLENGES, PLANS;
+
+        public static Kind parse(String value) {
+            return Kind.valueOf(value.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ManageRecipeRepository manageRecipeRepository;
+    private final ChallengeRepository challengeRepository;
+    private final PlaningRepository planingRepository;
+    private final MediaUploadRules mediaUploadRules;
+    private final ContentAddressedMediaStore contentAddressedMediaStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+
+    public CatalogTransferService(ManageRecipeRepository manageRecipeRepository,
+                                  ChallengeRepository challengeRepository,
+                                  PlaningRepository planingRepository,
+                                  MediaUploadRules mediaUploadRules,
+                                  ContentAddressedMediaStore contentAddressedMediaStore,
+                                  ApplicationEventPublisher eventPublisher,
+                                  ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager) {
+        this.manageRecipeRepository = manageRecipeRepository;
+        this.challengeRepository = challengeRepository;
+        this.planingRepository = planingRepository;
+        this.mediaUploadRules = mediaUploadRules;
+        this.contentAddressedMediaStore = contentAddressedMediaStore;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Writes every row of {@code kind} to {@code out}, one JSON object per line.
+     *
+     * @return the number of rows written
+     */
+    public long export(Kind kind, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        long written = 0;
+        long after = 0;
+        while (true) {
+            long cursor = after;
+            // Loaded and detached before writing, so a slow client never holds a connection
+            List<?> page = readOnlyTransaction.execute(status -> loadPage(kind, cursor));
+            if (page == null || page.isEmpty()) {
+                break;
+            }
+            for (Object entity : page) {
+                objectMapper.writeValue(generator, entity);
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+            written += page.size();
+            after = idOf(page.get(page.size() - 1));
+        }
+        return written;
+    }
+
+    private List<?> loadPage(Kind kind, long after) {
+        Limit limit = Limit.of(EXPORT_PAGE_SIZE);
+        switch (kind) {
+            case RECIPES -> {
+                List<ManageRecipeModel> recipes = manageRecipeRepository.findByIdGreaterThanOrderByIdAsc(after, limit);
+                for (ManageRecipeModel recipe : recipes) {
+                    Hibernate.initialize(recipe.getIngredients());
+                    Hibernate.initialize(recipe.getInstructions());
+                    Hibernate.initialize(recipe.getMediaItems());
+                }
+                return recipes;
+            }
+            case CHALLENGES -> {
+                return challengeRepository.findByIdGreaterThanOrderByIdAsc(after, limit);
+            }
+            default -> {
+                List<PlaningModel> plans = planingRepository.findByIdGreaterThanOrderByIdAsc(after, limit);
+                for (PlaningModel plan : plans) {
+                    Hibernate.initialize(plan.getMeals());
+                    Hibernate.initialize(plan.getRecipeIds());
+                }
+                return plans;
+            }
+        }
+    }
+
+    private static Long idOf(Object entity) {
+        if (entity instanceof ManageRecipeModel recipe) {
+            return recipe.getId();
+        } else if (entity instanceof ChallengeModel challenge) {
+            return challenge.getId();
+        }
+        return ((PlaningModel) entity).getId();
+    }
+
+    /**
+     * Reads NDJSON records of {@code kind} and inserts them as new rows; ids
+     * in the input are ignored. Recipes that break the media rules are
+     * skipped and reported.
+     */
+    public Map<String, Object> importRecords(Kind kind, InputStream in) throws IOException {
+        Class<?> type = switch (kind) {
+            case RECIPES -> ManageRecipeModel.class;
+            case CHALLENGES -> ChallengeModel.class;
+            case PLANS -> PlaningModel.class;
+        };
+        long imported = 0;
+        long line = 0;
+        List<Map<String, Object>> errors = new ArrayList<>();
+        List<Object> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+
+        try (MappingIterator<?> records = objectMapper.readerFor(type).readValues(in)) {
+            while (true) {
+                Object record;
+                try {
+                    if (!records.hasNextValue()) {
+                        break;
+                    }
+                    line++;
+                    record = records.nextValue();
+                } catch (JsonProcessingException e) {
+                    // A malformed line cannot be skipped reliably, so stop here
+                    reportError(errors, line, "Invalid JSON: " + e.getOriginalMessage());
+                    break;
+                }
+                String error = prepare(record);
+                if (error != null) {
+                    reportError(errors, line, error);
+                    continue;
+                }
+                batch.add(record);
+                if (batch.size() == IMPORT_BATCH_SIZE) {
+                    imported += insertBatch(batch);
+                    batch.clear();
+                }
+            }
+        }
+        imported += insertBatch(batch);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("imported", imported);
+        result.put("rejected", errors.size());
+        result.put("errors", errors);
+        return result;
+    }
+
+    private String prepare(Object record) {
+        if (record instanceof ManageRecipeModel recipe) {
+            if (!mediaUploadRules.validateMediaRequirements(recipe.getMediaItems())) {
+                return "Recipe must include one video or up to 3 photos";
+            }
+            recipe.setId(null);
+            recipe.setVersion(null);
+        } else if (record instanceof ChallengeModel challenge) {
+            challenge.setId(null);
+            challenge.setVersion(null);
+        } else if (record instanceof PlaningModel plan) {
+            plan.setId(null);
+            plan.setVersion(null);
+        }
+        return null;
+    }
+
+    private static void reportError(List<Map<String, Object>> errors, long line, String message) {
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(Map.of("line", line, "error", message));
+        }
+    }
+
+    private int insertBatch(List<Object> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        writeTransaction.executeWithoutResult(status -> {
+            for (Object entity : batch) {
+                entityManager.persist(entity);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+
+        List<List<MediaItem>> media = new ArrayList<>();
+        for (Object entity : batch) {
+            if (entity instanceof ManageRecipeModel recipe) {
+                media.add(recipe.getMediaItems());
+                eventPublisher.publishEvent(new RecipeChangedEvent(recipe.getId(), recipe, ChangeType.CREATED));
+            } else if (entity instanceof ChallengeModel challenge) {
+                eventPublisher.publishEvent(new ChallengeChangedEvent(challenge.getId(), challenge, ChangeType.CREATED));
+            } else if (entity instanceof PlaningModel plan) {
+                eventPublisher.publishEvent(new PlanChangedEvent(plan.getId(), plan, ChangeType.CREATED));
+            }
+        }
+        contentAddressedMediaStore.retainAll(media);
+        return batch.size();
+    }
+}
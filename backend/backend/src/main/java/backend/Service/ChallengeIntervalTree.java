@@ -0,0 +1,110 @@
+package backend.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable augmented interval tree over challenge date ranges, stored
+ * implicitly in an array sorted by start day: the node for {@code [lo, hi)}
+ * is the middle element, and {@code maxEnd} holds the latest end day in each
+ * node's subtree so whole subtrees that end too early are skipped.
+ * <p>
+ * Both ends are inclusive epoch days.
+ */
+final class ChallengeIntervalTree {
+
+    record Interval(long id, long start, long end, String category, String difficulty) {
+    }
+
+    static final ChallengeIntervalTree EMPTY = build(List.of());
+
+    private final Interval[] byStart;
+    private final long[] starts;
+    private final long[] maxEnd;
+
+    private ChallengeIntervalTree(Interval[] byStart) {
+        this.byStart = byStart;
+        this.starts = new long[byStart.length];
+        for (int i = 0; i < byStart.length; i++) {
+            starts[i] = byStart[i].start();
+        }
+        this.maxEnd = new long[byStart.length];
+        buildMaxEnd(0, byStart.length);
+    }
+
+    static ChallengeIntervalTree build(Collection<Interval> intervals) {
+        Interval[] sorted = intervals.toArray(new Interval[0]);
+        Arrays.sort(sorted, Comparator.comparingLong(Interval::start).thenComparingLong(Interval::id));
+        return new ChallengeIntervalTree(sorted);
+    }
+
+    int size() {
+        return byStart.length;
+    }
+
+    /**
+     * Intervals that share at least one day with {@code [from, to]}.
+     */
+    List<Interval> overlapping(long from, long to) {
+        List<Interval> result = new ArrayList<>();
+        overlapping(0, byStart.length, from, to, result);
+        return result;
+    }
+
+    /**
+     * Intervals whose start day lies in {@code [from, to]}.
+     */
+    List<Interval> startingBetween(long from, long to) {
+        int lo = lowerBound(from);
+        int hi = lowerBound(to == Long.MAX_VALUE ? to : to + 1);
+        return lo < hi ? List.of(Arrays.copyOfRange(byStart, lo, hi)) : List.of();
+    }
+
+    private long buildMaxEnd(int lo, int hi) {
+        if (lo >= hi) {
+            return Long.MIN_VALUE;
+        }
+        int mid = (lo + hi) >>> 1;
+        long max = Math.max(byStart[mid].end(), Math.max(buildMaxEnd(lo, mid), buildMaxEnd(mid + 1, hi)));
+        maxEnd[mid] = max;
+        return max;
+    }
+
+    private void overlapping(int lo, int hi, long from, long to, List<Interval> result) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (maxEnd[mid] < from) {
+            // Everything below this node ended before the range starts
+            return;
+        }
+        overlapping(lo, mid, from, to, result);
+        Interval node = byStart[mid];
+        if (node.start() > to) {
+            // This node and everything to its right start after the range
+            return;
+        }
+        if (node.end() >= from) {
+            result.add(node);
+        }
+        overlapping(mid + 1, hi, from, to, result);
+    }
+
+    private int lowerBound(long start) {
+        int lo = 0;
+        int hi = starts.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid] < start) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,186 @@
+package backend.Service;
+
+import backend.Event.ChallengeChangedEvent;
+import backend.Event.ChangeType;
+import backend.Model.ChallengeModel;
+import backend.Repository.ChallengeRepository;
+import backend.Service.ChallengeIntervalTree.Interval;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Date-range lookups for challenges: active on a day, overlapping a range,
+ * and starting soon.
+ * <p>
+ * Matching, sorting and paging run against an in-memory interval tree that is
+ * rebuilt from a master map on every challenge write; only the rows of the
+ * requested page are then loaded. Until the tree has been loaded after
+ * startup, the same queries run against the date indexes in the database.
+ * Challenges without both dates are never returned by either path.
+ */
+@Service
+public class ChallengeScheduleService {
+
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    public static final Set<String> SORTABLE = Set.of("category", "difficulty", "startDate", "endDate", "id");
+
+    private final ChallengeRepository challengeRepository;
+    private final Map<Long, Interval> intervals = new HashMap<>();
+    // Not synchronized: the load runs JDBC under the lock, which would pin a virtual thread
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile ChallengeIntervalTree tree;
+
+    public ChallengeScheduleService(ChallengeRepository challengeRepository) {
+        this.challengeRepository = challengeRepository;
+    }
+
+    public Page<ChallengeModel> activeOn(LocalDate date, Pageable pageable) {
+        return overlapping(date, date, pageable);
+    }
+
+    public Page<ChallengeModel> overlapping(LocalDate from, LocalDate to, Pageable pageable) {
+        checkSort(pageable.getSort());
+        ChallengeIntervalTree current = tree;
+        if (current == null) {
+            return challengeRepository.findByStartDateLessThanEqualAndEndDateGreaterThanEqual(
+                    to, from, withIdTiebreak(pageable));
+        }
+        return page(current.overlapping(from.toEpochDay(), to.toEpochDay()), pageable);
+    }
+
+    public Page<ChallengeModel> startingBetween(LocalDate from, LocalDate to, Pageable pageable) {
+        checkSort(pageable.getSort());
+        ChallengeIntervalTree current = tree;
+        if (current == null) {
+            return challengeRepository.findByStartDateBetweenAndEndDateIsNotNull(from, to, withIdTiebreak(pageable));
+        }
+        return page(current.startingBetween(from.toEpochDay(), to.toEpochDay()), pageable);
+    }
+
+    private Page<ChallengeModel> page(List<Interval> matches, Pageable pageable) {
+        List<Interval> sorted = new ArrayList<>(matches);
+        sorted.sort(comparator(pageable.getSort()));
+        int from = (int) Math.min(pageable.getOffset(), sorted.size());
+        int to = Math.min(from + pageable.getPageSize(), sorted.size());
+        List<Long> ids = sorted.subList(from, to).stream().map(Interval::id).toList();
+
+        Map<Long, ChallengeModel> byId = new HashMap<>();
+        for (ChallengeModel challenge : challengeRepository.findAllById(ids)) {
+            byId.put(challenge.getId(), challenge);
+        }
+        // Keep the sorted order; a row deleted since the lookup is simply skipped
+        List<ChallengeModel> content = ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(content, pageable, sorted.size());
+    }
+
+    private static void checkSort(Sort sort) {
+        for (Sort.Order order : sort) {
+            if (!SORTABLE.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Cannot sort challenges by " + order.getProperty()
+                        + "; use one of " + SORTABLE);
+            }
+        }
+    }
+
+    private static Pageable withIdTiebreak(Pageable pageable) {
+        Sort sort = pageable.getSort().getOrderFor("id") != null
+                ? pageable.getSort()
+                : pageable.getSort().and(Sort.by("id"));
+        return pageable.isPaged()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort)
+                : Pageable.unpaged(sort);
+    }
+
+    // Strings compare case-insensitively with nulls first, like the MySQL default collation
+    private static Comparator<Interval> comparator(Sort sort) {
+        Comparator<Interval> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Interval> next = switch (order.getProperty()) {
+                case "category" -> strings(Interval::category);
+                case "difficulty" -> strings(Interval::difficulty);
+                case "startDate" -> Comparator.comparingLong(Interval::start);
+                case "endDate" -> Comparator.comparingLong(Interval::end);
+                default -> Comparator.comparingLong(Interval::id);
+            };
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        Comparator<Interval> byId = Comparator.comparingLong(Interval::id);
+        return comparator == null ? byId : comparator.thenComparing(byId);
+    }
+
+    private static Comparator<Interval> strings(Function<Interval, String> field) {
+        return Comparator.comparing(field, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+    }
+
+    /**
+     * Loads every challenge into the tree. Writes wait for the load, so an
+     * event is never overtaken by an older row.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        writeLock.lock();
+        try {
+            intervals.clear();
+            long after = 0;
+            while (true) {
+                List<ChallengeModel> page = challengeRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(LOAD_PAGE_SIZE));
+                if (page.isEmpty()) {
+                    break;
+                }
+                page.forEach(this::put);
+                after = page.get(page.size() - 1).getId();
+            }
+            tree = ChallengeIntervalTree.build(intervals.values());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onChallengeChanged(ChallengeChangedEvent event) {
+        writeLock.lock();
+        try {
+            intervals.remove(event.challengeId());
+            if (event.type() != ChangeType.DELETED) {
+                put(event.challenge());
+            }
+            if (tree != null) {
+                tree = ChallengeIntervalTree.build(intervals.values());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void put(ChallengeModel challenge) {
+        if (challenge == null || challenge.getId() == null
+                || challenge.getStartDate() == null || challenge.getEndDate() == null) {
+            return;
+        }
+        intervals.put(challenge.getId(), new Interval(challenge.getId(),
+                challenge.getStartDate().toEpochDay(), challenge.getEndDate().toEpochDay(),
+                challenge.getCategory(), challenge.getDifficulty()));
+    }
+}
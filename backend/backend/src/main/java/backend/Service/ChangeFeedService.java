@@ -0,0 +1,367 @@
+package backend.Service;
+
+import backend.Event.ChallengeChangedEvent;
+import backend.Event.ChangeType;
+import backend.Event.PlanChangedEvent;
+import backend.Event.RecipeChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server-sent-events feed of recipe, challenge and plan changes, so clients
+ * can stop re-downloading listings to find out what changed.
+ * <p>
+ * Each message is small: the kind of entity, its id, the change and the new
+ * version. Clients fetch what they need, for example with {@code batch-get}.
+ * Changes to the same entity within the coalescing window go out as a single
+ * message. One thread flushes the window: it numbers the changes, keeps them
+ * in a ring buffer and offers each one to every subscriber's bounded queue.
+ * Every subscriber drains its own queue on a virtual thread, so a slow client
+ * blocks only itself. When a queue fills, that subscriber is disconnected.
+ * <p>
+ * Event ids are {@code <epoch>-<sequence>}, and the epoch changes on every
+ * restart. A client that reconnects with {@code Last-Event-ID} gets the
+ * changes it missed from the ring buffer. If those are gone, or the id
+ * belongs to an earlier run, it gets a {@code reset} event and reloads
+ * instead. The feed is kept in memory on each instance and sees only the
+ * writes that instance handles.
+ */
+@Service
+public class ChangeFeedService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeedService.class);
+
+    // Sent together in one write when a subscriber has fallen a little behind
+    private static final int MAX_EVENTS_PER_SEND = 64;
+
+    public enum Entity {
+        RECIPE, CHALLENGE, PLAN
+    }
+
+    public record Change(Entity entity, Long id, ChangeType type, Long version) {
+
+        /**
+         * This change followed by {@code next} on the same entity, or
+         * {@code null} when the two cancel out.
+         */
+        Change then(Change next) {
+            if (type == ChangeType.CREATED && next.type == ChangeType.DELETED) {
+                return null;
+            }
+            if (type == ChangeType.CREATED) {
+                return new Change(entity, id, ChangeType.CREATED, next.version);
+            }
+            return next;
+        }
+    }
+
+    /**
+     * Thrown when the feed already has {@code changefeed.max-subscribers}.
+     */
+    public static class FeedFullException extends RuntimeException {
+        public FeedFullException(int maxSubscribers) {
+            super("The change feed is at its limit of " + maxSubscribers + " subscribers");
+        }
+    }
+
+    private record Key(Entity entity, Long id) {
+    }
+
+    private record Entry(long sequence, Entity entity, String json) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final int historySize;
+    private final int subscriberBuffer;
+    private final int maxSubscribers;
+    private final Duration heartbeat;
+    private final Duration timeout;
+    private final long epoch = System.currentTimeMillis();
+
+    private final Map<Key, Change> pending = new LinkedHashMap<>();
+
+    // Guards the ring buffer, the sequence and subscriber registration, so a
+    // subscriber's replay and its live events neither overlap nor leave a gap
+    private final ReentrantLock feedLock = new ReentrantLock();
+    private final ArrayDeque<Entry> history = new ArrayDeque<>();
+    private long sequence;
+    private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "change-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter published;
+    private final Counter coalesced;
+    private final Counter dropped;
+
+    public ChangeFeedService(ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${changefeed.coalesce-window:250ms}") Duration coalesceWindow,
+                             @Value("${changefeed.history:4096}") int historySize,
+                             @Value("${changefeed.subscriber-buffer:256}") int subscriberBuffer,
+                             @Value("${changefeed.max-subscribers:5000}") int maxSubscribers,
+                             @Value("${changefeed.heartbeat:15s}") Duration heartbeat,
+                             @Value("${changefeed.timeout:30m}") Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.historySize = historySize;
+        this.subscriberBuffer = subscriberBuffer;
+        this.maxSubscribers = maxSubscribers;
+        this.heartbeat = heartbeat;
+        this.timeout = timeout;
+        this.published = Counter.builder("changefeed.events")
+                .description("Changes sent to the feed after coalescing")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("changefeed.coalesced")
+                .description("Changes merged into a later change to the same entity")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("changefeed.subscribers.dropped")
+                .description("Subscribers disconnected because their buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("changefeed.subscribers", subscribers, Set::size)
+                .description("Open change feed connections")
+                .register(meterRegistry);
+        long window = coalesceWindow.toMillis();
+        flusher.scheduleWithFixedDelay(this::flush, window, window, TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        publish(new Change(Entity.RECIPE, event.recipeId(), event.type(),
+                event.recipe() != null ? event.recipe().getVersion() : null));
+    }
+
+    @EventListener
+    public void onChallengeChanged(ChallengeChangedEvent event) {
+        publish(new Change(Entity.CHALLENGE, event.challengeId(), event.type(),
+                event.challenge() != null ? event.challenge().getVersion() : null));
+    }
+
+    @EventListener
+    public void onPlanChanged(PlanChangedEvent event) {
+        publish(new Change(Entity.PLAN, event.planId(), event.type(),
+                event.plan() != null ? event.plan().getVersion() : null));
+    }
+
+    public void publish(Change change) {
+        synchronized (pending) {
+            Key key = new Key(change.entity(), change.id());
+            if (pending.containsKey(key)) {
+                coalesced.increment();
+            }
+            pending.merge(key, change, Change::then);
+        }
+    }
+
+    /**
+     * Opens a feed that first replays the changes after {@code lastEventId},
+     * or sends {@code reset} when they can no longer be replayed.
+     *
+     * @param entities the kinds of entity to receive; empty for all
+     */
+    public SseEmitter subscribe(String lastEventId, Set<Entity> entities) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, entities);
+        feedLock.lock();
+        try {
+            if (subscribers.size() >= maxSubscribers) {
+                throw new FeedFullException(maxSubscribers);
+            }
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                subscriber.reset = !replay(lastEventId.trim(), subscriber);
+            }
+            subscribers.add(subscriber);
+        } finally {
+            feedLock.unlock();
+        }
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscriber.start();
+        return emitter;
+    }
+
+    // Fills the subscriber's backlog; false when the missed changes are no longer all held
+    private boolean replay(String lastEventId, Subscriber subscriber) {
+        int dash = lastEventId.indexOf('-');
+        long lastSequence;
+        try {
+            if (dash < 0 || Long.parseLong(lastEventId.substring(0, dash)) != epoch) {
+                return false;
+            }
+            lastSequence = Long.parseLong(lastEventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        long oldest = history.isEmpty() ? sequence + 1 : history.peekFirst().sequence();
+        if (lastSequence > sequence || lastSequence < oldest - 1) {
+            return false;
+        }
+        for (Entry entry : history) {
+            if (entry.sequence() > lastSequence && subscriber.wants(entry)) {
+                subscriber.backlog.add(entry);
+            }
+        }
+        return true;
+    }
+
+    void flush() {
+        List<Change> changes;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            changes = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        try {
+            feedLock.lock();
+            try {
+                for (Change change : changes) {
+                    Entry entry = new Entry(++sequence, change.entity(), objectMapper.writeValueAsString(change));
+                    history.addLast(entry);
+                    if (history.size() > historySize) {
+                        history.removeFirst();
+                    }
+                    for (Subscriber subscriber : subscribers) {
+                        if (subscriber.wants(entry) && !subscriber.queue.offer(entry)) {
+                            drop(subscriber);
+                        }
+                    }
+                }
+            } finally {
+                feedLock.unlock();
+            }
+            published.increment(changes.size());
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Failed to publish {} changes to the change feed", changes.size(), e);
+        }
+    }
+
+    // It resumes from the ring buffer when it reconnects with its last event id
+    private void drop(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            dropped.increment();
+            subscriber.close();
+        }
+    }
+
+    private String eventId(Entry entry) {
+        return epoch + "-" + entry.sequence();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<Entity> entities;
+        private final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(subscriberBuffer);
+        private final List<Entry> backlog = new ArrayList<>();
+        private boolean reset;
+        private volatile boolean closed;
+        private Thread thread;
+
+        Subscriber(SseEmitter emitter, Set<Entity> entities) {
+            this.emitter = emitter;
+            this.entities = entities;
+        }
+
+        boolean wants(Entry entry) {
+            return entities.isEmpty() || entities.contains(entry.entity());
+        }
+
+        void start() {
+            thread = Thread.ofVirtual().name("change-feed-subscriber").start(this::run);
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+            Thread running = thread;
+            if (running != null) {
+                running.interrupt();
+            }
+        }
+
+        private void run() {
+            try {
+                if (reset) {
+                    emitter.send(SseEmitter.event().name("reset").data("{}"));
+                }
+                for (int i = 0; i < backlog.size(); i += MAX_EVENTS_PER_SEND) {
+                    send(backlog.subList(i, Math.min(backlog.size(), i + MAX_EVENTS_PER_SEND)));
+                }
+                backlog.clear();
+                List<Entry> batch = new ArrayList<>(MAX_EVENTS_PER_SEND);
+                while (!closed) {
+                    Entry first = queue.poll(heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        // Keeps proxies from closing an idle connection, and finds dead ones
+                        emitter.send(SseEmitter.event().comment("keepalive"));
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_EVENTS_PER_SEND - 1);
+                    send(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                // Closed while waiting for changes
+            } catch (IOException | IllegalStateException e) {
+                // The client went away, or the emitter already completed
+            } finally {
+                close();
+                try {
+                    emitter.complete();
+                } catch (IllegalStateException e) {
+                    // Already completed by the container
+                }
+            }
+        }
+
+        // Several events in one write and one flush
+        private void send(List<Entry> entries) throws IOException {
+            Set<ResponseBodyEmitter.DataWithMediaType> data = new LinkedHashSet<>();
+            for (Entry entry : entries) {
+                data.addAll(SseEmitter.event().id(eventId(entry)).name("change").data(entry.json()).build());
+            }
+            emitter.send(data);
+        }
+    }
+}
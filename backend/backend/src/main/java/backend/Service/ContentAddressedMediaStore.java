@@ -0,0 +1,196 @@
+package backend.Service;
+
+import backend.Model.ManageRecipeModel.MediaItem;
+import backend.Model.MediaBlob;
+import backend.Repository.MediaBlobRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stores uploads by the SHA-256 of their content. Each distinct blob is kept
+ * once and counts how many recipes refer to it; the public name handed back
+ * to clients is {@code <sha256>.<ext>}.
+ */
+@Service
+public class ContentAddressedMediaStore {
+
+    public static final String STAGING_DIR = ".staging";
+
+    private final MediaFileService mediaFileService;
+    private final MediaBlobRepository mediaBlobRepository;
+    private final boolean enabled;
+
+    public ContentAddressedMediaStore(MediaFileService mediaFileService,
+                                      MediaBlobRepository mediaBlobRepository,
+                                      @Value("${media.storage.mode:content-addressed}") String mode) {
+        this.mediaFileService = mediaFileService;
+        this.mediaBlobRepository = mediaBlobRepository;
+        this.enabled = "content-addressed".equals(mode);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * A file that has been written and hashed but is not yet visible.
+     */
+    public record StagedMedia(Path file, String hash, long size, String extension) {
+    }
+
+    /**
+     * Streams the upload to a staging file, hashing it on the way through so
+     * the content is only read once.
+     */
+    public StagedMedia stage(InputStream in, String extension) throws IOException {
+        Path stagingDir = mediaFileService.getUploadPath().resolve(STAGING_DIR);
+        Files.createDirectories(stagingDir);
+        Path temp = Files.createTempFile(stagingDir, "upload-", ".part");
+        MessageDigest digest = sha256();
+        try (InputStream source = new DigestInputStream(in, digest)) {
+            long size = Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+            return new StagedMedia(temp, HexFormat.of().formatHex(digest.digest()), size, extension);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Hashes a file that was already written in place, such as a completed
+     * resumable upload, so it can be committed without copying it again.
+     */
+    public StagedMedia stageFile(Path file, String extension) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long size = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            int n;
+            while ((n = channel.read(buffer)) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+                size += n;
+            }
+        }
+        return new StagedMedia(file, HexFormat.of().formatHex(digest.digest()), size, extension);
+    }
+
+    /**
+     * Makes a staged file visible under its content hash, dropping it when an
+     * identical blob is already stored.
+     *
+     * @return the media name to store on the recipe
+     */
+    public String commit(StagedMedia staged) throws IOException {
+        Path target = mediaFileService.blobPath(staged.hash());
+        if (Files.exists(target)) {
+            Files.deleteIfExists(staged.file());
+            // Restart the collector's grace period for a blob that is being referenced again
+            Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+        } else {
+            Files.createDirectories(target.getParent());
+            // Concurrent uploads of the same content rename identical bytes over each other
+            Files.move(staged.file(), target, StandardCopyOption.ATOMIC_MOVE);
+        }
+        if (!mediaBlobRepository.existsById(staged.hash())) {
+            try {
+                mediaBlobRepository.save(new MediaBlob(staged.hash(), staged.extension(), staged.size(), 0, Instant.now()));
+            } catch (DataIntegrityViolationException e) {
+                // Another upload of the same content registered it first
+            }
+        }
+        return staged.hash() + staged.extension();
+    }
+
+    public void discard(StagedMedia staged) throws IOException {
+        Files.deleteIfExists(staged.file());
+    }
+
+    public void retain(Collection<MediaItem> items) {
+        adjust(hashesOf(items), 1);
+    }
+
+    public void release(Collection<MediaItem> items) {
+        adjust(hashesOf(items), -1);
+    }
+
+    /**
+     * Adds references for many recipes at once, with one update per distinct
+     * count rather than one per recipe.
+     */
+    public void retainAll(Collection<? extends Collection<MediaItem>> mediaPerRecipe) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Collection<MediaItem> items : mediaPerRecipe) {
+            for (String hash : hashesOf(items)) {
+                counts.merge(hash, 1, Integer::sum);
+            }
+        }
+        Map<Integer, Set<String>> hashesByCount = new HashMap<>();
+        counts.forEach((hash, count) -> hashesByCount.computeIfAbsent(count, c -> new HashSet<>()).add(hash));
+        hashesByCount.forEach((count, hashes) -> adjust(hashes, count));
+    }
+
+    /**
+     * Moves references from the media a recipe had to the media it has now.
+     */
+    public void replace(Collection<MediaItem> before, Collection<MediaItem> after) {
+        Set<String> previous = hashesOf(before);
+        Set<String> current = hashesOf(after);
+        Set<String> added = new HashSet<>(current);
+        added.removeAll(previous);
+        Set<String> removed = new HashSet<>(previous);
+        removed.removeAll(current);
+        adjust(added, 1);
+        adjust(removed, -1);
+    }
+
+    private void adjust(Set<String> hashes, int delta) {
+        if (!hashes.isEmpty()) {
+            mediaBlobRepository.adjustRefCount(hashes, delta);
+        }
+    }
+
+    // A recipe counts once per blob, even if it lists the same file twice
+    private static Set<String> hashesOf(Collection<MediaItem> items) {
+        Set<String> hashes = new HashSet<>();
+        if (items != null) {
+            for (MediaItem item : items) {
+                String hash = MediaFileService.contentHash(item.getPath());
+                if (hash != null) {
+                    hashes.add(hash);
+                }
+            }
+        }
+        return hashes;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package backend.Service;
+
+import backend.Event.ChallengeChangedEvent;
+import backend.Event.ChangeType;
+import backend.Event.PlanChangedEvent;
+import backend.Event.RecipeChangedEvent;
+import backend.Model.ChallengeModel;
+import backend.Model.ManageRecipeModel;
+import backend.Model.ManageRecipeModel.MediaItem;
+import backend.Model.PlaningModel;
+import backend.Repository.ChallengeRepository;
+import backend.Repository.ManageRecipeRepository;
+import backend.Repository.PlaningRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Multi-get and batch writes for recipes, challenges and plans.
+ * <p>
+ * A multi-get is one {@code IN} query plus one query per element collection,
+ * which {@code @BatchSize} loads for the whole page of owners at once.
+ * Results come back in request order, with {@code null} and an entry in
+ * {@code missing} for ids that do not exist.
+ * <p>
+ * A batch write checks every item first and reports each one's outcome by
+ * position. The items that pass are written together in one transaction,
+ * which Hibernate sends as JDBC batches; the caches, media reference counts
+ * and change events are then updated as the single-item endpoints do. An
+ * item's {@code version}, when present, is checked like an {@code If-Match}.
+ */
+@Service
+public class EntityBatchService {
+
+    public static final String MEDIA_RULES_ERROR =
+            "Recipe must include at least one video (max 30 sec) and up to 3 media items total";
+
+    public record BatchGet<T>(List<T> items, List<Long> missing) {
+    }
+
+    /**
+     * Outcome of one item of a batch write, as an HTTP status: 201 created,
+     * 200 updated, 400 invalid, 404 unknown id, 412 stale version.
+     */
+    public record ItemResult(int index, int status, Long id, Long version, String error) {
+
+        static ItemResult rejected(int index, int status, Long id, String error) {
+            return new ItemResult(index, status, id, null, error);
+        }
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ManageRecipeRepository manageRecipeRepository;
+    private final ChallengeRepository challengeRepository;
+    private final PlaningRepository planingRepository;
+    private final MediaUploadRules mediaUploadRules;
+    private final ContentAddressedMediaStore contentAddressedMediaStore;
+    private final EntityLookupService entityLookupService;
+    private final MealPlanService mealPlanService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final int maxItems;
+
+    public EntityBatchService(ManageRecipeRepository manageRecipeRepository,
+                              ChallengeRepository challengeRepository,
+                              PlaningRepository planingRepository,
+                              MediaUploadRules mediaUploadRules,
+                              ContentAddressedMediaStore contentAddressedMediaStore,
+                              EntityLookupService entityLookupService,
+                              MealPlanService mealPlanService,
+                              ApplicationEventPublisher eventPublisher,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${batch.max-items:100}") int maxItems) {
+        this.manageRecipeRepository = manageRecipeRepository;
+        this.challengeRepository = challengeRepository;
+        this.planingRepository = planingRepository;
+        this.mediaUploadRules = mediaUploadRules;
+        this.contentAddressedMediaStore = contentAddressedMediaStore;
+        this.entityLookupService = entityLookupService;
+        this.mealPlanService = mealPlanService;
+        this.eventPublisher = eventPublisher;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.maxItems = maxItems;
+    }
+
+    public BatchGet<ManageRecipeModel> getRecipes(List<Long> ids) {
+        return get(ids, manageRecipeRepository::findAllById, ManageRecipeModel::getId, recipe -> {
+            Hibernate.initialize(recipe.getIngredients());
+            Hibernate.initialize(recipe.getInstructions());
+            Hibernate.initialize(recipe.getMediaItems());
+        });
+    }
+
+    public BatchGet<ChallengeModel> getChallenges(List<Long> ids) {
+        return get(ids, challengeRepository::findAllById, ChallengeModel::getId, challenge -> { });
+    }
+
+    public BatchGet<PlaningModel> getPlans(List<Long> ids) {
+        return get(ids, planingRepository::findAllById, PlaningModel::getId, plan -> {
+            Hibernate.initialize(plan.getMeals());
+            Hibernate.initialize(plan.getRecipeIds());
+        });
+    }
+
+    private <T> BatchGet<T> get(List<Long> ids, Function<Set<Long>, List<T>> load, Function<T, Long> idOf,
+                                Consumer<T> initialize) {
+        checkSize(ids);
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("ids must not contain null");
+        }
+        Map<Long, T> byId = readOnlyTransaction.execute(status -> {
+            Map<Long, T> found = new HashMap<>();
+            for (T entity : load.apply(new LinkedHashSet<>(ids))) {
+                initialize.accept(entity);
+                found.put(idOf.apply(entity), entity);
+            }
+            return found;
+        });
+        List<T> items = new ArrayList<>(ids.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            T entity = byId.get(id);
+            items.add(entity);
+            if (entity == null) {
+                missing.add(id);
+            }
+        }
+        return new BatchGet<>(items, missing);
+    }
+
+    public List<ItemResult> createRecipes(List<ManageRecipeModel> recipes) {
+        return create(recipes,
+                recipe -> mediaUploadRules.validateMediaRequirements(recipe.getMediaItems()) ? null : MEDIA_RULES_ERROR,
+                recipe -> {
+                    recipe.setId(null);
+                    recipe.setVersion(null);
+                },
+                ManageRecipeModel::getId, ManageRecipeModel::getVersion,
+                created -> {
+                    contentAddressedMediaStore.retainAll(created.stream().map(ManageRecipeModel::getMediaItems).toList());
+                    for (ManageRecipeModel recipe : created) {
+                        eventPublisher.publishEvent(new RecipeChangedEvent(recipe.getId(), recipe, ChangeType.CREATED));
+                    }
+                });
+    }
+
+    public List<ItemResult> createChallenges(List<ChallengeModel> challenges) {
+        return create(challenges, challenge -> null,
+                challenge -> {
+                    challenge.setId(null);
+                    challenge.setVersion(null);
+                },
+                ChallengeModel::getId, ChallengeModel::getVersion,
+                created -> {
+                    for (ChallengeModel challenge : created) {
+                        eventPublisher.publishEvent(new ChallengeChangedEvent(challenge.getId(), challenge, ChangeType.CREATED));
+                    }
+                });
+    }
+
+    public List<ItemResult> createPlans(List<PlaningModel> plans) {
+        return create(plans, plan -> null,
+                plan -> {
+                    plan.setId(null);
+                    plan.setVersion(null);
+                },
+                PlaningModel::getId, PlaningModel::getVersion,
+                created -> {
+                    for (PlaningModel plan : created) {
+                        eventPublisher.publishEvent(new PlanChangedEvent(plan.getId(), plan, ChangeType.CREATED));
+                    }
+                });
+    }
+
+    public List<ItemResult> updateRecipes(List<ManageRecipeModel> recipes) {
+        Map<Long, List<MediaItem>> previousMedia = new HashMap<>();
+        return update(recipes,
+                recipe -> mediaUploadRules.validateMediaRequirements(recipe.getMediaItems()) ? null : MEDIA_RULES_ERROR,
+                manageRecipeRepository::findAllById, ManageRecipeModel::getId, ManageRecipeModel::getVersion,
+                (stored, details) -> {
+                    previousMedia.put(stored.getId(), new ArrayList<>(stored.getMediaItems()));
+                    stored.applyUpdate(details);
+                },
+                updated -> {
+                    for (ManageRecipeModel recipe : updated) {
+                        entityLookupService.putRecipe(recipe);
+                        contentAddressedMediaStore.replace(previousMedia.get(recipe.getId()), recipe.getMediaItems());
+                        eventPublisher.publishEvent(new RecipeChangedEvent(recipe.getId(), recipe, ChangeType.UPDATED));
+                    }
+                });
+    }
+
+    public List<ItemResult> updateChallenges(List<ChallengeModel> challenges) {
+        return update(challenges, challenge -> null,
+                challengeRepository::findAllById, ChallengeModel::getId, ChallengeModel::getVersion,
+                ChallengeModel::applyUpdate,
+                updated -> {
+                    for (ChallengeModel challenge : updated) {
+                        entityLookupService.putChallenge(challenge);
+                        eventPublisher.publishEvent(new ChallengeChangedEvent(challenge.getId(), challenge, ChangeType.UPDATED));
+                    }
+                });
+    }
+
+    public List<ItemResult> updatePlans(List<PlaningModel> plans) {
+        return update(plans, plan -> null,
+                planingRepository::findAllById, PlaningModel::getId, PlaningModel::getVersion,
+                PlaningModel::applyUpdate,
+                updated -> {
+                    for (PlaningModel plan : updated) {
+                        entityLookupService.putPlan(plan);
+                        mealPlanService.evictShoppingList(plan.getId());
+                        eventPublisher.publishEvent(new PlanChangedEvent(plan.getId(), plan, ChangeType.UPDATED));
+                    }
+                });
+    }
+
+    private <T> List<ItemResult> create(List<T> items, Function<T, String> check, Consumer<T> prepare,
+                                        Function<T, Long> idOf, Function<T, Long> versionOf,
+                                        Consumer<List<T>> afterCommit) {
+        checkSize(items);
+        ItemResult[] results = new ItemResult[items.size()];
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            T item = items.get(i);
+            String error = item == null ? "Missing item" : check.apply(item);
+            if (error != null) {
+                results[i] = ItemResult.rejected(i, 400, null, error);
+                continue;
+            }
+            prepare.accept(item);
+            accepted.add(i);
+        }
+
+        List<T> created = new ArrayList<>(accepted.size());
+        writeTransaction.executeWithoutResult(status -> {
+            for (int i : accepted) {
+                entityManager.persist(items.get(i));
+                created.add(items.get(i));
+            }
+            entityManager.flush();
+        });
+        for (int i : accepted) {
+            T item = items.get(i);
+            results[i] = new ItemResult(i, 201, idOf.apply(item), versionOf.apply(item), null);
+        }
+        afterCommit.accept(created);
+        return List.of(results);
+    }
+
+    private <T> List<ItemResult> update(List<T> items, Function<T, String> check,
+                                        Function<Set<Long>, List<T>> load,
+                                        Function<T, Long> idOf, Function<T, Long> versionOf,
+                                        BiConsumer<T, T> apply, Consumer<List<T>> afterCommit) {
+        checkSize(items);
+        ItemResult[] results = new ItemResult[items.size()];
+        Set<Long> ids = new LinkedHashSet<>();
+        Set<Long> duplicates = new HashSet<>();
+        for (T item : items) {
+            Long id = item != null ? idOf.apply(item) : null;
+            if (id != null && !ids.add(id)) {
+                duplicates.add(id);
+            }
+        }
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            T item = items.get(i);
+            Long id = item != null ? idOf.apply(item) : null;
+            String error;
+            if (item == null) {
+                error = "Missing item";
+            } else if (id == null) {
+                error = "id is required";
+            } else if (duplicates.contains(id)) {
+                error = "id " + id + " appears more than once";
+            } else {
+                error = check.apply(item);
+            }
+            if (error != null) {
+                results[i] = ItemResult.rejected(i, 400, id, error);
+            } else {
+                accepted.add(i);
+            }
+        }
+
+        Map<Long, T> updated = new LinkedHashMap<>();
+        writeTransaction.executeWithoutResult(status -> {
+            Map<Long, T> stored = new HashMap<>();
+            Set<Long> acceptedIds = new LinkedHashSet<>();
+            for (int i : accepted) {
+                acceptedIds.add(idOf.apply(items.get(i)));
+            }
+            if (!acceptedIds.isEmpty()) {
+                for (T entity : load.apply(acceptedIds)) {
+                    stored.put(idOf.apply(entity), entity);
+                }
+            }
+            for (int i : accepted) {
+                T details = items.get(i);
+                Long id = idOf.apply(details);
+                T entity = stored.get(id);
+                if (entity == null) {
+                    results[i] = ItemResult.rejected(i, 404, id, "No entity with id " + id);
+                } else if (versionOf.apply(details) != null
+                        && !Objects.equals(versionOf.apply(details), versionOf.apply(entity))) {
+                    results[i] = ItemResult.rejected(i, 412, id,
+                            "version " + versionOf.apply(details) + " does not match current version "
+                                    + versionOf.apply(entity));
+                } else {
+                    apply.accept(entity, details);
+                    updated.put(id, entity);
+                }
+            }
+            // Versions are bumped by the flush, so read them afterwards
+            entityManager.flush();
+        });
+        for (int i : accepted) {
+            if (results[i] == null) {
+                T entity = updated.get(idOf.apply(items.get(i)));
+                results[i] = new ItemResult(i, 200, idOf.apply(entity), versionOf.apply(entity), null);
+            }
+        }
+        afterCommit.accept(new ArrayList<>(updated.values()));
+        return List.of(results);
+    }
+
+    private void checkSize(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("At least one item is required");
+        }
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("At most " + maxItems + " items per batch");
+        }
+    }
+}
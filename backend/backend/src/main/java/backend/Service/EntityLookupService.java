@@ -0,0 +1,191 @@
+package backend.Service;
+
+import backend.Exception.ChallengeNotFoundException;
+import backend.Exception.PlaningNotFoundException;
+import backend.Exception.RecipeNotFoundException;
+import backend.Model.ChallengeModel;
+import backend.Model.ManageRecipeModel;
+import backend.Model.PlaningModel;
+import backend.Repository.ChallengeRepository;
+import backend.Repository.ManageRecipeRepository;
+import backend.Repository.PlaningRepository;
+import backend.config.DataSourceRouting;
+import org.hibernate.Hibernate;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for single-entity lookups. Entities are cached with
+ * their element collections already loaded so a cached copy can be
+ * serialized without touching the database. Misses are read from the
+ * primary even when replicas are configured, so a lagging replica can never
+ * put a stale row in the cache.
+ * <p>
+ * Entries only move forward by {@code @Version}. A write puts the committed
+ * entity in the cache, and a lookup never replaces an entry with an older
+ * version, so a lookup that read the row just before a write commits cannot
+ * bring the old copy (or its ETag) back. A delete leaves a marker that no
+ * lookup overwrites; ids are never reused.
+ */
+@Service
+public class EntityLookupService {
+
+    public static final String RECIPES = "recipes";
+    public static final String CHALLENGES = "challenges";
+    public static final String PLANS = "plans";
+
+    private static final Object DELETED = new Object();
+
+    private final ManageRecipeRepository manageRecipeRepository;
+    private final ChallengeRepository challengeRepository;
+    private final PlaningRepository planingRepository;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public EntityLookupService(ManageRecipeRepository manageRecipeRepository,
+                               ChallengeRepository challengeRepository,
+                               PlaningRepository planingRepository,
+                               CacheManager cacheManager,
+                               PlatformTransactionManager transactionManager) {
+        this.manageRecipeRepository = manageRecipeRepository;
+        this.challengeRepository = challengeRepository;
+        this.planingRepository = planingRepository;
+        this.cacheManager = cacheManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public ManageRecipeModel findRecipe(Long id) {
+        return find(RECIPES, id, ManageRecipeModel::getVersion, () -> {
+            ManageRecipeModel recipe = manageRecipeRepository.findById(id)
+                    .orElseThrow(() -> new RecipeNotFoundException(id));
+            Hibernate.initialize(recipe.getIngredients());
+            Hibernate.initialize(recipe.getInstructions());
+            Hibernate.initialize(recipe.getMediaItems());
+            return recipe;
+        });
+    }
+
+    public ChallengeModel findChallenge(Long id) {
+        return find(CHALLENGES, id, ChallengeModel::getVersion, () -> challengeRepository.findById(id)
+                .orElseThrow(() -> new ChallengeNotFoundException(id)));
+    }
+
+    public PlaningModel findPlan(Long id) {
+        return find(PLANS, id, PlaningModel::getVersion, () -> {
+            PlaningModel plan = planingRepository.findById(id)
+                    .orElseThrow(() -> new PlaningNotFoundException(id));
+            Hibernate.initialize(plan.getMeals());
+            Hibernate.initialize(plan.getRecipeIds());
+            return plan;
+        });
+    }
+
+    /**
+     * Caches a recipe once the write that produced it has committed. The
+     * {@code put} methods are for updates and the {@code evict} methods for
+     * deletes.
+     */
+    public void putRecipe(ManageRecipeModel recipe) {
+        Hibernate.initialize(recipe.getIngredients());
+        Hibernate.initialize(recipe.getInstructions());
+        Hibernate.initialize(recipe.getMediaItems());
+        afterCommit(() -> put(RECIPES, recipe.getId(), recipe, ManageRecipeModel::getVersion));
+    }
+
+    public void putChallenge(ChallengeModel challenge) {
+        afterCommit(() -> put(CHALLENGES, challenge.getId(), challenge, ChallengeModel::getVersion));
+    }
+
+    public void putPlan(PlaningModel plan) {
+        Hibernate.initialize(plan.getMeals());
+        Hibernate.initialize(plan.getRecipeIds());
+        afterCommit(() -> put(PLANS, plan.getId(), plan, PlaningModel::getVersion));
+    }
+
+    public void evictRecipe(Long id) {
+        afterCommit(() -> markDeleted(RECIPES, id));
+    }
+
+    public void evictChallenge(Long id) {
+        afterCommit(() -> markDeleted(CHALLENGES, id));
+    }
+
+    public void evictPlan(Long id) {
+        afterCommit(() -> markDeleted(PLANS, id));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T find(String cacheName, Long id, Function<T, Long> versionOf, Supplier<T> load) {
+        Cache cache = cacheManager.getCache(cacheName);
+        Cache.ValueWrapper cached = cache != null ? cache.get(id) : null;
+        if (cached != null && cached.get() != DELETED) {
+            return (T) cached.get();
+        }
+        T entity = DataSourceRouting.onPrimary(() -> readOnlyTransaction.execute(status -> load.get()));
+        put(cacheName, id, entity, versionOf);
+        return entity;
+    }
+
+    // Keeps whichever copy has the higher version; a deleted entry stays deleted
+    @SuppressWarnings("unchecked")
+    private <T> void put(String cacheName, Long id, T entity, Function<T, Long> versionOf) {
+        ConcurrentMap<Object, Object> entries = entries(cacheName);
+        if (entries == null) {
+            return;
+        }
+        entries.merge(id, entity, (current, candidate) -> current == DELETED
+                || version(versionOf.apply((T) current)) > version(versionOf.apply((T) candidate))
+                ? current : candidate);
+    }
+
+    private void markDeleted(String cacheName, Long id) {
+        ConcurrentMap<Object, Object> entries = entries(cacheName);
+        if (entries != null) {
+            entries.put(id, DELETED);
+        }
+    }
+
+    private static long version(Long version) {
+        return version != null ? version : -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ConcurrentMap<Object, Object> entries(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return null;
+        }
+        Object store = cache.getNativeCache();
+        if (store instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            return (ConcurrentMap<Object, Object>) caffeine.asMap();
+        }
+        if (store instanceof ConcurrentMap<?, ?> map) {
+            return (ConcurrentMap<Object, Object>) map;
+        }
+        throw new IllegalStateException("Cache " + cacheName + " is not backed by a concurrent map");
+    }
+
+    // Before the commit, a concurrent lookup could still read and cache the old row over it
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package backend.Service;
+
+import backend.Model.ChallengeModel;
+import backend.Model.ManageRecipeModel;
+import backend.Model.PlaningModel;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OrderColumn;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sparse list pages: only the requested fields are selected in SQL and
+ * written to JSON. Scalar fields come from one tuple query; each requested
+ * collection costs one extra query for the whole page.
+ * <p>
+ * Field names are the JSON property names, matched case-insensitively against
+ * the entity attributes. {@value #COVER_MEDIA} is the first media item of a
+ * recipe, for card views.
+ */
+@Service
+public class FieldProjectionService {
+
+    public static final String COVER_MEDIA = "coverMedia";
+    public static final String SUMMARY = "summary";
+
+    private static final Map<Class<?>, List<String>> SUMMARY_FIELDS = Map.of(
+            ManageRecipeModel.class, List.of("id", "recipeName", "category", "prepTime", "cookTime",
+                    "difficultyLevel", COVER_MEDIA),
+            ChallengeModel.class, List.of("id", "challengeTitle", "category", "difficulty", "startDate", "endDate"),
+            PlaningModel.class, List.of("id", "planTitle", "planCategory", "planDuration", "planDifficulty"));
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Map<Class<?>, Map<String, Attribute<?, ?>>> attributesByType = new HashMap<>();
+
+    /**
+     * Resolves a {@code fields=} list, or the summary field set when
+     * {@code view} is {@value #SUMMARY}, to attribute names. The id is always
+     * included because the page cursor needs it.
+     *
+     * @throws IllegalArgumentException for unknown fields or views
+     */
+    public List<String> resolveFields(Class<?> type, String fields, String view) {
+        List<String> requested;
+        if (fields != null && !fields.isBlank()) {
+            requested = List.of(fields.split(","));
+        } else if (SUMMARY.equalsIgnoreCase(view)) {
+            requested = SUMMARY_FIELDS.get(type);
+        } else if (view == null) {
+            throw new IllegalArgumentException("fields must name at least one field");
+        } else {
+            throw new IllegalArgumentException("Unknown view: " + view + " (expected summary)");
+        }
+
+        Map<String, Attribute<?, ?>> attributes = attributes(type);
+        Set<String> resolved = new LinkedHashSet<>();
+        resolved.add("id");
+        for (String field : requested) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (COVER_MEDIA.equalsIgnoreCase(name) && attributes.containsKey("mediaitems")) {
+                resolved.add(COVER_MEDIA);
+                continue;
+            }
+            Attribute<?, ?> attribute = attributes.get(name.toLowerCase(Locale.ROOT));
+            if (attribute == null) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            resolved.add(attribute.getName());
+        }
+        return new ArrayList<>(resolved);
+    }
+
+    /**
+     * One keyset page (ids greater than {@code after}, in id order) with only
+     * the given attributes, as returned by {@link #resolveFields}.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> keysetPage(Class<?> type, List<String> fields, long after, int limit) {
+        Map<String, Attribute<?, ?>> attributes = attributes(type);
+        List<String> scalars = new ArrayList<>();
+        List<String> collections = new ArrayList<>();
+        for (String field : fields) {
+            if (COVER_MEDIA.equals(field)) {
+                collections.add(field);
+                continue;
+            }
+            Attribute<?, ?> attribute = attributes.get(field.toLowerCase(Locale.ROOT));
+            (attribute.isCollection() ? collections : scalars).add(attribute.getName());
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<?> root = query.from(type);
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String scalar : scalars) {
+            selections.add(root.get(scalar).alias(scalar));
+        }
+        query.multiselect(selections)
+                .where(cb.greaterThan(root.<Long>get("id"), after))
+                .orderBy(cb.asc(root.get("id")));
+
+        Map<Long, Map<String, Object>> rows = new LinkedHashMap<>();
+        for (Tuple tuple : entityManager.createQuery(query).setMaxResults(limit).getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String scalar : scalars) {
+                row.put(jsonName(scalar), tuple.get(scalar));
+            }
+            rows.put((Long) tuple.get("id"), row);
+        }
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+
+        for (String collection : collections) {
+            boolean cover = COVER_MEDIA.equals(collection);
+            Map<Long, List<Object>> elements = loadCollection(type, cover ? "mediaItems" : collection, rows.keySet());
+            rows.forEach((id, row) -> {
+                List<Object> values = elements.getOrDefault(id, List.of());
+                if (cover) {
+                    row.put(COVER_MEDIA, values.isEmpty() ? null : values.get(0));
+                } else {
+                    row.put(jsonName(collection), values);
+                }
+            });
+        }
+        return new ArrayList<>(rows.values());
+    }
+
+    private Map<Long, List<Object>> loadCollection(Class<?> type, String attribute, Set<Long> ids) {
+        // Entity and attribute names come from the metamodel, never from the request
+        String jpql = "select e.id, c from " + entityName(type) + " e join e." + attribute + " c where e.id in :ids";
+        if (isOrderedList(type, attribute)) {
+            jpql += " order by e.id, index(c)";
+        }
+        Map<Long, List<Object>> elements = new HashMap<>();
+        for (Object[] row : entityManager.createQuery(jpql, Object[].class).setParameter("ids", ids).getResultList()) {
+            elements.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(row[1]);
+        }
+        return elements;
+    }
+
+    private boolean isOrderedList(Class<?> type, String attribute) {
+        Attribute<?, ?> found = attributes(type).get(attribute.toLowerCase(Locale.ROOT));
+        return found != null && found.getJavaMember() instanceof Field field && field.isAnnotationPresent(OrderColumn.class);
+    }
+
+    private synchronized Map<String, Attribute<?, ?>> attributes(Class<?> type) {
+        return attributesByType.computeIfAbsent(type, t -> {
+            Map<String, Attribute<?, ?>> byName = new HashMap<>();
+            for (Attribute<?, ?> attribute : entityManager.getMetamodel().entity(t).getAttributes()) {
+                byName.put(attribute.getName().toLowerCase(Locale.ROOT), attribute);
+            }
+            return byName;
+        });
+    }
+
+    private String entityName(Class<?> type) {
+        EntityType<?> entity = entityManager.getMetamodel().entity(type);
+        return entity.getName();
+    }
+
+    // Matches the getter-derived JSON name for fields such as PlanDescription
+    private static String jsonName(String attribute) {
+        return Character.toLowerCase(attribute.charAt(0)) + attribute.substring(1);
+    }
+}
@@ -0,0 +1,120 @@
+package backend.Service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps free-text ingredient lines such as "2 cups chopped fresh tomatoes" to
+ * a canonical name ("tomato") and a dense integer id. Canonical names are
+ * stemmed and only fit for matching; each id also keeps the first readable
+ * form seen ("tomatoes") to show to users.
+ * <p>
+ * Not thread-safe: the owning index serializes {@link #register} against
+ * every other call with its own lock.
+ */
+@Component
+public class IngredientDictionary {
+
+    private static final Set<String> UNITS = Set.of(
+            "cup", "cups", "tbsp", "tablespoon", "tablespoons", "tsp", "teaspoon", "teaspoons",
+            "g", "gram", "grams", "kg", "ml", "l", "litre", "liter", "oz", "ounce", "ounces", "lb", "lbs",
+            "pound", "pounds", "pinch", "dash", "clove", "cloves", "slice", "slices", "can", "cans",
+            "piece", "pieces", "handful", "bunch", "packet", "pack", "stick", "sticks");
+
+    private static final Set<String> DESCRIPTORS = Set.of(
+            "chopped", "diced", "minced", "sliced", "grated", "shredded", "crushed", "ground", "fresh",
+            "freshly", "dried", "large", "medium", "small", "finely", "roughly", "thinly", "peeled",
+            "boiled", "cooked", "raw", "frozen", "optional", "to", "taste", "of", "a", "an", "some", "and");
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> displayNames = new ArrayList<>();
+
+    /**
+     * Canonical form of an ingredient line, or an empty string when nothing
+     * but quantities and descriptors remain.
+     */
+    public static String normalize(String raw) {
+        List<String> words = significantWords(raw);
+        words.replaceAll(TextAnalyzer::stem);
+        return String.join(" ", words);
+    }
+
+    /**
+     * The ingredient line without quantities, units and descriptors, but not
+     * stemmed: "2 cups chopped fresh tomatoes" becomes "tomatoes".
+     */
+    public static String displayName(String raw) {
+        return String.join(" ", significantWords(raw));
+    }
+
+    private static List<String> significantWords(String raw) {
+        List<String> words = new ArrayList<>();
+        if (raw == null) {
+            return words;
+        }
+        String text = raw.toLowerCase(Locale.ROOT);
+        // Drop notes in brackets and anything after the first comma ("onion, finely chopped")
+        text = text.replaceAll("\\(.*?\\)", " ");
+        int comma = text.indexOf(',');
+        if (comma >= 0) {
+            text = text.substring(0, comma);
+        }
+        for (String token : text.split("[^a-z0-9/.]+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            // Quantities like 2, 1/2, 0.5 and 200g
+            if (Character.isDigit(token.charAt(0))) {
+                continue;
+            }
+            if (UNITS.contains(token) || DESCRIPTORS.contains(token)) {
+                continue;
+            }
+            String word = token.replaceAll("[^a-z]", "");
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Id for an ingredient line, registering it when first seen; -1 when the
+     * line normalizes to nothing.
+     */
+    public int register(String raw) {
+        String name = normalize(raw);
+        if (name.isEmpty()) {
+            return -1;
+        }
+        return ids.computeIfAbsent(name, key -> {
+            displayNames.add(displayName(raw));
+            return displayNames.size() - 1;
+        });
+    }
+
+    /**
+     * Id for an ingredient line without registering it; -1 when unknown.
+     */
+    public int lookup(String raw) {
+        Integer id = ids.get(normalize(raw));
+        return id != null ? id : -1;
+    }
+
+    /**
+     * The first readable form registered for the id.
+     */
+    public String name(int id) {
+        return displayNames.get(id);
+    }
+
+    public int size() {
+        return displayNames.size();
+    }
+}
@@ -0,0 +1,287 @@
+package backend.Service;
+
+import backend.Event.ChangeType;
+import backend.Event.RecipeChangedEvent;
+import backend.Model.ManageRecipeModel;
+import backend.Model.PlaningModel;
+import backend.Repository.ManageRecipeRepository;
+import backend.Repository.PlaningRepository;
+import org.hibernate.Hibernate;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves a plan's recipe references and builds its shopping list.
+ * <p>
+ * All referenced recipes are fetched with one {@code IN} query, and their
+ * collections in batches. A cached shopping list is used only for the plan
+ * version it was built from, so it goes stale with the plan's cache entry
+ * rather than with an eviction that a racing lookup could undo. Lists are
+ * evicted when any recipe they reference is updated or deleted, and a list
+ * built across such a change is not cached.
+ */
+@Service
+public class MealPlanService {
+
+    public static final String SHOPPING_LISTS = "shoppingLists";
+
+    private static final Pattern NUMBER = Pattern.compile("\\d+(?:\\.\\d+)?");
+    private static final Pattern FRACTION = Pattern.compile("(\\d+)/(\\d+)");
+    private static final Pattern NUMBER_WITH_UNIT = Pattern.compile("(\\d+(?:\\.\\d+)?)([a-z]+)");
+
+    private static final Map<String, String> UNITS = new HashMap<>();
+
+    static {
+        unit("cup", "cup", "cups");
+        unit("tbsp", "tbsp", "tablespoon", "tablespoons");
+        unit("tsp", "tsp", "teaspoon", "teaspoons");
+        unit("g", "g", "gram", "grams");
+        unit("kg", "kg", "kilogram", "kilograms");
+        unit("ml", "ml", "millilitre", "milliliter", "millilitres", "milliliters");
+        unit("l", "l", "litre", "liter", "litres", "liters");
+        unit("oz", "oz", "ounce", "ounces");
+        unit("lb", "lb", "lbs", "pound", "pounds");
+        unit("clove", "clove", "cloves");
+        unit("slice", "slice", "slices");
+        unit("can", "can", "cans");
+        unit("piece", "piece", "pieces");
+        unit("pinch", "pinch", "pinches");
+        unit("dash", "dash", "dashes");
+        unit("handful", "handful", "handfuls");
+        unit("bunch", "bunch", "bunches");
+        unit("pack", "pack", "packs", "packet", "packets");
+        unit("stick", "stick", "sticks");
+    }
+
+    private static void unit(String canonical, String... spellings) {
+        for (String spelling : spellings) {
+            UNITS.put(spelling, canonical);
+        }
+    }
+
+    public record ExpandedPlan(PlaningModel plan, List<ManageRecipeModel> recipes, List<Long> missingRecipeIds) {
+    }
+
+    /**
+     * An amount of one ingredient; {@code unit} is empty for plain counts
+     * such as "2 eggs".
+     */
+    public record Quantity(double amount, String unit) {
+    }
+
+    /**
+     * One line of the shopping list. Amounts in the same unit are added up;
+     * lines without an amount ("salt to taste") are counted in
+     * {@code unquantified}.
+     */
+    public record ShoppingItem(String name, List<Quantity> quantities, int unquantified,
+                               List<String> lines, Set<Long> recipeIds) {
+    }
+
+    public record ShoppingList(Long planId, int recipeCount, List<ShoppingItem> items) {
+    }
+
+    private record CachedShoppingList(Long planVersion, ShoppingList list) {
+    }
+
+    private final EntityLookupService entityLookupService;
+    private final ManageRecipeRepository manageRecipeRepository;
+    private final PlaningRepository planingRepository;
+    private final CacheManager cacheManager;
+    // Counts recipe changes that evicted lists; guarded by recipeChangeLock together with those evictions
+    private final Object recipeChangeLock = new Object();
+    private long recipeChanges;
+
+    public MealPlanService(EntityLookupService entityLookupService,
+                           ManageRecipeRepository manageRecipeRepository,
+                           PlaningRepository planingRepository,
+                           CacheManager cacheManager) {
+        this.entityLookupService = entityLookupService;
+        this.manageRecipeRepository = manageRecipeRepository;
+        this.planingRepository = planingRepository;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * The plan with its recipes in plan order. References to recipes that no
+     * longer exist are listed in {@code missingRecipeIds}.
+     */
+    @Transactional(readOnly = true)
+    public ExpandedPlan expand(Long planId) {
+        return expand(entityLookupService.findPlan(planId));
+    }
+
+    private ExpandedPlan expand(PlaningModel plan) {
+        List<Long> recipeIds = plan.getRecipeIds() != null ? plan.getRecipeIds() : List.of();
+
+        Map<Long, ManageRecipeModel> recipesById = new HashMap<>();
+        for (ManageRecipeModel recipe : manageRecipeRepository.findAllById(new LinkedHashSet<>(recipeIds))) {
+            Hibernate.initialize(recipe.getIngredients());
+            Hibernate.initialize(recipe.getInstructions());
+            Hibernate.initialize(recipe.getMediaItems());
+            recipesById.put(recipe.getId(), recipe);
+        }
+
+        List<ManageRecipeModel> recipes = new ArrayList<>(recipeIds.size());
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long recipeId : recipeIds) {
+            ManageRecipeModel recipe = recipesById.get(recipeId);
+            if (recipe != null) {
+                recipes.add(recipe);
+            } else {
+                missing.add(recipeId);
+            }
+        }
+        return new ExpandedPlan(plan, recipes, new ArrayList<>(missing));
+    }
+
+    /**
+     * Ingredients of every recipe in the plan, merged by canonical name. A
+     * recipe planned twice contributes its ingredients twice.
+     */
+    @Transactional(readOnly = true)
+    public ShoppingList shoppingList(Long planId) {
+        PlaningModel plan = entityLookupService.findPlan(planId);
+        Cache cache = cacheManager.getCache(SHOPPING_LISTS);
+        Cache.ValueWrapper cached = cache != null ? cache.get(planId) : null;
+        if (cached != null && cached.get() instanceof CachedShoppingList entry
+                && Objects.equals(entry.planVersion(), plan.getVersion())) {
+            return entry.list();
+        }
+
+        long changesBefore;
+        synchronized (recipeChangeLock) {
+            changesBefore = recipeChanges;
+        }
+        ExpandedPlan expanded = expand(plan);
+        Map<String, ItemBuilder> items = new LinkedHashMap<>();
+        for (ManageRecipeModel recipe : expanded.recipes()) {
+            if (recipe.getIngredients() == null) {
+                continue;
+            }
+            for (String line : recipe.getIngredients()) {
+                String key = IngredientDictionary.normalize(line);
+                if (key.isEmpty()) {
+                    continue;
+                }
+                // Merged by canonical name, shown by the first readable form
+                items.computeIfAbsent(key, k -> new ItemBuilder(IngredientDictionary.displayName(line)))
+                        .add(line, recipe.getId());
+            }
+        }
+        List<ShoppingItem> list = new ArrayList<>(items.size());
+        items.values().forEach(builder -> list.add(builder.build()));
+        list.sort((a, b) -> a.name().compareTo(b.name()));
+        ShoppingList shoppingList = new ShoppingList(planId, expanded.recipes().size(), list);
+
+        synchronized (recipeChangeLock) {
+            // A recipe that changed while the list was built may be in it at its old state
+            if (cache != null && recipeChanges == changesBefore) {
+                cache.put(planId, new CachedShoppingList(plan.getVersion(), shoppingList));
+            }
+        }
+        return shoppingList;
+    }
+
+    public void evictShoppingList(Long planId) {
+        Cache cache = cacheManager.getCache(SHOPPING_LISTS);
+        if (cache != null) {
+            cache.evict(planId);
+        }
+    }
+
+    @EventListener
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        // A new recipe cannot be referenced by a plan yet
+        if (event.type() == ChangeType.CREATED) {
+            return;
+        }
+        List<Long> planIds = planingRepository.findIdsByRecipeId(event.recipeId());
+        synchronized (recipeChangeLock) {
+            recipeChanges++;
+            planIds.forEach(this::evictShoppingList);
+        }
+    }
+
+    private static final class ItemBuilder {
+        private final String name;
+        private final Map<String, Double> amounts = new LinkedHashMap<>();
+        private final List<String> lines = new ArrayList<>();
+        private final Set<Long> recipeIds = new LinkedHashSet<>();
+        private int unquantified;
+
+        ItemBuilder(String name) {
+            this.name = name;
+        }
+
+        void add(String line, Long recipeId) {
+            lines.add(line);
+            recipeIds.add(recipeId);
+            Quantity quantity = parseQuantity(line);
+            if (quantity == null) {
+                unquantified++;
+            } else {
+                amounts.merge(quantity.unit(), quantity.amount(), Double::sum);
+            }
+        }
+
+        ShoppingItem build() {
+            List<Quantity> quantities = new ArrayList<>(amounts.size());
+            amounts.forEach((unit, amount) -> quantities.add(new Quantity(Math.round(amount * 100) / 100.0, unit)));
+            return new ShoppingItem(name, quantities, unquantified, lines, recipeIds);
+        }
+    }
+
+    /**
+     * Leading amount and unit of an ingredient line: "2 cups rice",
+     * "1 1/2 tbsp oil", "200g pasta". Returns {@code null} when the line does
+     * not start with an amount.
+     */
+    static Quantity parseQuantity(String line) {
+        String[] tokens = line.trim().toLowerCase(Locale.ROOT).split("\\s+");
+        double amount = 0;
+        int i = 0;
+        for (; i < tokens.length; i++) {
+            Double value = number(tokens[i]);
+            if (value == null) {
+                break;
+            }
+            amount += value;
+        }
+        if (i == 0) {
+            Matcher glued = tokens.length > 0 ? NUMBER_WITH_UNIT.matcher(tokens[0]) : null;
+            if (glued != null && glued.matches() && UNITS.containsKey(glued.group(2))) {
+                return new Quantity(Double.parseDouble(glued.group(1)), UNITS.get(glued.group(2)));
+            }
+            return null;
+        }
+        String unit = i < tokens.length ? UNITS.get(tokens[i].replaceAll("[^a-z]", "")) : null;
+        return new Quantity(amount, unit != null ? unit : "");
+    }
+
+    private static Double number(String token) {
+        if (NUMBER.matcher(token).matches()) {
+            return Double.parseDouble(token);
+        }
+        Matcher fraction = FRACTION.matcher(token);
+        if (fraction.matches() && !"0".equals(fraction.group(2))) {
+            return Double.parseDouble(fraction.group(1)) / Double.parseDouble(fraction.group(2));
+        }
+        return null;
+    }
+}
@@ -0,0 +1,241 @@
+package backend.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Produces downscaled JPEG copies of uploaded photos on a bounded worker
+ * pool so recipe cards do not have to download full-size originals. When the
+ * queue is full the job is dropped and the original keeps being served.
+ * <p>
+ * Video poster frames are not generated: that needs a video decoder, which
+ * the JDK does not ship.
+ * <p>
+ * The dimensions are read from the header before anything is decoded.
+ * Photos over {@code media.derivatives.max-pixels} are skipped, and the rest
+ * are decoded subsampled to about the largest derivative width, so a small
+ * file declaring a huge raster cannot exhaust the heap.
+ */
+@Service
+public class MediaDerivativeService {
+
+    private static final Logger log = LoggerFactory.getLogger(MediaDerivativeService.class);
+
+    public static final String DERIVED_DIR = "derived";
+
+    private static final float JPEG_QUALITY = 0.8f;
+
+    private final MediaFileService mediaFileService;
+    private final int[] widths;
+    private final long maxPixels;
+    private final ThreadPoolExecutor executor;
+    private final Timer processingTimer;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+    private final Counter oversizedCounter;
+
+    public MediaDerivativeService(MediaFileService mediaFileService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${media.derivatives.widths:320,640,1280}") int[] widths,
+                                  @Value("${media.derivatives.threads:2}") int threads,
+                                  @Value("${media.derivatives.queue-capacity:200}") int queueCapacity,
+                                  @Value("${media.derivatives.max-pixels:100000000}") long maxPixels) {
+        this.mediaFileService = mediaFileService;
+        this.widths = Arrays.stream(widths).sorted().toArray();
+        this.maxPixels = maxPixels;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "media-derivatives-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("media.derivatives.queue.depth", executor, e -> e.getQueue().size())
+                .description("Photos waiting for derivatives")
+                .register(meterRegistry);
+        Gauge.builder("media.derivatives.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Photos being resized right now")
+                .register(meterRegistry);
+        this.processingTimer = Timer.builder("media.derivatives.processing")
+                .description("Time to produce every derivative of one photo")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("media.derivatives.rejected")
+                .description("Photos skipped because the queue was full")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("media.derivatives.failed")
+                .description("Photos that could not be decoded or written")
+                .register(meterRegistry);
+        this.oversizedCounter = Counter.builder("media.derivatives.oversized")
+                .description("Photos skipped because their dimensions are over the pixel limit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues derivative generation for a stored photo.
+     */
+    public void submit(String mediaName) {
+        Path original = mediaFileService.resolve(mediaName);
+        if (original == null) {
+            return;
+        }
+        try {
+            executor.execute(() -> processingTimer.record(() -> generate(mediaName, original)));
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+        }
+    }
+
+    /**
+     * Returns the smallest ready derivative at least {@code width} pixels wide,
+     * or {@code null} when the original should be served instead.
+     */
+    public Path find(String mediaName, int width) {
+        for (int candidate : widths) {
+            if (candidate >= width) {
+                Path derivative = derivativePath(mediaName, candidate);
+                return Files.exists(derivative) ? derivative : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes every derivative of a media file that is being deleted.
+     *
+     * @return bytes freed
+     */
+    public long deleteAll(String mediaName) throws IOException {
+        long freed = 0;
+        for (int width : widths) {
+            Path derivative = derivativePath(mediaName, width);
+            if (Files.exists(derivative)) {
+                freed += Files.size(derivative);
+                Files.deleteIfExists(derivative);
+            }
+        }
+        return freed;
+    }
+
+    private void generate(String mediaName, Path original) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                // Not a format ImageIO can decode
+                failedCounter.increment();
+                return;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                if ((long) sourceWidth * sourceHeight > maxPixels) {
+                    oversizedCounter.increment();
+                    log.warn("Skipping derivatives of {}: {}x{} is over the limit of {} pixels",
+                            mediaName, sourceWidth, sourceHeight, maxPixels);
+                    return;
+                }
+                // Decode every step-th row and column, keeping at least the largest derivative's width
+                int step = Math.max(1, sourceWidth / widths[widths.length - 1]);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage source = reader.read(0, param);
+
+                Files.createDirectories(mediaFileService.getUploadPath().resolve(DERIVED_DIR));
+                for (int width : widths) {
+                    if (width >= sourceWidth) {
+                        break;
+                    }
+                    Path target = derivativePath(mediaName, width);
+                    if (!Files.exists(target)) {
+                        writeJpeg(scale(source, width), target);
+                    }
+                }
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            failedCounter.increment();
+            log.warn("Could not generate derivatives of {}", mediaName, e);
+        }
+    }
+
+    private Path derivativePath(String mediaName, int width) {
+        int dot = mediaName.lastIndexOf('.');
+        String base = dot >= 0 ? mediaName.substring(0, dot) : mediaName;
+        return mediaFileService.getUploadPath().resolve(DERIVED_DIR).resolve(base + "_w" + width + ".jpg");
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width) {
+        int height = Math.max(1, Math.round(source.getHeight() * (width / (float) source.getWidth())));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    // Written to a temp file first so readers never see a half-written derivative
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), "derivative-", ".tmp");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        } finally {
+            writer.dispose();
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
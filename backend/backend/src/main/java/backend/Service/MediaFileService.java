@@ -0,0 +1,362 @@
+package backend.Service;
+
+import backend.Model.MediaBlob;
+import backend.Repository.MediaBlobRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves files from the upload directory with byte-range, conditional and
+ * long-lived caching support. Upload filenames are never reused, so every
+ * response can be cached as immutable.
+ * <p>
+ * Two layouts live side by side: legacy uploads stored flat by generated
+ * name, and content-addressed blobs named {@code <sha256>.<ext>} that are
+ * stored once under {@code cas/ab/cd/<sha256>}.
+ * <p>
+ * The content type comes from the extension recorded when a blob was
+ * stored, not from the one in the request, and only photo and video types
+ * are served as such. Anything else goes out as an opaque download with
+ * {@code nosniff}, so an uploaded file can never be rendered as a page on
+ * the API's origin.
+ */
+@Service
+public class MediaFileService {
+
+    public static final String UPLOAD_DIR = "uploads";
+    public static final String CAS_DIR = "cas";
+
+    private static final Pattern CONTENT_HASH_NAME = Pattern.compile("([0-9a-f]{64})(\\.[a-z0-9]{1,10})?");
+
+    // Below this size a plain copy is cheaper than handing the file to the connector
+    private static final long SENDFILE_THRESHOLD = 48 * 1024;
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String CACHE_CONTROL = CacheControl.maxAge(365, TimeUnit.DAYS)
+            .cachePublic()
+            .immutable()
+            .getHeaderValue();
+    private static final String REVALIDATE = CacheControl.noCache().getHeaderValue();
+
+    private final MediaBlobRepository mediaBlobRepository;
+    private final Path uploadPath = Paths.get(UPLOAD_DIR).toAbsolutePath().normalize();
+    private final Map<String, MediaType> contentTypes = new ConcurrentHashMap<>();
+    // A blob's stored extension never changes, so it is looked up once per hash
+    private final Cache<String, String> blobExtensions = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .build();
+
+    public MediaFileService(MediaBlobRepository mediaBlobRepository) {
+        this.mediaBlobRepository = mediaBlobRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            Files.createDirectories(uploadPath);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create upload directory!", e);
+        }
+    }
+
+    public Path getUploadPath() {
+        return uploadPath;
+    }
+
+    /**
+     * Resolves a filename inside the upload directory, or returns {@code null}
+     * when the name would escape it.
+     */
+    public Path resolve(String filename) {
+        String hash = contentHash(filename);
+        if (hash != null) {
+            return blobPath(hash);
+        }
+        Path filePath = uploadPath.resolve(filename).normalize();
+        if (filePath.getParent() == null || !filePath.getParent().equals(uploadPath)) {
+            return null;
+        }
+        return filePath;
+    }
+
+    /**
+     * Generated name for uploads stored in the flat legacy layout.
+     */
+    public String legacyName(String extension) {
+        return System.currentTimeMillis() + "_" + Math.round(Math.random() * 1000) + extension;
+    }
+
+    /**
+     * Location of a content-addressed blob, sharded by the first two bytes of
+     * its hash so no single directory grows too large.
+     */
+    public Path blobPath(String hash) {
+        return uploadPath.resolve(CAS_DIR)
+                .resolve(hash.substring(0, 2))
+                .resolve(hash.substring(2, 4))
+                .resolve(hash);
+    }
+
+    /**
+     * Returns the content hash for a {@code <sha256>.<ext>} media name, or
+     * {@code null} for legacy names.
+     */
+    public static String contentHash(String filename) {
+        if (filename == null) {
+            return null;
+        }
+        Matcher matcher = CONTENT_HASH_NAME.matcher(filename);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    public String etag(String filename, BasicFileAttributes attributes) {
+        String hash = contentHash(filename);
+        if (hash != null) {
+            return "\"" + hash + "\"";
+        }
+        return "\"" + Long.toHexString(attributes.size()) + "-"
+                + Long.toHexString(attributes.lastModifiedTime().toMillis()) + "\"";
+    }
+
+    /**
+     * Content types are looked up once per file extension rather than probing
+     * the file system on every request. A content-addressed name is typed by
+     * its blob's stored extension, whatever extension the request used.
+     */
+    public MediaType contentType(String filename) {
+        String hash = contentHash(filename);
+        String extension = hash != null ? storedExtension(hash) : extension(filename);
+        return contentTypes.computeIfAbsent(extension, ext -> servable(
+                MediaTypeFactory.getMediaType("media" + ext).orElse(MediaType.APPLICATION_OCTET_STREAM)));
+    }
+
+    // Empty, and so untyped, until the blob's row exists; that is not cached
+    private String storedExtension(String hash) {
+        String extension = blobExtensions.getIfPresent(hash);
+        if (extension == null) {
+            extension = mediaBlobRepository.findById(hash)
+                    .map(MediaBlob::getExtension)
+                    .map(stored -> extension("media" + stored))
+                    .orElse(null);
+            if (extension == null) {
+                return "";
+            }
+            blobExtensions.put(hash, extension);
+        }
+        return extension;
+    }
+
+    // SVG is an image type that runs script, so it is not served as one either
+    private static MediaType servable(MediaType type) {
+        boolean media = ("image".equals(type.getType()) && !type.getSubtype().contains("svg"))
+                || "video".equals(type.getType());
+        return media ? type : MediaType.APPLICATION_OCTET_STREAM;
+    }
+
+    /**
+     * Lower-cased extension including the dot, or an empty string when the
+     * name has none or it is not a plain alphanumeric suffix.
+     */
+    public static String extension(String filename) {
+        if (filename == null) {
+            return "";
+        }
+        int dot = filename.lastIndexOf('.');
+        if (dot < 0) {
+            return "";
+        }
+        String extension = filename.substring(dot).toLowerCase(Locale.ROOT);
+        return extension.matches("\\.[a-z0-9]{1,10}") ? extension : "";
+    }
+
+    /**
+     * Caching headers shared by full, partial and 304 responses. A response
+     * that stands in for a file that does not exist yet, such as the original
+     * served for a derivative still being generated, must not be cached as
+     * immutable: it is revalidated on every use, so the ETag check starts
+     * returning the real file as soon as it exists.
+     * <p>
+     * Browsers are told not to sniff a type other than the one sent.
+     */
+    public void applyCacheHeaders(HttpServletResponse response, boolean immutable) {
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, immutable ? CACHE_CONTROL : REVALIDATE);
+    }
+
+    /**
+     * Writes the file, honouring a Range header when present. Validators
+     * (ETag, Last-Modified) and caching headers are expected to be on the
+     * response already.
+     *
+     * @return the number of body bytes handed to the client
+     */
+    public long write(Path file, String filename, BasicFileAttributes attributes,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long size = attributes.size();
+        MediaType contentType = contentType(filename);
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null || !ifRangeMatches(request, filename, attributes)) {
+            response.setContentType(contentType.toString());
+            response.setContentLengthLong(size);
+            return send(file, 0, size, request, response);
+        }
+
+        List<HttpRange> requested;
+        try {
+            requested = HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            return notSatisfiable(size, response);
+        }
+        if (requested.isEmpty()) {
+            response.setContentType(contentType.toString());
+            response.setContentLengthLong(size);
+            return send(file, 0, size, request, response);
+        }
+        List<HttpRange> ranges = satisfiable(requested, size);
+        if (ranges.isEmpty()) {
+            return notSatisfiable(size, response);
+        }
+
+        response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        if (ranges.size() == 1) {
+            long start = ranges.get(0).getRangeStart(size);
+            long end = ranges.get(0).getRangeEnd(size);
+            response.setContentType(contentType.toString());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(start, end, size));
+            response.setContentLengthLong(end - start + 1);
+            return send(file, start, end - start + 1, request, response);
+        }
+        return sendMultipart(file, size, contentType, ranges, response);
+    }
+
+    /**
+     * The ranges that overlap the file. Ranges starting at or past its end
+     * are dropped; when none are left the request gets a 416.
+     */
+    static List<HttpRange> satisfiable(List<HttpRange> ranges, long size) {
+        List<HttpRange> satisfiable = new ArrayList<>(ranges.size());
+        for (HttpRange range : ranges) {
+            long start = range.getRangeStart(size);
+            long end = range.getRangeEnd(size);
+            if (start < size && start <= end) {
+                satisfiable.add(range);
+            }
+        }
+        return satisfiable;
+    }
+
+    private static long notSatisfiable(long size, HttpServletResponse response) {
+        response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+        return 0;
+    }
+
+    private boolean ifRangeMatches(HttpServletRequest request, String filename, BasicFileAttributes attributes) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag(filename, attributes));
+        }
+        try {
+            long since = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return attributes.lastModifiedTime().toMillis() / 1000 <= since / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private long send(Path file, long position, long count,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (count >= SENDFILE_THRESHOLD
+                && !"HEAD".equals(request.getMethod())
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Let the connector stream the region straight from the page cache
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, position);
+            request.setAttribute(SENDFILE_END, position + count);
+            return count;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return transfer(channel, position, count, Channels.newChannel(response.getOutputStream()));
+        }
+    }
+
+    private long sendMultipart(Path file, long size, MediaType contentType, List<HttpRange> ranges,
+                               HttpServletResponse response) throws IOException {
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        OutputStream out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (HttpRange range : ranges) {
+                long start = range.getRangeStart(size);
+                long end = range.getRangeEnd(size);
+                out.write(("\r\n--" + boundary + "\r\n"
+                        + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                        + HttpHeaders.CONTENT_RANGE + ": " + contentRange(start, end, size) + "\r\n\r\n")
+                        .getBytes(StandardCharsets.US_ASCII));
+                written += transfer(channel, start, end - start + 1, target);
+            }
+        }
+        out.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        return written;
+    }
+
+    private long transfer(FileChannel channel, long position, long count, WritableByteChannel target) throws IOException {
+        long written = 0;
+        while (written < count) {
+            long n = channel.transferTo(position + written, count - written, target);
+            if (n <= 0) {
+                break;
+            }
+            written += n;
+        }
+        return written;
+    }
+
+    private static String contentRange(long start, long end, long size) {
+        return "bytes " + start + "-" + end + "/" + size;
+    }
+}
@@ -0,0 +1,361 @@
+package backend.Service;
+
+import backend.Model.MediaBlob;
+import backend.Repository.ManageRecipeRepository;
+import backend.Repository.MediaBlobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Removes media files that no recipe refers to.
+ * <p>
+ * A sweep walks the upload tree in bounded batches. Content-addressed shards
+ * are visited in hash order, and the flat legacy directory is streamed without
+ * being listed whole. Each batch of names is checked against
+ * {@code recipe_media_items} with one indexed {@code IN} query, so memory
+ * stays at one batch however many files there are. Files modified within the
+ * grace period are left alone, which covers uploads whose recipe has not been
+ * saved yet.
+ * <p>
+ * Orphans are moved to a dated quarantine directory (purged after a retention
+ * period) or deleted outright, at no more than a configured number of files
+ * per second.
+ */
+@Service
+public class MediaGarbageCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(MediaGarbageCollector.class);
+
+    public static final String QUARANTINE_DIR = ".quarantine";
+
+    private static final int BATCH_SIZE = 500;
+    private static final Pattern SHARD = Pattern.compile("[0-9a-f]{2}");
+
+    public record SweepResult(long scanned, long collected, long reclaimedBytes) {
+    }
+
+    private record Candidate(Path file, String hash, String name, long size) {
+    }
+
+    private final MediaFileService mediaFileService;
+    private final MediaDerivativeService mediaDerivativeService;
+    private final ManageRecipeRepository manageRecipeRepository;
+    private final MediaBlobRepository mediaBlobRepository;
+    private final boolean enabled;
+    private final boolean quarantine;
+    private final Duration gracePeriod;
+    private final Duration quarantineRetention;
+    private final long nanosPerFile;
+    private final Counter scannedCounter;
+    private final Counter collectedCounter;
+    private final Counter reclaimedCounter;
+
+    // A lock rather than synchronized: a sweep sleeps while throttled and must not pin a virtual thread's carrier
+    private final ReentrantLock sweepLock = new ReentrantLock();
+    private volatile boolean stopping;
+    private long nextSlot;
+    private Instant cutoff;
+    private long scanned;
+    private long collected;
+    private long reclaimed;
+
+    public MediaGarbageCollector(MediaFileService mediaFileService,
+                                 MediaDerivativeService mediaDerivativeService,
+                                 ManageRecipeRepository manageRecipeRepository,
+                                 MediaBlobRepository mediaBlobRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${media.gc.enabled:true}") boolean enabled,
+                                 @Value("${media.gc.mode:quarantine}") String mode,
+                                 @Value("${media.gc.grace-period:24h}") Duration gracePeriod,
+                                 @Value("${media.gc.quarantine-retention:7d}") Duration quarantineRetention,
+                                 @Value("${media.gc.max-files-per-second:50}") int maxFilesPerSecond) {
+        this.mediaFileService = mediaFileService;
+        this.mediaDerivativeService = mediaDerivativeService;
+        this.manageRecipeRepository = manageRecipeRepository;
+        this.mediaBlobRepository = mediaBlobRepository;
+        this.enabled = enabled;
+        this.quarantine = !"delete".equals(mode);
+        this.gracePeriod = gracePeriod;
+        this.quarantineRetention = quarantineRetention;
+        this.nanosPerFile = TimeUnit.SECONDS.toNanos(1) / Math.max(1, maxFilesPerSecond);
+        this.scannedCounter = Counter.builder("media.gc.scanned")
+                .description("Media files examined by the orphan sweeper")
+                .register(meterRegistry);
+        this.collectedCounter = Counter.builder("media.gc.collected")
+                .description("Unreferenced media files deleted or quarantined")
+                .tag("action", quarantine ? "quarantined" : "deleted")
+                .register(meterRegistry);
+        this.reclaimedCounter = Counter.builder("media.gc.reclaimed")
+                .description("Bytes freed from the upload directory, including derivatives")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${media.gc.interval:6h}", initialDelayString = "${media.gc.initial-delay:10m}")
+    public void scheduledSweep() {
+        if (enabled) {
+            sweep();
+        }
+    }
+
+    public SweepResult sweep() {
+        sweepLock.lock();
+        try {
+            return sweepLocked();
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    private SweepResult sweepLocked() {
+        cutoff = Instant.now().minus(gracePeriod);
+        scanned = 0;
+        collected = 0;
+        reclaimed = 0;
+        nextSlot = System.nanoTime();
+        long started = System.nanoTime();
+        try {
+            sweepContentAddressed();
+            sweepLegacy();
+            purgeQuarantine();
+        } catch (IOException e) {
+            log.warn("Media sweep stopped early", e);
+        }
+        log.info("Media sweep scanned {} files, {} {} orphans, reclaimed {} bytes in {} ms",
+                scanned, quarantine ? "quarantined" : "deleted", collected, reclaimed,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return new SweepResult(scanned, collected, reclaimed);
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+    }
+
+    private void sweepContentAddressed() throws IOException {
+        Path casRoot = mediaFileService.getUploadPath().resolve(MediaFileService.CAS_DIR);
+        List<Candidate> batch = new ArrayList<>(BATCH_SIZE);
+        for (Path first : sortedShards(casRoot)) {
+            for (Path second : sortedShards(first)) {
+                // A shard holds a tiny fraction of all blobs, so sorting one is cheap
+                List<Path> blobs = new ArrayList<>();
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(second, Files::isRegularFile)) {
+                    files.forEach(blobs::add);
+                }
+                blobs.sort(null);
+                for (Path blob : blobs) {
+                    if (stopping) {
+                        return;
+                    }
+                    addIfOld(batch, blob, blob.getFileName().toString());
+                    if (batch.size() == BATCH_SIZE) {
+                        collectBlobs(batch);
+                        batch.clear();
+                    }
+                }
+            }
+        }
+        collectBlobs(batch);
+    }
+
+    private void sweepLegacy() throws IOException {
+        Path root = mediaFileService.getUploadPath();
+        List<Candidate> batch = new ArrayList<>(BATCH_SIZE);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root,
+                path -> Files.isRegularFile(path) && !path.getFileName().toString().startsWith("."))) {
+            for (Path file : files) {
+                if (stopping) {
+                    return;
+                }
+                addIfOld(batch, file, null);
+                if (batch.size() == BATCH_SIZE) {
+                    collectLegacy(batch);
+                    batch.clear();
+                }
+            }
+        }
+        collectLegacy(batch);
+    }
+
+    private void addIfOld(List<Candidate> batch, Path file, String hash) throws IOException {
+        scanned++;
+        scannedCounter.increment();
+        if (Files.getLastModifiedTime(file).toInstant().isAfter(cutoff)) {
+            return;
+        }
+        batch.add(new Candidate(file, hash, hash == null ? file.getFileName().toString() : null, Files.size(file)));
+    }
+
+    private void collectBlobs(List<Candidate> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<String, MediaBlob> blobs = new HashMap<>();
+        for (MediaBlob blob : mediaBlobRepository.findAllById(batch.stream().map(Candidate::hash).toList())) {
+            blobs.put(blob.getHash(), blob);
+        }
+        List<Candidate> named = new ArrayList<>(batch.size());
+        List<Candidate> orphans = new ArrayList<>();
+        for (Candidate candidate : batch) {
+            MediaBlob blob = blobs.get(candidate.hash());
+            if (blob == null) {
+                // Stored but never registered, so the extension recipes use is unknown
+                if (!manageRecipeRepository.isMediaHashReferenced(candidate.hash())) {
+                    orphans.add(new Candidate(candidate.file(), candidate.hash(), candidate.hash(), candidate.size()));
+                }
+                continue;
+            }
+            // Never collect a blob whose reference count says it is in use
+            if (blob.getRefCount() > 0) {
+                continue;
+            }
+            String extension = blob.getExtension() != null ? blob.getExtension() : "";
+            named.add(new Candidate(candidate.file(), candidate.hash(), candidate.hash() + extension, candidate.size()));
+        }
+        orphans.addAll(unreferenced(named));
+        List<String> removedHashes = new ArrayList<>();
+        for (Candidate orphan : orphans) {
+            if (collect(orphan)) {
+                removedHashes.add(orphan.hash());
+            }
+        }
+        if (!removedHashes.isEmpty()) {
+            mediaBlobRepository.deleteAllByIdInBatch(removedHashes);
+        }
+    }
+
+    private void collectLegacy(List<Candidate> batch) {
+        for (Candidate orphan : unreferenced(batch)) {
+            collect(orphan);
+        }
+    }
+
+    private List<Candidate> unreferenced(List<Candidate> candidates) {
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        Set<String> referenced = new HashSet<>(manageRecipeRepository.findReferencedMediaPaths(
+                candidates.stream().map(Candidate::name).toList()));
+        return candidates.stream().filter(candidate -> !referenced.contains(candidate.name())).toList();
+    }
+
+    private boolean collect(Candidate orphan) {
+        if (stopping) {
+            return false;
+        }
+        throttle();
+        try {
+            // Re-check just before acting: a duplicate upload touches the blob to claim it again
+            if (!Files.exists(orphan.file())
+                    || Files.getLastModifiedTime(orphan.file()).toInstant().isAfter(cutoff)) {
+                return false;
+            }
+            if (quarantine) {
+                Path target = quarantineDir(LocalDate.now(ZoneOffset.UTC)).resolve(orphan.name());
+                Files.createDirectories(target.getParent());
+                Files.move(orphan.file(), target, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.delete(orphan.file());
+            }
+            long freed = orphan.size() + mediaDerivativeService.deleteAll(orphan.name());
+            collected++;
+            reclaimed += freed;
+            collectedCounter.increment();
+            reclaimedCounter.increment(freed);
+            return true;
+        } catch (IOException e) {
+            log.warn("Could not collect orphaned media {}", orphan.file(), e);
+            return false;
+        }
+    }
+
+    // Quarantined files only free space once their day directory expires
+    private void purgeQuarantine() throws IOException {
+        Path root = mediaFileService.getUploadPath().resolve(QUARANTINE_DIR);
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        LocalDate oldest = LocalDate.now(ZoneOffset.UTC).minusDays(quarantineRetention.toDays());
+        try (DirectoryStream<Path> days = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path day : days) {
+                LocalDate date;
+                try {
+                    date = LocalDate.parse(day.getFileName().toString());
+                } catch (RuntimeException e) {
+                    continue;
+                }
+                if (date.isBefore(oldest)) {
+                    purgeDirectory(day);
+                }
+            }
+        }
+    }
+
+    private void purgeDirectory(Path day) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(day)) {
+            for (Path file : files) {
+                if (stopping) {
+                    return;
+                }
+                throttle();
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(day);
+    }
+
+    private Path quarantineDir(LocalDate day) {
+        return mediaFileService.getUploadPath().resolve(QUARANTINE_DIR).resolve(day.toString());
+    }
+
+    private static List<Path> sortedShards(Path dir) throws IOException {
+        List<Path> shards = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return shards;
+        }
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(dir,
+                path -> Files.isDirectory(path) && SHARD.matcher(path.getFileName().toString()).matches())) {
+            children.forEach(shards::add);
+        }
+        shards.sort(null);
+        return shards;
+    }
+
+    private void throttle() {
+        long now = System.nanoTime();
+        if (nextSlot > now) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(nextSlot - now);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopping = true;
+            }
+        }
+        nextSlot = Math.max(nextSlot, now) + nanosPerFile;
+    }
+}
@@ -0,0 +1,80 @@
+package backend.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upload and serving meters for recipe media. Upload throughput is
+ * {@code media.upload.bytes} over {@code media.upload.duration}; both are
+ * tagged with the upload path (multipart or resumable).
+ */
+@Component
+public class MediaMetrics {
+
+    public static final String MULTIPART = "multipart";
+    public static final String RESUMABLE = "resumable";
+
+    public static final String TOO_LARGE = "too_large";
+    public static final String INVALID_TYPE = "invalid_type";
+    public static final String INVALID_EXISTING_MEDIA = "invalid_existing_media";
+    public static final String MEDIA_RULES = "media_rules";
+    public static final String INVALID_CONTENT = "invalid_content";
+    public static final String IO_ERROR = "io_error";
+
+    private final MeterRegistry meterRegistry;
+    private final Counter servedOriginal;
+    private final Counter servedDerivative;
+
+    public MediaMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.servedOriginal = servedCounter("original");
+        this.servedDerivative = servedCounter("derivative");
+    }
+
+    public void recordUpload(String source, long bytes, long nanos) {
+        DistributionSummary.builder("media.upload.bytes")
+                .description("Bytes received for media uploads")
+                .baseUnit("bytes")
+                .tag("source", source)
+                .register(meterRegistry)
+                .record(bytes);
+        Timer.builder("media.upload.duration")
+                .description("Time spent receiving and storing media bytes")
+                .tag("source", source)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRejection(String source, String reason) {
+        Counter.builder("media.upload.rejected")
+                .description("Media uploads refused, by reason")
+                .tag("source", source)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Reason tag for a failed {@link MediaUploadRules#checkFile} check.
+     */
+    public static String fileRejectionReason(long size) {
+        return size > MediaUploadRules.MAX_FILE_SIZE ? TOO_LARGE : INVALID_TYPE;
+    }
+
+    public void recordServed(boolean derivative, long bytes) {
+        (derivative ? servedDerivative : servedOriginal).increment(bytes);
+    }
+
+    private Counter servedCounter(String variant) {
+        return Counter.builder("media.bytes.served")
+                .description("Media body bytes sent to clients")
+                .baseUnit("bytes")
+                .tag("variant", variant)
+                .register(meterRegistry);
+    }
+}
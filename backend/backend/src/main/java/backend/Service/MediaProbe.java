@@ -0,0 +1,237 @@
+package backend.Service;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Works out what an uploaded file really is from its bytes rather than the
+ * client's {@code Content-Type} and {@code duration}.
+ * <p>
+ * Images are recognised by their magic bytes. MP4 and QuickTime files are
+ * read box by box with positional reads: top-level boxes are skipped by their
+ * size, so {@code mdat} is never touched, and only {@code moov} is loaded to
+ * take the duration from {@code mvhd} and the size and codec of the first
+ * video track. Nothing is decoded, so a probe costs a few small reads however
+ * large the file.
+ */
+@Component
+public class MediaProbe {
+
+    public enum Kind { IMAGE, VIDEO }
+
+    /**
+     * What a probe found. {@code durationMillis}, {@code width},
+     * {@code height} and {@code codec} are only set for videos.
+     */
+    public record MediaInfo(Kind kind, String format, Long durationMillis, Integer width, Integer height,
+                            String codec) {
+
+        public long durationSeconds() {
+            return durationMillis == null ? 0 : Math.round(durationMillis / 1000.0);
+        }
+    }
+
+    // A 30 second clip has a moov of a few tens of KB; anything far larger is not one of ours
+    private static final int MAX_MOOV_SIZE = 8 * 1024 * 1024;
+    private static final int MAX_TOP_LEVEL_BOXES = 64;
+    private static final Set<String> LEADING_BOXES = Set.of("ftyp", "moov", "mdat", "free", "skip", "wide", "pnot");
+    private static final Set<String> HEIF_BRANDS = Set.of("heic", "heix", "heim", "heis", "mif1", "msf1", "avif");
+
+    /**
+     * Identifies the file, or returns {@code null} when it is neither a known
+     * image format nor a readable MP4/QuickTime video.
+     */
+    public MediaInfo probe(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(32);
+            channel.read(head, 0);
+            head.flip();
+            String image = imageFormat(head);
+            if (image != null) {
+                return new MediaInfo(Kind.IMAGE, image, null, null, null, null);
+            }
+            if (head.remaining() < 8 || !LEADING_BOXES.contains(fourcc(head, 4))) {
+                return null;
+            }
+            return probeIsoMedia(channel);
+        }
+    }
+
+    private static String imageFormat(ByteBuffer head) {
+        int n = head.remaining();
+        if (n >= 3 && u8(head, 0) == 0xFF && u8(head, 1) == 0xD8 && u8(head, 2) == 0xFF) {
+            return "jpeg";
+        }
+        if (n >= 8 && head.getLong(0) == 0x89504E470D0A1A0AL) {
+            return "png";
+        }
+        if (n >= 6 && (ascii(head, 0, 6).equals("GIF87a") || ascii(head, 0, 6).equals("GIF89a"))) {
+            return "gif";
+        }
+        if (n >= 12 && ascii(head, 0, 4).equals("RIFF") && ascii(head, 8, 4).equals("WEBP")) {
+            return "webp";
+        }
+        // HEIF stills share the ISO box layout with MP4; the ftyp brand tells them apart
+        if (n >= 12 && ascii(head, 4, 4).equals("ftyp") && HEIF_BRANDS.contains(ascii(head, 8, 4))) {
+            return "heif";
+        }
+        return null;
+    }
+
+    private MediaInfo probeIsoMedia(FileChannel channel) throws IOException {
+        long fileSize = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(16);
+        for (int i = 0; i < MAX_TOP_LEVEL_BOXES && position + 8 <= fileSize; i++) {
+            header.clear();
+            if (channel.read(header, position) < 8) {
+                return null;
+            }
+            header.flip();
+            long size = Integer.toUnsignedLong(header.getInt(0));
+            String type = fourcc(header, 4);
+            int headerSize = 8;
+            if (size == 1) {
+                if (header.remaining() < 16) {
+                    return null;
+                }
+                size = header.getLong(8);
+                headerSize = 16;
+            } else if (size == 0) {
+                size = fileSize - position;
+            }
+            if (size < headerSize || position + size > fileSize) {
+                return null;
+            }
+            if (type.equals("moov")) {
+                if (size > MAX_MOOV_SIZE) {
+                    return null;
+                }
+                ByteBuffer moov = ByteBuffer.allocate((int) (size - headerSize));
+                while (moov.hasRemaining()) {
+                    if (channel.read(moov, position + headerSize + moov.position()) < 0) {
+                        return null;
+                    }
+                }
+                moov.flip();
+                return parseMoov(moov);
+            }
+            position += size;
+        }
+        return null;
+    }
+
+    private static MediaInfo parseMoov(ByteBuffer moov) {
+        ByteBuffer mvhd = child(moov, "mvhd");
+        if (mvhd == null || mvhd.remaining() < 20) {
+            return null;
+        }
+        long timescale;
+        long duration;
+        if (u8(mvhd, 0) == 1) {
+            if (mvhd.remaining() < 32) {
+                return null;
+            }
+            timescale = Integer.toUnsignedLong(mvhd.getInt(20));
+            duration = mvhd.getLong(24);
+        } else {
+            timescale = Integer.toUnsignedLong(mvhd.getInt(12));
+            duration = Integer.toUnsignedLong(mvhd.getInt(16));
+        }
+        // Fragmented files leave the duration at zero; without it the length cannot be checked
+        if (timescale == 0 || duration <= 0) {
+            return null;
+        }
+        long durationMillis = duration / timescale * 1000 + duration % timescale * 1000 / timescale;
+
+        for (ByteBuffer trak : children(moov, "trak")) {
+            ByteBuffer mdia = child(trak, "mdia");
+            ByteBuffer hdlr = mdia != null ? child(mdia, "hdlr") : null;
+            if (hdlr == null || hdlr.remaining() < 12 || !fourcc(hdlr, 8).equals("vide")) {
+                continue;
+            }
+            ByteBuffer minf = child(mdia, "minf");
+            ByteBuffer stbl = minf != null ? child(minf, "stbl") : null;
+            ByteBuffer stsd = stbl != null ? child(stbl, "stsd") : null;
+            String codec = null;
+            int width = 0;
+            int height = 0;
+            if (stsd != null && stsd.remaining() >= 16) {
+                codec = fourcc(stsd, 12);
+                // Visual sample entry: coded width and height follow 24 bytes of fixed fields
+                if (stsd.remaining() >= 8 + 36) {
+                    width = Short.toUnsignedInt(stsd.getShort(8 + 32));
+                    height = Short.toUnsignedInt(stsd.getShort(8 + 34));
+                }
+            }
+            ByteBuffer tkhd = child(trak, "tkhd");
+            if (tkhd != null && tkhd.remaining() >= 84) {
+                // Display size as 16.16 fixed point in the last eight bytes
+                int end = tkhd.remaining();
+                int displayWidth = tkhd.getInt(end - 8) >>> 16;
+                int displayHeight = tkhd.getInt(end - 4) >>> 16;
+                if (displayWidth > 0 && displayHeight > 0) {
+                    width = displayWidth;
+                    height = displayHeight;
+                }
+            }
+            return new MediaInfo(Kind.VIDEO, "mp4", durationMillis, width, height, codec);
+        }
+        return null;
+    }
+
+    /**
+     * Payload of the first direct child box of {@code type}, or {@code null}.
+     */
+    private static ByteBuffer child(ByteBuffer parent, String type) {
+        for (int position = 0; position + 8 <= parent.limit(); ) {
+            long size = Integer.toUnsignedLong(parent.getInt(position));
+            if (size < 8 || position + size > parent.limit()) {
+                return null;
+            }
+            if (fourcc(parent, position + 4).equals(type)) {
+                return parent.slice(position + 8, (int) size - 8);
+            }
+            position += (int) size;
+        }
+        return null;
+    }
+
+    private static List<ByteBuffer> children(ByteBuffer parent, String type) {
+        List<ByteBuffer> boxes = new ArrayList<>();
+        for (int position = 0; position + 8 <= parent.limit(); ) {
+            long size = Integer.toUnsignedLong(parent.getInt(position));
+            if (size < 8 || position + size > parent.limit()) {
+                break;
+            }
+            if (fourcc(parent, position + 4).equals(type)) {
+                boxes.add(parent.slice(position + 8, (int) size - 8));
+            }
+            position += (int) size;
+        }
+        return boxes;
+    }
+
+    private static String fourcc(ByteBuffer buffer, int index) {
+        return ascii(buffer, index, 4);
+    }
+
+    private static String ascii(ByteBuffer buffer, int index, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(index, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private static int u8(ByteBuffer buffer, int index) {
+        return buffer.get(index) & 0xFF;
+    }
+}
@@ -0,0 +1,135 @@
+package backend.Service;
+
+import backend.Model.ManageRecipeModel.MediaItem;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The photo/video rules for recipe media, shared by the single-request upload
+ * and the resumable upload sessions. Check methods return an error message,
+ * or {@code null} when the media is acceptable.
+ */
+@Component
+public class MediaUploadRules {
+
+    public static final long MAX_FILE_SIZE = 50L * 1024 * 1024;
+    public static final long MAX_VIDEO_DURATION = 30; // maximum video duration in seconds
+    public static final int MAX_PHOTO_COUNT = 3; // maximum number of photos per recipe
+
+    private final ObjectMapper objectMapper;
+    private final JavaType mediaListType;
+
+    public MediaUploadRules(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.mediaListType = objectMapper.getTypeFactory().constructCollectionType(List.class, MediaItem.class);
+    }
+
+    public List<MediaItem> parseExistingMedia(String existingMediaJson) throws JsonProcessingException {
+        if (existingMediaJson == null || existingMediaJson.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return objectMapper.readValue(existingMediaJson, mediaListType);
+    }
+
+    public boolean isValidMediaType(String contentType, String type) {
+        if (contentType == null) return false;
+        if ("photo".equals(type)) {
+            return contentType.startsWith("image/");
+        } else if ("video".equals(type)) {
+            return contentType.startsWith("video/");
+        }
+        return false;
+    }
+
+    public String checkFile(long size, String contentType, String type) {
+        // Validate file size (max 50MB)
+        if (size > MAX_FILE_SIZE) {
+            return "File size must be less than 50MB";
+        }
+
+        // Validate file type
+        if (!isValidMediaType(contentType, type)) {
+            return "Invalid file type. Allowed types: image/*, video/*";
+        }
+        return null;
+    }
+
+    /**
+     * Checks what the file actually contains, as found by {@link MediaProbe},
+     * against the declared type and the video length limit.
+     */
+    public String checkContent(String type, MediaProbe.MediaInfo info) {
+        if (info == null) {
+            return "Unrecognised media file. Allowed formats: JPEG, PNG, GIF, WebP, HEIF, MP4, MOV";
+        }
+        if ("photo".equals(type)) {
+            return info.kind() == MediaProbe.Kind.IMAGE ? null : "File is not an image";
+        }
+        if (info.kind() != MediaProbe.Kind.VIDEO) {
+            return "File is not a video";
+        }
+        if (info.durationSeconds() > MAX_VIDEO_DURATION) {
+            return "Video duration must be 30 seconds or less";
+        }
+        return null;
+    }
+
+    public String checkAgainstExisting(String type, Long duration, List<MediaItem> currentMedia) {
+        // Check existing media items
+        if ("video".equals(type)) {
+            // If trying to upload a video, check if photos exist
+            if (currentMedia.stream().anyMatch(item -> "photo".equals(item.getType()))) {
+                return "Cannot add video when photos exist. Please remove photos first.";
+            }
+
+            // Check if video already exists
+            if (currentMedia.stream().anyMatch(item -> "video".equals(item.getType()))) {
+                return "Only one video is allowed per recipe";
+            }
+
+            // Check video duration
+            if (duration == null || duration > MAX_VIDEO_DURATION) {
+                return "Video duration must be 30 seconds or less";
+            }
+        } else {
+            // If trying to upload a photo, check if video exists or photo limit reached
+            if (currentMedia.stream().anyMatch(item -> "video".equals(item.getType()))) {
+                return "Cannot add photos when video exists. Please remove video first.";
+            }
+
+            long photoCount = currentMedia.stream()
+                .filter(item -> "photo".equals(item.getType()))
+                .count();
+            if (photoCount >= MAX_PHOTO_COUNT) {
+                return "Maximum 3 photos allowed";
+            }
+        }
+        return null;
+    }
+
+    public boolean validateMediaRequirements(List<MediaItem> mediaItems) {
+        if (mediaItems == null || mediaItems.isEmpty()) {
+            return false;
+        }
+
+        long videoCount = mediaItems.stream()
+            .filter(item -> "video".equals(item.getType()))
+            .count();
+
+        long photoCount = mediaItems.stream()
+            .filter(item -> "photo".equals(item.getType()))
+            .count();
+
+        // Either one video OR up to 3 photos, but not both
+        if (videoCount > 0) {
+            return videoCount == 1 && photoCount == 0;
+        } else {
+            return photoCount > 0 && photoCount <= MAX_PHOTO_COUNT;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package backend.Service;
+
+import backend.Model.ManageRecipeModel;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * "What can I cook": ranks recipes by how much of their ingredient list a
+ * user already has.
+ * <p>
+ * Each recipe's ingredients are a compressed bitset over dictionary ids,
+ * kept as the non-zero 64-bit words and their word indexes. The pantry is a
+ * plain bitset, so matched and missing counts are popcounts of AND and
+ * ANDNOT over a handful of words. Large catalogs are scanned in parallel
+ * chunks, each keeping its own top results.
+ */
+@Service
+public class PantryMatcher implements RecipeIndex {
+
+    private static final int PARALLEL_THRESHOLD = 20_000;
+    private static final int CHUNK_SIZE = 8_192;
+
+    public record PantryMatch(Long recipeId, int matched, int missing, double coverage, List<String> missingIngredients) {
+    }
+
+    private final IngredientDictionary dictionary;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> ordinalsById = new HashMap<>();
+    private final BitSet tombstones = new BitSet();
+    private long[] recipeIds = new long[1024];
+    private int[][] wordIndexes = new int[1024][];
+    private long[][] words = new long[1024][];
+    private int[] ingredientCounts = new int[1024];
+    private int ordinalCount;
+
+    public PantryMatcher(IngredientDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ordinalsById.clear();
+            tombstones.clear();
+            recipeIds = new long[1024];
+            wordIndexes = new int[1024][];
+            words = new long[1024][];
+            ingredientCounts = new int[1024];
+            ordinalCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void addAll(List<ManageRecipeModel> recipes) {
+        lock.writeLock().lock();
+        try {
+            recipes.forEach(this::index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(ManageRecipeModel recipe) {
+        lock.writeLock().lock();
+        try {
+            index(recipe);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long recipeId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinalsById.remove(recipeId);
+            if (ordinal != null) {
+                tombstones.set(ordinal);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recipes that share at least one ingredient with the pantry and miss at
+     * most {@code maxMissing}, best coverage first.
+     */
+    public List<PantryMatch> match(List<String> pantryIngredients, int maxMissing, int limit) {
+        lock.readLock().lock();
+        try {
+            // The dictionary is guarded by this index's lock
+            long[] pantry = new long[dictionary.size() / 64 + 1];
+            for (String ingredient : pantryIngredients) {
+                int id = dictionary.lookup(ingredient);
+                if (id >= 0) {
+                    pantry[id >>> 6] |= 1L << id;
+                }
+            }
+
+            List<Candidate> top;
+            if (ordinalCount < PARALLEL_THRESHOLD) {
+                top = scan(pantry, 0, ordinalCount, maxMissing, limit);
+            } else {
+                int chunks = (ordinalCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+                top = IntStream.range(0, chunks).parallel()
+                        .mapToObj(chunk -> scan(pantry, chunk * CHUNK_SIZE,
+                                Math.min(ordinalCount, (chunk + 1) * CHUNK_SIZE), maxMissing, limit))
+                        .flatMap(List::stream)
+                        .sorted(BEST_FIRST)
+                        .limit(limit)
+                        .toList();
+            }
+
+            List<PantryMatch> matches = new ArrayList<>(top.size());
+            for (Candidate candidate : top) {
+                int total = ingredientCounts[candidate.ordinal];
+                matches.add(new PantryMatch(recipeIds[candidate.ordinal], candidate.matched, candidate.missing,
+                        total == 0 ? 0 : candidate.matched / (double) total,
+                        missingNames(candidate.ordinal, pantry)));
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private record Candidate(int ordinal, int matched, int missing, double coverage) {
+    }
+
+    private static final Comparator<Candidate> BEST_FIRST = Comparator
+            .comparingDouble(Candidate::coverage).reversed()
+            .thenComparingInt(Candidate::missing)
+            .thenComparing(Comparator.comparingInt(Candidate::matched).reversed());
+
+    private List<Candidate> scan(long[] pantry, int from, int to, int maxMissing, int limit) {
+        PriorityQueue<Candidate> top = new PriorityQueue<>(limit + 1, BEST_FIRST.reversed());
+        for (int ordinal = from; ordinal < to; ordinal++) {
+            if (tombstones.get(ordinal) || ingredientCounts[ordinal] == 0) {
+                continue;
+            }
+            int[] indexes = wordIndexes[ordinal];
+            long[] bits = words[ordinal];
+            int matched = 0;
+            int missing = 0;
+            for (int i = 0; i < indexes.length; i++) {
+                long have = indexes[i] < pantry.length ? pantry[indexes[i]] : 0L;
+                matched += Long.bitCount(bits[i] & have);
+                missing += Long.bitCount(bits[i] & ~have);
+            }
+            if (matched == 0 || missing > maxMissing) {
+                continue;
+            }
+            top.offer(new Candidate(ordinal, matched, missing, matched / (double) ingredientCounts[ordinal]));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Candidate> result = new ArrayList<>(top);
+        result.sort(BEST_FIRST);
+        return result;
+    }
+
+    private List<String> missingNames(int ordinal, long[] pantry) {
+        List<String> names = new ArrayList<>();
+        int[] indexes = wordIndexes[ordinal];
+        long[] bits = words[ordinal];
+        for (int i = 0; i < indexes.length; i++) {
+            long have = indexes[i] < pantry.length ? pantry[indexes[i]] : 0L;
+            long absent = bits[i] & ~have;
+            while (absent != 0) {
+                int bit = Long.numberOfTrailingZeros(absent);
+                names.add(dictionary.name(indexes[i] * 64 + bit));
+                absent &= absent - 1;
+            }
+        }
+        return names;
+    }
+
+    private void index(ManageRecipeModel recipe) {
+        if (recipe == null || recipe.getId() == null) {
+            return;
+        }
+        Integer previous = ordinalsById.remove(recipe.getId());
+        if (previous != null) {
+            tombstones.set(previous);
+        }
+
+        // Group ingredient ids by 64-bit word, keeping only the non-zero words
+        TreeMap<Integer, Long> wordsByIndex = new TreeMap<>();
+        if (recipe.getIngredients() != null) {
+            for (String ingredient : recipe.getIngredients()) {
+                int id = dictionary.register(ingredient);
+                if (id >= 0) {
+                    wordsByIndex.merge(id >>> 6, 1L << id, (a, b) -> a | b);
+                }
+            }
+        }
+        int[] indexes = new int[wordsByIndex.size()];
+        long[] bits = new long[wordsByIndex.size()];
+        int i = 0;
+        int count = 0;
+        for (Map.Entry<Integer, Long> entry : wordsByIndex.entrySet()) {
+            indexes[i] = entry.getKey();
+            bits[i] = entry.getValue();
+            count += Long.bitCount(bits[i]);
+            i++;
+        }
+
+        int ordinal = ordinalCount++;
+        if (ordinal == recipeIds.length) {
+            int capacity = ordinal * 2;
+            recipeIds = Arrays.copyOf(recipeIds, capacity);
+            wordIndexes = Arrays.copyOf(wordIndexes, capacity);
+            words = Arrays.copyOf(words, capacity);
+            ingredientCounts = Arrays.copyOf(ingredientCounts, capacity);
+        }
+        recipeIds[ordinal] = recipe.getId();
+        wordIndexes[ordinal] = indexes;
+        words[ordinal] = bits;
+        ingredientCounts[ordinal] = count;
+        ordinalsById.put(recipe.getId(), ordinal);
+    }
+
+    private void compactIfNeeded() {
+        int dead = tombstones.cardinality();
+        if (dead < 1000 || dead * 5 < ordinalCount) {
+            return;
+        }
+        int next = 0;
+        for (int ordinal = 0; ordinal < ordinalCount; ordinal++) {
+            if (tombstones.get(ordinal)) {
+                continue;
+            }
+            recipeIds[next] = recipeIds[ordinal];
+            wordIndexes[next] = wordIndexes[ordinal];
+            words[next] = words[ordinal];
+            ingredientCounts[next] = ingredientCounts[ordinal];
+            ordinalsById.put(recipeIds[next], next);
+            next++;
+        }
+        Arrays.fill(wordIndexes, next, ordinalCount, null);
+        Arrays.fill(words, next, ordinalCount, null);
+        ordinalCount = next;
+        tombstones.clear();
+    }
+}
@@ -0,0 +1,34 @@
+package backend.Service;
+
+import backend.Model.ManageRecipeModel;
+
+import java.util.List;
+
+/**
+ * An in-memory structure derived from the recipe table. {@link RecipeIndexLoader}
+ * fills every index in one streaming pass at startup and keeps them current
+ * as recipes are written.
+ */
+public interface RecipeIndex {
+
+    /**
+     * Drops all content before a full rebuild.
+     */
+    void clear();
+
+    /**
+     * Adds one page of recipes during a rebuild. Element collections are
+     * already loaded.
+     */
+    void addAll(List<ManageRecipeModel> recipes);
+
+    /**
+     * Called once a rebuild has seen every recipe.
+     */
+    default void rebuildFinished() {
+    }
+
+    void upsert(ManageRecipeModel recipe);
+
+    void remove(Long recipeId);
+}
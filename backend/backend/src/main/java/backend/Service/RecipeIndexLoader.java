@@ -0,0 +1,156 @@
+package backend.Service;
+
+import backend.Event.ChangeType;
+import backend.Event.RecipeChangedEvent;
+import backend.Model.ManageRecipeModel;
+import backend.Repository.ManageRecipeRepository;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Feeds every {@link RecipeIndex}: a keyset-paged pass over the recipe table
+ * after startup, then incremental updates from {@link RecipeChangedEvent}s.
+ * Each page is read in its own short transaction and released afterwards,
+ * so the rebuild never holds more than one page of entities.
+ * <p>
+ * A page can be older than the changes handled while it was being read,
+ * more so when it comes from a lagging replica. Recipes changed during a
+ * rebuild are therefore left out of the pages added after the change, so a
+ * stale row never overwrites an update or brings back a deleted recipe.
+ * <p>
+ * Until a rebuild completes the indexes are partial and {@link #isReady()}
+ * is false. A failed startup rebuild is retried after a delay.
+ */
+@Component
+public class RecipeIndexLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(RecipeIndexLoader.class);
+
+    private static final int PAGE_SIZE = 500;
+
+    private final List<RecipeIndex> indexes;
+    private final ManageRecipeRepository manageRecipeRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration retryDelay;
+    private volatile boolean ready;
+
+    // Orders page adds against change events; changedDuringRebuild is null outside a rebuild
+    private final Object indexLock = new Object();
+    private Set<Long> changedDuringRebuild;
+
+    public RecipeIndexLoader(List<RecipeIndex> indexes,
+                             ManageRecipeRepository manageRecipeRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${recipe-index.rebuild-retry-delay:30s}") Duration retryDelay) {
+        this.indexes = indexes;
+        this.retryDelay = retryDelay;
+        this.manageRecipeRepository = manageRecipeRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        Thread thread = new Thread(this::rebuildUntilReady, "recipe-index-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void rebuildUntilReady() {
+        while (true) {
+            try {
+                rebuild();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Recipe index rebuild failed, retrying in {}", retryDelay, e);
+            }
+            try {
+                Thread.sleep(retryDelay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    public void rebuild() {
+        ready = false;
+        boolean complete = false;
+        try {
+            synchronized (indexLock) {
+                changedDuringRebuild = new HashSet<>();
+                indexes.forEach(RecipeIndex::clear);
+            }
+            long after = 0;
+            while (true) {
+                List<ManageRecipeModel> page = loadPage(after);
+                if (page.isEmpty()) {
+                    break;
+                }
+                synchronized (indexLock) {
+                    List<ManageRecipeModel> unchanged = page.stream()
+                            .filter(recipe -> !changedDuringRebuild.contains(recipe.getId()))
+                            .toList();
+                    for (RecipeIndex index : indexes) {
+                        index.addAll(unchanged);
+                    }
+                }
+                after = page.get(page.size() - 1).getId();
+            }
+            complete = true;
+        } finally {
+            // Also after a failure, so the indexes leave rebuild mode and keep taking updates
+            synchronized (indexLock) {
+                changedDuringRebuild = null;
+                indexes.forEach(RecipeIndex::rebuildFinished);
+            }
+            ready = complete;
+        }
+    }
+
+    private List<ManageRecipeModel> loadPage(long after) {
+        return readOnlyTransaction.execute(status -> {
+            List<ManageRecipeModel> recipes = manageRecipeRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(PAGE_SIZE));
+            for (ManageRecipeModel recipe : recipes) {
+                // Batch fetching loads these for many recipes per query
+                Hibernate.initialize(recipe.getIngredients());
+                Hibernate.initialize(recipe.getInstructions());
+                Hibernate.initialize(recipe.getMediaItems());
+            }
+            return recipes;
+        });
+    }
+
+    @EventListener
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        synchronized (indexLock) {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(event.recipeId());
+            }
+            for (RecipeIndex index : indexes) {
+                if (event.type() == ChangeType.DELETED) {
+                    index.remove(event.recipeId());
+                } else {
+                    index.upsert(event.recipe());
+                }
+            }
+        }
+    }
+}
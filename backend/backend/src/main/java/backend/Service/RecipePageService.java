@@ -0,0 +1,137 @@
+package backend.Service;
+
+import backend.Model.ChallengeModel;
+import backend.Model.ManageRecipeModel;
+import backend.Model.PlaningModel;
+import backend.Repository.ChallengeRepository;
+import backend.Repository.PlaningRepository;
+import backend.config.DataSourceRouting;
+import jakarta.annotation.PreDestroy;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Everything the recipe page shows, in one call: the recipe, unfinished
+ * challenges in its category and the plans that use it.
+ * <p>
+ * The three lookups are independent, so each runs on its own virtual thread
+ * and the page costs the slowest of them rather than their sum. Every branch
+ * has the same deadline, counted from when it was forked. Branches still
+ * running when the page is done, or when the recipe fails, are cancelled.
+ * This is the shape of a structured task scope, built on a plain executor
+ * because {@code StructuredTaskScope} is still a preview API on Java 21. The
+ * recipe is required; the related lists are left empty and named in
+ * {@code partial} when they time out or fail.
+ */
+@Service
+public class RecipePageService {
+
+    private static final int RELATED_LIMIT = 10;
+    private static final int PLAN_LIMIT = 20;
+
+    public record RecipePage(ManageRecipeModel recipe, List<ChallengeModel> relatedChallenges,
+                             List<PlaningModel> plans, List<String> partial) {
+    }
+
+    private final EntityLookupService entityLookupService;
+    private final ChallengeRepository challengeRepository;
+    private final PlaningRepository planingRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long branchTimeoutNanos;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public RecipePageService(EntityLookupService entityLookupService,
+                             ChallengeRepository challengeRepository,
+                             PlaningRepository planingRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${recipe.page.branch-timeout:2s}") Duration branchTimeout) {
+        this.entityLookupService = entityLookupService;
+        this.challengeRepository = challengeRepository;
+        this.planingRepository = planingRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.branchTimeoutNanos = branchTimeout.toNanos();
+    }
+
+    /**
+     * @throws backend.Exception.RecipeNotFoundException when there is no such recipe
+     * @throws TimeoutException when the recipe itself could not be loaded in time
+     */
+    public RecipePage page(Long id) throws TimeoutException {
+        long deadline = System.nanoTime() + branchTimeoutNanos;
+        // Each branch keeps the request's replica routing (read-your-writes pinning included)
+        Future<ManageRecipeModel> recipe = executor.submit(DataSourceRouting.propagate(
+                () -> entityLookupService.findRecipe(id)));
+        Future<List<ChallengeModel>> challenges = executor.submit(DataSourceRouting.propagate(() ->
+                challengeRepository.findCurrentInRecipeCategory(id, LocalDate.now(), Limit.of(RELATED_LIMIT))));
+        Future<List<PlaningModel>> plans = executor.submit(DataSourceRouting.propagate(() -> plansUsing(id)));
+        try {
+            ManageRecipeModel loaded = await(recipe, deadline);
+            List<String> partial = new ArrayList<>();
+            return new RecipePage(loaded,
+                    awaitOptional(challenges, deadline, "relatedChallenges", partial),
+                    awaitOptional(plans, deadline, "plans", partial),
+                    partial);
+        } finally {
+            recipe.cancel(true);
+            challenges.cancel(true);
+            plans.cancel(true);
+        }
+    }
+
+    private List<PlaningModel> plansUsing(Long recipeId) {
+        return readOnlyTransaction.execute(status -> {
+            List<Long> ids = planingRepository.findIdsByRecipeId(recipeId);
+            List<PlaningModel> plans = planingRepository.findAllById(ids.subList(0, Math.min(ids.size(), PLAN_LIMIT)));
+            for (PlaningModel plan : plans) {
+                Hibernate.initialize(plan.getMeals());
+                Hibernate.initialize(plan.getRecipeIds());
+            }
+            return plans;
+        });
+    }
+
+    private static <T> T await(Future<T> branch, long deadline) throws TimeoutException {
+        try {
+            return branch.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("Interrupted while loading the recipe page");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static <T> List<T> awaitOptional(Future<List<T>> branch, long deadline, String name, List<String> partial) {
+        try {
+            List<T> result = await(branch, deadline);
+            return result != null ? result : List.of();
+        } catch (TimeoutException | RuntimeException e) {
+            partial.add(name);
+            return List.of();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
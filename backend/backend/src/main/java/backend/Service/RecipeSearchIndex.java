@@ -0,0 +1,270 @@
+package backend.Service;
+
+import backend.Model.ManageRecipeModel;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over recipe name, description, category and
+ * ingredients, scored with BM25.
+ * <p>
+ * Every indexed recipe version gets the next dense ordinal, so postings are
+ * always appended in ordinal order and can be stored as (gap, term frequency)
+ * pairs in a growable int array. Updates and deletes tombstone the old ordinal;
+ * the postings are compacted once tombstones make up a fifth of the index.
+ */
+@Service
+public class RecipeSearchIndex implements RecipeIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    // Field weights are applied as term-frequency multipliers
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int INGREDIENT_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final int MIN_COMPACTION_TOMBSTONES = 1000;
+
+    public record SearchHit(Long recipeId, float score) {
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> ordinalsById = new HashMap<>();
+    private final BitSet tombstones = new BitSet();
+    private long[] recipeIds = new long[1024];
+    private int[] docLengths = new int[1024];
+    private int ordinalCount;
+    private long liveLengthTotal;
+
+    /**
+     * Postings of one term: (ordinal gap, weighted tf) pairs.
+     */
+    static final class Postings {
+        int[] data = new int[4];
+        int size;
+        int lastOrdinal = -1;
+
+        void add(int ordinal, int tf) {
+            if (size + 2 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            data[size++] = ordinal - lastOrdinal;
+            data[size++] = tf;
+            lastOrdinal = ordinal;
+        }
+
+        int docFrequency() {
+            return size / 2;
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            ordinalsById.clear();
+            tombstones.clear();
+            recipeIds = new long[1024];
+            docLengths = new int[1024];
+            ordinalCount = 0;
+            liveLengthTotal = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void addAll(List<ManageRecipeModel> recipes) {
+        lock.writeLock().lock();
+        try {
+            for (ManageRecipeModel recipe : recipes) {
+                index(recipe);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(ManageRecipeModel recipe) {
+        lock.writeLock().lock();
+        try {
+            index(recipe);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long recipeId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinalsById.remove(recipeId);
+            if (ordinal != null) {
+                tombstone(ordinal);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinalsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<SearchHit> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(TextAnalyzer.analyze(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            int liveDocs = ordinalsById.size();
+            if (liveDocs == 0) {
+                return List.of();
+            }
+            float averageLength = (float) liveLengthTotal / liveDocs;
+            Map<Integer, Float> scores = new HashMap<>();
+            for (String term : terms) {
+                Postings termPostings = postings.get(term);
+                if (termPostings == null) {
+                    continue;
+                }
+                // Tombstoned postings still count towards df until the next compaction
+                int df = termPostings.docFrequency();
+                float idf = (float) Math.log(1 + (ordinalCount - df + 0.5) / (df + 0.5));
+                int ordinal = -1;
+                for (int i = 0; i < termPostings.size; i += 2) {
+                    ordinal += termPostings.data[i];
+                    if (tombstones.get(ordinal)) {
+                        continue;
+                    }
+                    int tf = termPostings.data[i + 1];
+                    float norm = K1 * (1 - B + B * docLengths[ordinal] / averageLength);
+                    float score = idf * tf * (K1 + 1) / (tf + norm);
+                    scores.merge(ordinal, score, Float::sum);
+                }
+            }
+
+            PriorityQueue<SearchHit> top = new PriorityQueue<>(limit + 1,
+                    (a, b) -> Float.compare(a.score(), b.score()));
+            for (Map.Entry<Integer, Float> entry : scores.entrySet()) {
+                top.offer(new SearchHit(recipeIds[entry.getKey()], entry.getValue()));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<SearchHit> hits = new ArrayList<>(top);
+            hits.sort((a, b) -> Float.compare(b.score(), a.score()));
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(ManageRecipeModel recipe) {
+        if (recipe == null || recipe.getId() == null) {
+            return;
+        }
+        Integer previous = ordinalsById.remove(recipe.getId());
+        if (previous != null) {
+            tombstone(previous);
+        }
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        addTerms(frequencies, recipe.getRecipeName(), NAME_WEIGHT);
+        addTerms(frequencies, recipe.getCategory(), CATEGORY_WEIGHT);
+        addTerms(frequencies, recipe.getRecipeDescription(), DESCRIPTION_WEIGHT);
+        if (recipe.getIngredients() != null) {
+            for (String ingredient : recipe.getIngredients()) {
+                addTerms(frequencies, ingredient, INGREDIENT_WEIGHT);
+            }
+        }
+
+        int ordinal = ordinalCount++;
+        if (ordinal == recipeIds.length) {
+            recipeIds = Arrays.copyOf(recipeIds, ordinal * 2);
+            docLengths = Arrays.copyOf(docLengths, ordinal * 2);
+        }
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), key -> new Postings()).add(ordinal, entry.getValue());
+            length += entry.getValue();
+        }
+        recipeIds[ordinal] = recipe.getId();
+        docLengths[ordinal] = length;
+        liveLengthTotal += length;
+        ordinalsById.put(recipe.getId(), ordinal);
+    }
+
+    private static void addTerms(Map<String, Integer> frequencies, String text, int weight) {
+        for (String term : TextAnalyzer.analyze(text)) {
+            frequencies.merge(term, weight, Integer::sum);
+        }
+    }
+
+    private void tombstone(int ordinal) {
+        tombstones.set(ordinal);
+        liveLengthTotal -= docLengths[ordinal];
+    }
+
+    private void compactIfNeeded() {
+        int dead = tombstones.cardinality();
+        if (dead < MIN_COMPACTION_TOMBSTONES || dead * 5 < ordinalCount) {
+            return;
+        }
+        // Renumber the live ordinals densely and rewrite every posting list
+        int[] remap = new int[ordinalCount];
+        int next = 0;
+        for (int ordinal = 0; ordinal < ordinalCount; ordinal++) {
+            remap[ordinal] = tombstones.get(ordinal) ? -1 : next++;
+        }
+        long[] newRecipeIds = new long[Math.max(1024, next * 2)];
+        int[] newDocLengths = new int[newRecipeIds.length];
+        for (int ordinal = 0; ordinal < ordinalCount; ordinal++) {
+            if (remap[ordinal] >= 0) {
+                newRecipeIds[remap[ordinal]] = recipeIds[ordinal];
+                newDocLengths[remap[ordinal]] = docLengths[ordinal];
+            }
+        }
+        postings.entrySet().removeIf(entry -> {
+            Postings old = entry.getValue();
+            Postings rewritten = new Postings();
+            int ordinal = -1;
+            for (int i = 0; i < old.size; i += 2) {
+                ordinal += old.data[i];
+                if (remap[ordinal] >= 0) {
+                    rewritten.add(remap[ordinal], old.data[i + 1]);
+                }
+            }
+            entry.setValue(rewritten);
+            return rewritten.size == 0;
+        });
+        ordinalsById.replaceAll((id, ordinal) -> remap[ordinal]);
+        recipeIds = newRecipeIds;
+        docLengths = newDocLengths;
+        ordinalCount = next;
+        tombstones.clear();
+    }
+}
@@ -0,0 +1,389 @@
+package backend.Service;
+
+import backend.Model.ManageRecipeModel;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * "Similar recipes": nearest neighbours by Jaccard similarity of a recipe's
+ * normalized ingredients plus its category and difficulty level.
+ * <p>
+ * Each recipe gets a MinHash signature of {@value #BANDS} bands of
+ * {@value #ROWS} rows, and each band is hashed into a shared bucket table
+ * (locality-sensitive hashing). Recipes that share any band bucket are
+ * candidates, and only those are scored by exact Jaccard over their feature
+ * sets. A pair with similarity {@code s} becomes a candidate with probability
+ * {@code 1 - (1 - s^3)^20}: about 1.0 at 0.7, 0.93 at 0.5 and 0.42 at 0.3.
+ * <p>
+ * Storage follows {@link PantryMatcher}: dense ordinals, tombstones for
+ * replaced and deleted recipes, and compaction once they pile up. Band
+ * buckets are chains through a flat posting array, about 400 bytes per
+ * recipe in all. During a startup rebuild only the feature sets are
+ * recorded; the signatures are computed on the fork/join pool when the
+ * rebuild finishes.
+ */
+@Service
+public class RecipeSimilarityIndex implements RecipeIndex {
+
+    static final int BANDS = 20;
+    static final int ROWS = 3;
+    private static final int HASHES = BANDS * ROWS;
+
+    // Bounds the exact scoring when many recipes share a bucket, e.g. ones made of staples
+    private static final int MAX_CANDIDATES_PER_BAND = 500;
+    private static final int SIGN_CHUNK = 4_096;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final long[] MULTIPLIERS = new long[HASHES];
+    private static final long[] OFFSETS = new long[HASHES];
+
+    static {
+        // Fixed seed, so signatures are the same on every instance and run
+        SplittableRandom random = new SplittableRandom(0x5EEDL);
+        for (int i = 0; i < HASHES; i++) {
+            MULTIPLIERS[i] = random.nextLong() | 1;
+            OFFSETS[i] = random.nextLong();
+        }
+    }
+
+    public record SimilarRecipe(Long recipeId, double similarity) {
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> ordinalsById = new HashMap<>();
+    private final BitSet tombstones = new BitSet();
+    // Added during a rebuild; signed and linked when it finishes
+    private final BitSet unsigned = new BitSet();
+    private long[] recipeIds = new long[INITIAL_CAPACITY];
+    private int[][] features = new int[INITIAL_CAPACITY][];
+    // Posting p = ordinal * BANDS + band: that band's key, and the next posting in its bucket
+    private int[] bandKeys = new int[INITIAL_CAPACITY * BANDS];
+    private int[] next = new int[INITIAL_CAPACITY * BANDS];
+    private int[] heads = emptyHeads(INITIAL_CAPACITY);
+    private int ordinalCount;
+    private boolean rebuilding;
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ordinalsById.clear();
+            tombstones.clear();
+            unsigned.clear();
+            recipeIds = new long[INITIAL_CAPACITY];
+            features = new int[INITIAL_CAPACITY][];
+            bandKeys = new int[INITIAL_CAPACITY * BANDS];
+            next = new int[INITIAL_CAPACITY * BANDS];
+            heads = emptyHeads(INITIAL_CAPACITY);
+            ordinalCount = 0;
+            rebuilding = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void addAll(List<ManageRecipeModel> recipes) {
+        // Normalizing ingredient lines is the costly part, so it runs outside the lock
+        List<int[]> featureSets = recipes.parallelStream().map(RecipeSimilarityIndex::features).toList();
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < recipes.size(); i++) {
+                add(recipes.get(i), featureSets.get(i), !rebuilding);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void rebuildFinished() {
+        lock.writeLock().lock();
+        try {
+            int[] ordinals = unsigned.stream().filter(ordinal -> !tombstones.get(ordinal)).toArray();
+            ForkJoinPool.commonPool().invoke(new SignTask(ordinals, 0, ordinals.length));
+            for (int ordinal : ordinals) {
+                link(ordinal);
+            }
+            unsigned.clear();
+            rebuilding = false;
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(ManageRecipeModel recipe) {
+        int[] featureSet = features(recipe);
+        lock.writeLock().lock();
+        try {
+            add(recipe, featureSet, true);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long recipeId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinalsById.remove(recipeId);
+            if (ordinal != null) {
+                tombstones.set(ordinal);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} other recipes most similar to {@code recipe}, most
+     * similar first. The recipe does not need to be indexed itself.
+     */
+    public List<SimilarRecipe> similar(ManageRecipeModel recipe, int limit) {
+        int[] query = features(recipe);
+        if (query.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        int[] keys = new int[BANDS];
+        sign(query, keys, 0);
+        long self = recipe.getId() != null ? recipe.getId() : Long.MIN_VALUE;
+
+        lock.readLock().lock();
+        try {
+            PriorityQueue<SimilarRecipe> top = new PriorityQueue<>(limit + 1,
+                    Comparator.comparingDouble(SimilarRecipe::similarity));
+            Set<Integer> seen = new HashSet<>();
+            for (int band = 0; band < BANDS; band++) {
+                int scored = 0;
+                for (int posting = heads[slot(band, keys[band])]; posting >= 0; posting = next[posting]) {
+                    if (posting % BANDS != band || bandKeys[posting] != keys[band]) {
+                        continue;
+                    }
+                    int ordinal = posting / BANDS;
+                    if (tombstones.get(ordinal) || recipeIds[ordinal] == self || !seen.add(ordinal)) {
+                        continue;
+                    }
+                    top.offer(new SimilarRecipe(recipeIds[ordinal], jaccard(query, features[ordinal])));
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                    if (++scored >= MAX_CANDIDATES_PER_BAND) {
+                        break;
+                    }
+                }
+            }
+            List<SimilarRecipe> result = new ArrayList<>(top);
+            result.sort(Comparator.comparingDouble(SimilarRecipe::similarity).reversed()
+                    .thenComparing(SimilarRecipe::recipeId));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sorted, distinct hashes of the recipe's normalized ingredients,
+     * category and difficulty level.
+     */
+    public static int[] features(ManageRecipeModel recipe) {
+        if (recipe == null) {
+            return new int[0];
+        }
+        Set<String> terms = new HashSet<>();
+        if (recipe.getIngredients() != null) {
+            for (String line : recipe.getIngredients()) {
+                String name = IngredientDictionary.normalize(line);
+                if (!name.isEmpty()) {
+                    terms.add(name);
+                }
+            }
+        }
+        if (recipe.getCategory() != null && !recipe.getCategory().isBlank()) {
+            terms.add("category:" + recipe.getCategory().trim().toLowerCase(Locale.ROOT));
+        }
+        if (recipe.getDifficultyLevel() != null && !recipe.getDifficultyLevel().isBlank()) {
+            terms.add("difficulty:" + recipe.getDifficultyLevel().trim().toLowerCase(Locale.ROOT));
+        }
+        return terms.stream().mapToInt(term -> mix(term.hashCode())).distinct().sorted().toArray();
+    }
+
+    // Exact similarity of two feature sets from features()
+    public static double jaccard(int[] a, int[] b) {
+        int i = 0;
+        int j = 0;
+        int shared = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        int union = a.length + b.length - shared;
+        return union == 0 ? 0 : shared / (double) union;
+    }
+
+    // MinHash over the features, ROWS minimums folded into each band's key
+    private static void sign(int[] featureSet, int[] keys, int offset) {
+        for (int band = 0; band < BANDS; band++) {
+            int key = band;
+            for (int row = 0; row < ROWS; row++) {
+                int h = band * ROWS + row;
+                long min = Long.MAX_VALUE;
+                for (int feature : featureSet) {
+                    long value = feature * MULTIPLIERS[h] + OFFSETS[h];
+                    if (value < min) {
+                        min = value;
+                    }
+                }
+                key = key * 0x9E3779B1 + (int) (min >>> 32);
+            }
+            keys[offset + band] = mix(key);
+        }
+    }
+
+    private void add(ManageRecipeModel recipe, int[] featureSet, boolean signNow) {
+        if (recipe == null || recipe.getId() == null) {
+            return;
+        }
+        Integer previous = ordinalsById.remove(recipe.getId());
+        if (previous != null) {
+            tombstones.set(previous);
+        }
+        int ordinal = ordinalCount++;
+        if (ordinal == recipeIds.length) {
+            grow(ordinal * 2);
+        }
+        recipeIds[ordinal] = recipe.getId();
+        features[ordinal] = featureSet;
+        ordinalsById.put(recipe.getId(), ordinal);
+        if (signNow) {
+            sign(featureSet, bandKeys, ordinal * BANDS);
+            link(ordinal);
+        } else {
+            unsigned.set(ordinal);
+        }
+    }
+
+    private void link(int ordinal) {
+        // A recipe without features has no meaningful signature and is never a candidate
+        if (features[ordinal].length == 0) {
+            return;
+        }
+        for (int band = 0; band < BANDS; band++) {
+            int posting = ordinal * BANDS + band;
+            int slot = slot(band, bandKeys[posting]);
+            next[posting] = heads[slot];
+            heads[slot] = posting;
+        }
+    }
+
+    private int slot(int band, int key) {
+        return mix(key * 31 + band) & (heads.length - 1);
+    }
+
+    private void grow(int capacity) {
+        recipeIds = Arrays.copyOf(recipeIds, capacity);
+        features = Arrays.copyOf(features, capacity);
+        bandKeys = Arrays.copyOf(bandKeys, capacity * BANDS);
+        next = new int[capacity * BANDS];
+        relink(capacity);
+    }
+
+    private void relink(int capacity) {
+        heads = emptyHeads(capacity);
+        for (int ordinal = 0; ordinal < ordinalCount; ordinal++) {
+            if (!tombstones.get(ordinal) && !unsigned.get(ordinal) && features[ordinal] != null) {
+                link(ordinal);
+            }
+        }
+    }
+
+    private void compactIfNeeded() {
+        int dead = tombstones.cardinality();
+        // Ordinals recorded during a rebuild are not signed yet and must stay put
+        if (rebuilding || dead < 1000 || dead * 5 < ordinalCount) {
+            return;
+        }
+        int live = 0;
+        for (int ordinal = 0; ordinal < ordinalCount; ordinal++) {
+            if (tombstones.get(ordinal)) {
+                continue;
+            }
+            recipeIds[live] = recipeIds[ordinal];
+            features[live] = features[ordinal];
+            System.arraycopy(bandKeys, ordinal * BANDS, bandKeys, live * BANDS, BANDS);
+            ordinalsById.put(recipeIds[live], live);
+            live++;
+        }
+        Arrays.fill(features, live, ordinalCount, null);
+        ordinalCount = live;
+        tombstones.clear();
+        relink(recipeIds.length);
+    }
+
+    // One bucket head per posting, rounded up to a power of two
+    private static int[] emptyHeads(int capacity) {
+        int[] heads = new int[Integer.highestOneBit(capacity * BANDS - 1) << 1];
+        Arrays.fill(heads, -1);
+        return heads;
+    }
+
+    // Murmur3 finalizer
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private final class SignTask extends RecursiveAction {
+        private final int[] ordinals;
+        private final int from;
+        private final int to;
+
+        SignTask(int[] ordinals, int from, int to) {
+            this.ordinals = ordinals;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SIGN_CHUNK) {
+                for (int i = from; i < to; i++) {
+                    int ordinal = ordinals[i];
+                    sign(features[ordinal], bandKeys, ordinal * BANDS);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SignTask(ordinals, from, middle), new SignTask(ordinals, middle, to));
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package backend.Service;
+
+import backend.Exception.UploadSessionNotFoundException;
+import backend.Model.ManageRecipeModel.MediaItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Resumable uploads: a session owns one partial file that chunks are written
+ * into at their offsets, so every byte reaches the disk once and a dropped
+ * connection only loses the chunk in flight.
+ * <p>
+ * Sessions live in memory only. Partial files left behind by a restart are
+ * swept from {@value #PARTIAL_DIR} once they are older than the session TTL.
+ */
+@Service
+public class UploadSessionService {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadSessionService.class);
+
+    public static final String PARTIAL_DIR = ".partial";
+
+    private static final Duration SESSION_TTL = Duration.ofHours(24);
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final MediaFileService mediaFileService;
+    private final ContentAddressedMediaStore contentAddressedMediaStore;
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    public UploadSessionService(MediaFileService mediaFileService,
+                                ContentAddressedMediaStore contentAddressedMediaStore) {
+        this.mediaFileService = mediaFileService;
+        this.contentAddressedMediaStore = contentAddressedMediaStore;
+    }
+
+    public static final class UploadSession {
+        private final String id;
+        private final String fileName;
+        private final String type;
+        private final String contentType;
+        private final long length;
+        private final Long duration;
+        private final List<MediaItem> existingMedia;
+        private final Path file;
+        private final AtomicLong offset = new AtomicLong();
+        private final ReentrantLock writeLock = new ReentrantLock();
+        private volatile long lastActivity = System.currentTimeMillis();
+
+        UploadSession(String id, String fileName, String type, String contentType, long length,
+                      Long duration, List<MediaItem> existingMedia, Path file) {
+            this.id = id;
+            this.fileName = fileName;
+            this.type = type;
+            this.contentType = contentType;
+            this.length = length;
+            this.duration = duration;
+            this.existingMedia = existingMedia;
+            this.file = file;
+        }
+
+        public String getId() { return id; }
+        public String getFileName() { return fileName; }
+        public String getType() { return type; }
+        public String getContentType() { return contentType; }
+        public long getLength() { return length; }
+        public Long getDuration() { return duration; }
+        public List<MediaItem> getExistingMedia() { return existingMedia; }
+        public Path getFile() { return file; }
+        public long getOffset() { return offset.get(); }
+        public boolean isComplete() { return offset.get() == length; }
+    }
+
+    public UploadSession create(String fileName, String type, String contentType, long length,
+                                Long duration, List<MediaItem> existingMedia) throws IOException {
+        Path partialDir = mediaFileService.getUploadPath().resolve(PARTIAL_DIR);
+        Files.createDirectories(partialDir);
+        String id = UUID.randomUUID().toString();
+        Path file = Files.createFile(partialDir.resolve(id + ".part"));
+        UploadSession session = new UploadSession(id, fileName, type, contentType, length,
+                duration, List.copyOf(existingMedia), file);
+        sessions.put(id, session);
+        return session;
+    }
+
+    public UploadSession get(String id) {
+        return sessions.get(id);
+    }
+
+    /**
+     * Writes the request body into the partial file starting at {@code offset}.
+     * The session offset advances after every buffer, so the bytes that made
+     * it to disk before a dropped connection are kept.
+     *
+     * @return the new offset
+     * @throws IllegalStateException when the offset does not match the session
+     *         or another chunk is being written
+     */
+    public long append(UploadSession session, long offset, InputStream body) throws IOException {
+        if (!session.writeLock.tryLock()) {
+            throw new IllegalStateException("Another chunk is being written to this upload");
+        }
+        try {
+            if (offset != session.offset.get()) {
+                throw new IllegalStateException("Upload offset mismatch, expected " + session.offset.get());
+            }
+            session.lastActivity = System.currentTimeMillis();
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+            byte[] bytes = buffer.array();
+            long position = offset;
+            try (FileChannel channel = FileChannel.open(session.file, StandardOpenOption.WRITE)) {
+                int n;
+                while ((n = body.read(bytes)) != -1) {
+                    if (position + n > session.length) {
+                        throw new IllegalArgumentException("Chunk runs past the declared upload length");
+                    }
+                    buffer.clear().limit(n);
+                    while (buffer.hasRemaining()) {
+                        position += channel.write(buffer, position);
+                    }
+                    session.offset.set(position);
+                }
+            }
+            session.lastActivity = System.currentTimeMillis();
+            return position;
+        } finally {
+            session.writeLock.unlock();
+        }
+    }
+
+    @FunctionalInterface
+    public interface Finalizer<T> {
+        T finalize(UploadSession session) throws IOException;
+    }
+
+    /**
+     * Runs the finalize steps (validation, {@link #complete} or
+     * {@link #abort}) with the session locked, so chunk writes, an abort or a
+     * second finalize call cannot interleave with them.
+     *
+     * @throws UploadSessionNotFoundException when the session was finalized or
+     *         aborted while this call waited for it
+     */
+    public <T> T finalizeUpload(UploadSession session, Finalizer<T> finalizer) throws IOException {
+        session.writeLock.lock();
+        try {
+            if (sessions.get(session.id) != session) {
+                throw new UploadSessionNotFoundException(session.id);
+            }
+            return finalizer.finalize(session);
+        } finally {
+            session.writeLock.unlock();
+        }
+    }
+
+    /**
+     * Moves a completed upload into media storage. The file is renamed, not
+     * copied; in content-addressed mode it is read once more to hash it.
+     *
+     * @return the media name to store on the recipe
+     */
+    public String complete(UploadSession session) throws IOException {
+        session.writeLock.lock();
+        try {
+            if (!session.isComplete()) {
+                throw new IllegalStateException("Upload is incomplete at offset " + session.offset.get());
+            }
+            String extension = MediaFileService.extension(session.fileName);
+            String fileName;
+            if (contentAddressedMediaStore.isEnabled()) {
+                fileName = contentAddressedMediaStore.commit(contentAddressedMediaStore.stageFile(session.file, extension));
+            } else {
+                fileName = mediaFileService.legacyName(extension);
+                Files.move(session.file, mediaFileService.getUploadPath().resolve(fileName), StandardCopyOption.ATOMIC_MOVE);
+            }
+            sessions.remove(session.id);
+            return fileName;
+        } finally {
+            session.writeLock.unlock();
+        }
+    }
+
+    public void abort(UploadSession session) throws IOException {
+        session.writeLock.lock();
+        try {
+            sessions.remove(session.id);
+            Files.deleteIfExists(session.file);
+        } finally {
+            session.writeLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelay = 60 * 60 * 1000)
+    public void expireIdleSessions() {
+        long cutoff = System.currentTimeMillis() - SESSION_TTL.toMillis();
+        for (UploadSession session : sessions.values()) {
+            if (session.lastActivity < cutoff && !session.writeLock.isLocked()) {
+                try {
+                    abort(session);
+                } catch (IOException e) {
+                    log.warn("Could not remove expired upload session {}", session.id, e);
+                }
+            }
+        }
+        removeOrphanedPartials(cutoff);
+    }
+
+    // Partial files of sessions lost in a restart; live sessions are never touched
+    private void removeOrphanedPartials(long cutoff) {
+        Path partialDir = mediaFileService.getUploadPath().resolve(PARTIAL_DIR);
+        if (!Files.isDirectory(partialDir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(partialDir, "*.part")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String id = name.substring(0, name.length() - ".part".length());
+                try {
+                    if (!sessions.containsKey(id) && Files.getLastModifiedTime(file).toMillis() < cutoff) {
+                        Files.deleteIfExists(file);
+                    }
+                } catch (IOException e) {
+                    log.warn("Could not remove orphaned partial upload {}", file, e);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not sweep partial uploads in {}", partialDir, e);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package backend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps uploads and writes from starving reads.
+ * <p>
+ * Handlers marked {@link UploadEndpoint} that stream a body need one of a
+ * fixed number of upload slots. A few requests may wait briefly for a slot;
+ * past that queue they are turned away at once. Each new upload and every
+ * other write also draws from a per-client token bucket; chunks of a
+ * resumable upload and {@link ReadOnlyEndpoint} POSTs do not. Rejections are a 429 with {@code Retry-After}, sent before
+ * the body is read: multipart parsing is lazy, so it only starts once the
+ * handler's arguments are resolved.
+ * <p>
+ * Clients are keyed by remote address; {@code server.forward-headers-strategy}
+ * makes that the real client behind a trusted proxy.
+ */
+@Component
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+    private static final String UPLOAD_SLOT = AdmissionControlInterceptor.class.getName() + ".uploadSlot";
+    private static final String UPLOAD = "upload";
+    private static final String WRITE = "write";
+
+    private final boolean enabled;
+    private final int maxConcurrentUploads;
+    private final int maxQueuedUploads;
+    private final long maxWaitNanos;
+    private final long busyRetryAfterSeconds;
+    private final double uploadRate;
+    private final int uploadBurst;
+    private final double writeRate;
+    private final int writeBurst;
+    private final Semaphore uploadSlots;
+    private final AtomicInteger queuedUploads = new AtomicInteger();
+    private final Cache<String, TokenBucket> buckets;
+    private final MeterRegistry meterRegistry;
+    private final Timer uploadWait;
+
+    public AdmissionControlInterceptor(MeterRegistry meterRegistry,
+                                       @Value("${admission.enabled:true}") boolean enabled,
+                                       @Value("${admission.uploads.max-concurrent:4}") int maxConcurrentUploads,
+                                       @Value("${admission.uploads.max-queued:8}") int maxQueuedUploads,
+                                       @Value("${admission.uploads.max-wait:2s}") Duration maxWait,
+                                       @Value("${admission.uploads.retry-after:5s}") Duration busyRetryAfter,
+                                       @Value("${admission.uploads.per-client.rate:0.5}") double uploadRate,
+                                       @Value("${admission.uploads.per-client.burst:3}") int uploadBurst,
+                                       @Value("${admission.writes.per-client.rate:5}") double writeRate,
+                                       @Value("${admission.writes.per-client.burst:20}") int writeBurst) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxConcurrentUploads = maxConcurrentUploads;
+        this.maxQueuedUploads = maxQueuedUploads;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.busyRetryAfterSeconds = Math.max(1, busyRetryAfter.toSeconds());
+        this.uploadRate = uploadRate;
+        this.uploadBurst = uploadBurst;
+        this.writeRate = writeRate;
+        this.writeBurst = writeBurst;
+        this.uploadSlots = new Semaphore(maxConcurrentUploads, true);
+        // Idle clients age out, so the map stays bounded by recent traffic
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+        this.uploadWait = Timer.builder("admission.uploads.wait")
+                .description("Time uploads spent waiting for a slot")
+                .register(meterRegistry);
+        Gauge.builder("admission.uploads.active", uploadSlots, slots -> maxConcurrentUploads - slots.availablePermits())
+                .description("Uploads currently holding a slot")
+                .register(meterRegistry);
+        Gauge.builder("admission.uploads.queued", queuedUploads, AtomicInteger::get)
+                .description("Uploads waiting for a slot")
+                .register(meterRegistry);
+        Gauge.builder("admission.clients", buckets, cache -> cache.estimatedSize())
+                .description("Client rate-limit buckets currently tracked")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (!enabled || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        UploadEndpoint uploadEndpoint = method.getMethodAnnotation(UploadEndpoint.class);
+        boolean upload = uploadEndpoint != null;
+        if (!upload && (!isWrite(request) || method.hasMethodAnnotation(ReadOnlyEndpoint.class))) {
+            return true;
+        }
+        String requestClass = upload ? UPLOAD : WRITE;
+
+        // A resumable upload is charged once, when it starts, not for every chunk
+        if (!upload || uploadEndpoint.startsUpload()) {
+            long now = System.nanoTime();
+            TokenBucket bucket = buckets.get(requestClass + ':' + request.getRemoteAddr(), key -> upload
+                    ? new TokenBucket(uploadRate, uploadBurst, now)
+                    : new TokenBucket(writeRate, writeBurst, now));
+            long waitNanos = bucket.tryAcquire(now);
+            if (waitNanos > 0) {
+                long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+                return reject(response, requestClass, "rate", retryAfter, "Too many requests, slow down");
+            }
+        }
+
+        if (upload && uploadEndpoint.streamsBody()) {
+            if (!acquireUploadSlot()) {
+                return reject(response, requestClass, "concurrency", busyRetryAfterSeconds,
+                        "Too many uploads in progress, try again shortly");
+            }
+            request.setAttribute(UPLOAD_SLOT, Boolean.TRUE);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(UPLOAD_SLOT) != null) {
+            request.removeAttribute(UPLOAD_SLOT);
+            uploadSlots.release();
+        }
+    }
+
+    private boolean acquireUploadSlot() {
+        if (uploadSlots.tryAcquire()) {
+            uploadWait.record(0, TimeUnit.NANOSECONDS);
+            return true;
+        }
+        // Waiting holds a request thread, so only a short queue may wait
+        if (queuedUploads.incrementAndGet() > maxQueuedUploads) {
+            queuedUploads.decrementAndGet();
+            return false;
+        }
+        long started = System.nanoTime();
+        try {
+            return uploadSlots.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            queuedUploads.decrementAndGet();
+            uploadWait.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+        return method == HttpMethod.POST || method == HttpMethod.PUT
+                || method == HttpMethod.PATCH || method == HttpMethod.DELETE;
+    }
+
+    private boolean reject(HttpServletResponse response, String requestClass, String reason,
+                           long retryAfterSeconds, String message) throws IOException {
+        Counter.builder("admission.rejected")
+                .description("Requests turned away by admission control")
+                .tag("class", requestClass)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+        return false;
+    }
+}
@@ -18,6 +18,12 @@ public class CorsConfig {
         config.addAllowedOrigin("http://localhost:3000");
         config.addAllowedHeader("*");
         config.addAllowedMethod("*");
+        config.addExposedHeader("X-Next-Cursor");
+        config.addExposedHeader("Upload-Offset");
+        config.addExposedHeader("Upload-Length");
+        config.addExposedHeader("Location");
+        config.addExposedHeader("ETag");
+        config.addExposedHeader("Retry-After");
         config.setAllowCredentials(true);
         config.setMaxAge(3600L);
         
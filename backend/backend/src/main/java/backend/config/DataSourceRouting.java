@@ -0,0 +1,76 @@
+package backend.config;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * Per-thread routing hint for {@link ReplicaRoutingDataSource}.
+ * <p>
+ * Without a hint, only read-only transactions may use a replica. GET requests
+ * from clients that have not written recently are marked as read requests, so
+ * statements outside any transaction (lazy loads while the response is
+ * serialized) go to a replica too. Code that must see the latest committed
+ * data runs under {@link #onPrimary}.
+ */
+public final class DataSourceRouting {
+
+    public enum Route { DEFAULT, READ_REQUEST, PRIMARY }
+
+    private static final ThreadLocal<Route> ROUTE = ThreadLocal.withInitial(() -> Route.DEFAULT);
+
+    private DataSourceRouting() {
+    }
+
+    public static Route current() {
+        return ROUTE.get();
+    }
+
+    static void set(Route route) {
+        ROUTE.set(route);
+    }
+
+    static void clear() {
+        ROUTE.remove();
+    }
+
+    /**
+     * Runs {@code work} with every connection it opens taken from the primary.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        Route previous = ROUTE.get();
+        ROUTE.set(Route.PRIMARY);
+        try {
+            return work.get();
+        } finally {
+            ROUTE.set(previous);
+        }
+    }
+
+    /**
+     * Carries the caller's route over to a task that runs on another thread.
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        Route route = ROUTE.get();
+        return () -> {
+            ROUTE.set(route);
+            try {
+                return task.call();
+            } finally {
+                ROUTE.remove();
+            }
+        };
+    }
+
+    static boolean replicaAllowed() {
+        Route route = ROUTE.get();
+        if (route == Route.PRIMARY) {
+            return false;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        }
+        return route == Route.READ_REQUEST;
+    }
+}
@@ -0,0 +1,95 @@
+package backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends reads to MySQL replicas when {@code datasource.replicas.urls} is set.
+ * <p>
+ * {@code spring.datasource.*} stays the primary. Read-only transactions, and
+ * statements outside a transaction during a GET, are routed to a replica.
+ * After a client writes, its requests stay on the primary for the
+ * {@code datasource.read-your-writes} window, so it reads back what it just
+ * saved; see {@link ReadYourWritesFilter} for how clients are told apart.
+ */
+@Configuration
+@ConditionalOnProperty("datasource.replicas.urls")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties properties,
+                                                             MeterRegistry meterRegistry,
+                                                             @Value("${datasource.replicas.urls}") List<String> urls,
+                                                             @Value("${datasource.replicas.username:${spring.datasource.username:}}") String username,
+                                                             @Value("${datasource.replicas.password:${spring.datasource.password:}}") String password,
+                                                             @Value("${datasource.replicas.connection-timeout:2s}") Duration connectionTimeout) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(urls.get(i).trim());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            if (properties.getDriverClassName() != null) {
+                replica.setDriverClassName(properties.getDriverClassName());
+            }
+            replica.setReadOnly(true);
+            replica.setMaximumPoolSize(primaryDataSource.getMaximumPoolSize());
+            // Fail over to the next replica quickly rather than after the 30s default
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            // Start without a connection so a replica that is down does not stop the application
+            replica.setInitializationFailTimeout(-1);
+            replica.setMetricRegistry(meterRegistry);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primaryDataSource, replicas);
+        Gauge.builder("datasource.replicas.healthy", routing, ReplicaRoutingDataSource::healthyReplicas)
+                .description("Read replicas currently taking reads")
+                .register(meterRegistry);
+        return routing;
+    }
+
+    // The routing decision is made at the first statement, once the transaction's read-only flag is set
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    // Hold a connection per transaction, not per request, so each transaction is routed on its own
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandlingCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(@Value("${datasource.read-your-writes:5s}") Duration window) {
+        return new ReadYourWritesFilter(window);
+    }
+}
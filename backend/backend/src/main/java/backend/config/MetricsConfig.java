@@ -0,0 +1,72 @@
+package backend.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Per-request SQL meters. Hibernate's own statistics are totals for the whole
+ * application; these summaries show how many statements and entity loads each
+ * endpoint costs, tagged like {@code http.server.requests}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final RequestSqlCounter SQL_COUNTER = new RequestSqlCounter();
+
+    @Bean
+    public HibernatePropertiesCustomizer requestSqlCounterCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, SQL_COUNTER);
+            properties.put(AvailableSettings.INTERCEPTOR, SQL_COUNTER);
+        };
+    }
+
+    @Bean
+    public OncePerRequestFilter requestSqlMetricsFilter(MeterRegistry meterRegistry) {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain chain) throws ServletException, IOException {
+                RequestSqlCounter.reset();
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                    String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+                    record(meterRegistry, "http.server.requests.sql.statements", "SQL statements per request",
+                            request.getMethod(), uri, RequestSqlCounter.statements());
+                    record(meterRegistry, "http.server.requests.entity.loads", "Entities loaded per request",
+                            request.getMethod(), uri, RequestSqlCounter.entityLoads());
+                }
+            }
+
+            @Override
+            protected boolean shouldNotFilterAsyncDispatch() {
+                return true;
+            }
+        };
+    }
+
+    private static void record(MeterRegistry meterRegistry, String name, String description,
+                               String method, String uri, long value) {
+        DistributionSummary.builder(name)
+                .description(description)
+                .tag("method", method)
+                .tag("uri", uri)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(value);
+    }
+}
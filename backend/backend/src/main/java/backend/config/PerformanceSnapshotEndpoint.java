@@ -0,0 +1,169 @@
+package backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code /actuator/performance}: one JSON document with the numbers we tune
+ * against, so nobody has to query a dozen {@code /actuator/metrics} names.
+ * The same meters are scraped from {@code /actuator/prometheus}.
+ */
+@Component
+@Endpoint(id = "performance")
+public class PerformanceSnapshotEndpoint {
+
+    private final MeterRegistry meterRegistry;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public PerformanceSnapshotEndpoint(MeterRegistry meterRegistry, EntityManagerFactory entityManagerFactory) {
+        this.meterRegistry = meterRegistry;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @ReadOperation
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("endpoints", endpoints());
+        snapshot.put("sqlPerRequest", summaries("http.server.requests.sql.statements"));
+        snapshot.put("entityLoadsPerRequest", summaries("http.server.requests.entity.loads"));
+        snapshot.put("hibernate", hibernate());
+        snapshot.put("connectionPool", connectionPool());
+        snapshot.put("uploads", uploads());
+        snapshot.put("mediaBytesServed", counters("media.bytes.served", "variant"));
+        snapshot.put("admission", admission());
+        return snapshot;
+    }
+
+    private List<Map<String, Object>> endpoints() {
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        for (Timer timer : meterRegistry.find("http.server.requests").timers()) {
+            HistogramSnapshot histogram = timer.takeSnapshot();
+            Map<String, Object> entry = tags(timer, "method", "uri", "status");
+            entry.put("count", histogram.count());
+            entry.put("meanMs", histogram.mean(TimeUnit.MILLISECONDS));
+            entry.put("maxMs", histogram.max(TimeUnit.MILLISECONDS));
+            for (ValueAtPercentile percentile : histogram.percentileValues()) {
+                entry.put(percentileKey(percentile) + "Ms", percentile.value(TimeUnit.MILLISECONDS));
+            }
+            endpoints.add(entry);
+        }
+        return endpoints;
+    }
+
+    private List<Map<String, Object>> summaries(String name) {
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (DistributionSummary summary : meterRegistry.find(name).summaries()) {
+            HistogramSnapshot histogram = summary.takeSnapshot();
+            Map<String, Object> entry = tags(summary, "method", "uri");
+            entry.put("requests", histogram.count());
+            entry.put("mean", histogram.mean());
+            entry.put("max", histogram.max());
+            for (ValueAtPercentile percentile : histogram.percentileValues()) {
+                entry.put(percentileKey(percentile), percentile.value());
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    private Map<String, Object> hibernate() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Object> hibernate = new LinkedHashMap<>();
+        hibernate.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        hibernate.put("statementsPrepared", statistics.getPrepareStatementCount());
+        hibernate.put("queriesExecuted", statistics.getQueryExecutionCount());
+        hibernate.put("slowestQueryMs", statistics.getQueryExecutionMaxTime());
+        hibernate.put("slowestQuery", statistics.getQueryExecutionMaxTimeQueryString());
+        hibernate.put("entitiesLoaded", statistics.getEntityLoadCount());
+        hibernate.put("entitiesFetched", statistics.getEntityFetchCount());
+        hibernate.put("collectionsLoaded", statistics.getCollectionLoadCount());
+        hibernate.put("collectionsFetched", statistics.getCollectionFetchCount());
+        hibernate.put("flushes", statistics.getFlushCount());
+        return hibernate;
+    }
+
+    private Map<String, Object> connectionPool() {
+        Map<String, Object> pool = new LinkedHashMap<>();
+        for (String gauge : List.of("active", "idle", "pending", "max")) {
+            Gauge meter = meterRegistry.find("hikaricp.connections." + gauge).gauge();
+            pool.put(gauge, meter != null ? meter.value() : null);
+        }
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").timer();
+        if (acquire != null) {
+            pool.put("acquireMeanMs", acquire.mean(TimeUnit.MILLISECONDS));
+            pool.put("acquireMaxMs", acquire.max(TimeUnit.MILLISECONDS));
+        }
+        Counter timeouts = meterRegistry.find("hikaricp.connections.timeout").counter();
+        pool.put("timeouts", timeouts != null ? timeouts.count() : 0);
+        return pool;
+    }
+
+    private Map<String, Object> uploads() {
+        Map<String, Object> uploads = new LinkedHashMap<>();
+        for (DistributionSummary bytes : meterRegistry.find("media.upload.bytes").summaries()) {
+            String source = bytes.getId().getTag("source");
+            Timer duration = meterRegistry.find("media.upload.duration").tag("source", source).timer();
+            double seconds = duration != null ? duration.totalTime(TimeUnit.SECONDS) : 0;
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("uploads", bytes.count());
+            entry.put("bytes", bytes.totalAmount());
+            entry.put("bytesPerSecond", seconds > 0 ? bytes.totalAmount() / seconds : null);
+            uploads.put(source, entry);
+        }
+        uploads.put("rejected", counters("media.upload.rejected", "reason"));
+        return uploads;
+    }
+
+    private Map<String, Object> admission() {
+        Map<String, Object> admission = new LinkedHashMap<>();
+        admission.put("activeUploads", gauge("admission.uploads.active"));
+        admission.put("queuedUploads", gauge("admission.uploads.queued"));
+        Timer wait = meterRegistry.find("admission.uploads.wait").timer();
+        admission.put("uploadWaitMaxMs", wait != null ? wait.max(TimeUnit.MILLISECONDS) : null);
+        admission.put("rejected", counters("admission.rejected", "reason"));
+        return admission;
+    }
+
+    private Double gauge(String name) {
+        Gauge gauge = meterRegistry.find(name).gauge();
+        return gauge != null ? gauge.value() : null;
+    }
+
+    private Map<String, Double> counters(String name, String tag) {
+        Map<String, Double> counts = new LinkedHashMap<>();
+        for (Counter counter : meterRegistry.find(name).counters()) {
+            counts.merge(counter.getId().getTag(tag), counter.count(), Double::sum);
+        }
+        return counts;
+    }
+
+    private static Map<String, Object> tags(Meter meter, String... keys) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        for (String key : keys) {
+            entry.put(key, meter.getId().getTag(key));
+        }
+        return entry;
+    }
+
+    private static String percentileKey(ValueAtPercentile percentile) {
+        return "p" + Math.round(percentile.percentile() * 100);
+    }
+}
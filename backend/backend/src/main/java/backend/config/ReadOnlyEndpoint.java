@@ -0,0 +1,18 @@
+package backend.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a POST handler that only reads, such as a lookup whose parameters do
+ * not fit in a URL. {@link AdmissionControlInterceptor} does not charge it to
+ * the client's write rate limit.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadOnlyEndpoint {
+}
@@ -0,0 +1,96 @@
+package backend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Routes each request for {@link ReplicaRoutingDataSource}: writes, and reads
+ * from a client that wrote within the window, stay on the primary.
+ * <p>
+ * A client is identified by a random {@value #COOKIE} cookie handed out with
+ * its first write, so clients behind one NAT or proxy are told apart and a
+ * writer is recognised whichever address it comes from. Clients that do not
+ * send the cookie back are keyed by remote address, which is the forwarded
+ * client address when {@code server.forward-headers-strategy} is set.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE = "rw-client";
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final Duration window;
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesFilter(Duration window) {
+        this.window = window;
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String token = token(request);
+        boolean read = READ_METHODS.contains(request.getMethod());
+        boolean pinned = !read || recentWriters.getIfPresent(token != null ? token : address(request)) != null;
+        // The cookie must be set before the handler commits the response
+        String issued = null;
+        if (!read && token == null && !window.isZero()) {
+            issued = UUID.randomUUID().toString();
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE, issued)
+                    .path("/")
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build()
+                    .toString());
+        }
+        DataSourceRouting.set(pinned ? DataSourceRouting.Route.PRIMARY : DataSourceRouting.Route.READ_REQUEST);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            DataSourceRouting.clear();
+            if (!read && !window.isZero()) {
+                if (token != null) {
+                    recentWriters.put(token, Boolean.TRUE);
+                } else {
+                    // Not known yet whether this client will send the new cookie back
+                    recentWriters.put("client:" + issued, Boolean.TRUE);
+                    recentWriters.put(address(request), Boolean.TRUE);
+                }
+            }
+        }
+    }
+
+    private static String token(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName()) && !cookie.getValue().isEmpty()) {
+                return "client:" + cookie.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String address(HttpServletRequest request) {
+        return "address:" + request.getRemoteAddr();
+    }
+}
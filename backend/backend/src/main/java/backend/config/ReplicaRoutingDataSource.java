@@ -0,0 +1,103 @@
+package backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out replica connections for reads and primary connections for
+ * everything else, as decided by {@link DataSourceRouting}.
+ * <p>
+ * Replicas are taken round-robin. One that fails to give a connection is
+ * marked down and skipped until a health check finds it answering again;
+ * with no replica up, reads fall back to the primary. Wrap this in a
+ * {@code LazyConnectionDataSourceProxy} so the choice is made at the first
+ * statement, once the transaction's read-only flag is known.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean up = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas) {
+        this.primary = primary;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!replicas.isEmpty() && DataSourceRouting.replicaAllowed()) {
+            int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get((start + i) % replicas.size());
+                if (!replica.up) {
+                    continue;
+                }
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    replica.up = false;
+                    log.warn("Read replica {} is unavailable, routing its reads elsewhere", replica.name, e);
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.health-check-interval:10s}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean up;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                up = connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                up = false;
+            }
+            if (up != replica.up) {
+                log.info("Read replica {} is {}", replica.name, up ? "back up" : "down");
+            }
+            replica.up = up;
+        }
+    }
+
+    public Map<String, Boolean> status() {
+        Map<String, Boolean> status = new LinkedHashMap<>();
+        replicas.forEach(replica -> status.put(replica.name, replica.up));
+        return status;
+    }
+
+    public long healthyReplicas() {
+        return replicas.stream().filter(replica -> replica.up).count();
+    }
+}
@@ -0,0 +1,44 @@
+package backend.config;
+
+import org.hibernate.Interceptor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+
+/**
+ * Counts the SQL statements Hibernate prepares and the entities it loads on
+ * the current thread. Registered once for the whole session factory; the
+ * counts are reset and read per request by {@link MetricsConfig}.
+ */
+public final class RequestSqlCounter implements StatementInspector, Interceptor {
+
+    private static final ThreadLocal<long[]> COUNTS = ThreadLocal.withInitial(() -> new long[2]);
+
+    private static final int STATEMENTS = 0;
+    private static final int ENTITY_LOADS = 1;
+
+    @Override
+    public String inspect(String sql) {
+        COUNTS.get()[STATEMENTS]++;
+        return sql;
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        COUNTS.get()[ENTITY_LOADS]++;
+        return false;
+    }
+
+    static void reset() {
+        long[] counts = COUNTS.get();
+        counts[STATEMENTS] = 0;
+        counts[ENTITY_LOADS] = 0;
+    }
+
+    static long statements() {
+        return COUNTS.get()[STATEMENTS];
+    }
+
+    static long entityLoads() {
+        return COUNTS.get()[ENTITY_LOADS];
+    }
+}
@@ -0,0 +1,99 @@
+package backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Startup timings. When the application is ready, logs the slowest bean
+ * initialisations from the startup timeline, including Hibernate's bootstrap
+ * ({@code entityManagerFactory}) and the migrations ({@code flywayInitializer}).
+ * The full timeline is served by {@code /actuator/startup}. Also records how
+ * long after JVM start the first request was answered, the number that
+ * matters when a new instance joins the load balancer.
+ */
+@Component
+public class StartupReport extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupReport.class);
+
+    private static final int SLOWEST_BEANS = 10;
+    private static final List<String> BOOTSTRAP_BEANS = List.of("flywayInitializer", "entityManagerFactory");
+
+    private final AtomicBoolean firstRequestSeen = new AtomicBoolean();
+    private final AtomicLong firstRequestMillis = new AtomicLong(-1);
+
+    public StartupReport(MeterRegistry meterRegistry) {
+        TimeGauge.builder("application.first.request.time", firstRequestMillis, TimeUnit.MILLISECONDS,
+                        millis -> millis.get() < 0 ? Double.NaN : millis.get())
+                .description("Time from JVM start until the first request was answered")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        log.info("Ready {} ms after JVM start", ManagementFactory.getRuntimeMXBean().getUptime());
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        if (!(startup instanceof BufferingApplicationStartup buffering)) {
+            return;
+        }
+        // Durations are inclusive: a bean's time covers the dependencies it created
+        List<StartupTimeline.TimelineEvent> beans = buffering.getBufferedTimeline().getEvents().stream()
+                .filter(e -> e.getStartupStep().getName().equals("spring.beans.instantiate"))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .toList();
+        for (StartupTimeline.TimelineEvent bean : beans) {
+            String name = beanName(bean);
+            if (BOOTSTRAP_BEANS.contains(name)) {
+                log.info("Startup: {} took {} ms", name, bean.getDuration().toMillis());
+            }
+        }
+        beans.stream().limit(SLOWEST_BEANS).forEach(bean ->
+                log.info("Startup: bean {} took {} ms", beanName(bean), bean.getDuration().toMillis()));
+    }
+
+    private static String beanName(StartupTimeline.TimelineEvent event) {
+        for (StartupStep.Tag tag : event.getStartupStep().getTags()) {
+            if (tag.getKey().equals("beanName")) {
+                return tag.getValue();
+            }
+        }
+        return "?";
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (!firstRequestSeen.get() && firstRequestSeen.compareAndSet(false, true)) {
+                long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+                firstRequestMillis.set(uptime);
+                log.info("First request ({} {}) answered {} ms after JVM start", request.getMethod(),
+                        request.getRequestURI(), uptime);
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package backend.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its GCRA form: instead of a token count it keeps
+ * the time at which the bucket will next be full, so taking a token is a
+ * single compare-and-set on one {@code long}.
+ */
+final class TokenBucket {
+
+    private final long interval;
+    private final long tolerance;
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(double perSecond, int burst, long now) {
+        this.interval = (long) (TimeUnit.SECONDS.toNanos(1) / perSecond);
+        this.tolerance = interval * (Math.max(1, burst) - 1);
+        this.theoreticalArrival = new AtomicLong(now);
+    }
+
+    /**
+     * Takes a token at {@code now} (a {@link System#nanoTime()} reading).
+     *
+     * @return 0 when admitted, otherwise how many nanoseconds until a token is free
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long start = arrival - now > 0 ? arrival : now;
+            long wait = start - now - tolerance;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, start + interval)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package backend.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a handler that takes part in an upload. By default the request starts
+ * an upload and streams its body to disk: it takes one of the global upload
+ * slots and is rate limited per client by {@link AdmissionControlInterceptor}.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface UploadEndpoint {
+
+    /**
+     * Whether the request begins a new upload and is charged to the client's
+     * upload rate limit. Chunks and the finalize call of a resumable upload
+     * are not: the upload was charged once when its session was created.
+     */
+    boolean startsUpload() default true;
+
+    /**
+     * Whether the request streams a large body to disk and needs an upload
+     * slot while it does.
+     */
+    boolean streamsBody() default true;
+}
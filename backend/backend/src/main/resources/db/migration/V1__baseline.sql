@@ -0,0 +1,80 @@
+-- Schema as Hibernate's ddl-auto=update left it before migrations were introduced (MySQL 8).
+-- Databases created that way are baselined at this version instead of running it.
+
+create table challenge_model (
+    id bigint not null,
+    category varchar(255),
+    challenge_description varchar(255),
+    challenge_title varchar(255),
+    difficulty varchar(255),
+    end_date date,
+    start_date date,
+    primary key (id)
+) engine=InnoDB;
+
+create table challenge_model_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into challenge_model_seq values (1);
+
+create table manage_recipe_model (
+    id bigint not null,
+    category varchar(255),
+    cook_time integer,
+    difficulty_level varchar(255),
+    prep_time integer,
+    recipe_description varchar(255),
+    recipe_name varchar(255),
+    servings integer,
+    video_url varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table manage_recipe_model_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into manage_recipe_model_seq values (1);
+
+create table manage_recipe_model_ingredients (
+    manage_recipe_model_id bigint not null,
+    ingredients varchar(255),
+    constraint fk_ingredients_recipe foreign key (manage_recipe_model_id) references manage_recipe_model (id)
+) engine=InnoDB;
+
+create table manage_recipe_model_instructions (
+    manage_recipe_model_id bigint not null,
+    instructions varchar(255),
+    constraint fk_instructions_recipe foreign key (manage_recipe_model_id) references manage_recipe_model (id)
+) engine=InnoDB;
+
+create table recipe_media_items (
+    recipe_id bigint not null,
+    duration bigint,
+    path varchar(255),
+    type varchar(255),
+    constraint fk_media_items_recipe foreign key (recipe_id) references manage_recipe_model (id)
+) engine=InnoDB;
+
+create table planing_model (
+    id bigint not null,
+    plan_category varchar(255),
+    plan_description varchar(255),
+    plan_difficulty varchar(255),
+    plan_duration varchar(255),
+    plan_title varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table planing_model_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into planing_model_seq values (1);
+
+create table planing_model_meals (
+    planing_model_id bigint not null,
+    meals varchar(255),
+    constraint fk_meals_plan foreign key (planing_model_id) references planing_model (id)
+) engine=InnoDB;
@@ -0,0 +1,11 @@
+-- Optimistic-locking versions for recipes, challenges and plans, exposed as ETags.
+-- Existing rows start at version 0.
+
+alter table challenge_model
+    add column version bigint default 0 not null;
+
+alter table manage_recipe_model
+    add column version bigint default 0 not null;
+
+alter table planing_model
+    add column version bigint default 0 not null;
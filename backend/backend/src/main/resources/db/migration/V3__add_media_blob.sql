@@ -0,0 +1,12 @@
+-- Content-addressed media: one row per stored blob, with the number of recipes
+-- that reference it. Media uploaded before this version keep their legacy names
+-- and have no row.
+
+create table media_blob (
+    hash varchar(64) not null,
+    created_at datetime(6),
+    extension varchar(255),
+    ref_count integer not null,
+    size bigint not null,
+    primary key (hash)
+) engine=InnoDB;
@@ -0,0 +1,58 @@
+-- Numbers the rows of the recipe ingredient, instruction and media tables, which
+-- are mapped as ordered lists with a list_index column from this version on.
+--
+-- Until now the tables had no position column, and rows came back in storage
+-- order; the window functions below number them in that same order. Each table
+-- is rebuilt and swapped in, because the old rows have no key to update by.
+-- The media table also gains an index on path, for looking up which recipes
+-- reference a media file.
+
+create table manage_recipe_model_ingredients_ordered as
+select manage_recipe_model_id,
+       ingredients,
+       row_number() over (partition by manage_recipe_model_id) - 1 as list_index
+from manage_recipe_model_ingredients;
+
+alter table manage_recipe_model_ingredients_ordered
+    modify list_index integer not null,
+    add primary key (manage_recipe_model_id, list_index),
+    add constraint fk_recipe_ingredients_recipe
+        foreign key (manage_recipe_model_id) references manage_recipe_model (id);
+
+create table manage_recipe_model_instructions_ordered as
+select manage_recipe_model_id,
+       instructions,
+       row_number() over (partition by manage_recipe_model_id) - 1 as list_index
+from manage_recipe_model_instructions;
+
+alter table manage_recipe_model_instructions_ordered
+    modify list_index integer not null,
+    add primary key (manage_recipe_model_id, list_index),
+    add constraint fk_recipe_instructions_recipe
+        foreign key (manage_recipe_model_id) references manage_recipe_model (id);
+
+create table recipe_media_items_ordered as
+select recipe_id,
+       duration,
+       path,
+       type,
+       row_number() over (partition by recipe_id) - 1 as list_index
+from recipe_media_items;
+
+alter table recipe_media_items_ordered
+    modify list_index integer not null,
+    add primary key (recipe_id, list_index),
+    add index idx_recipe_media_path (path),
+    add constraint fk_recipe_media_items_recipe
+        foreign key (recipe_id) references manage_recipe_model (id);
+
+rename table manage_recipe_model_ingredients to manage_recipe_model_ingredients_unordered,
+             manage_recipe_model_ingredients_ordered to manage_recipe_model_ingredients,
+             manage_recipe_model_instructions to manage_recipe_model_instructions_unordered,
+             manage_recipe_model_instructions_ordered to manage_recipe_model_instructions,
+             recipe_media_items to recipe_media_items_unordered,
+             recipe_media_items_ordered to recipe_media_items;
+
+drop table manage_recipe_model_ingredients_unordered,
+           manage_recipe_model_instructions_unordered,
+           recipe_media_items_unordered;
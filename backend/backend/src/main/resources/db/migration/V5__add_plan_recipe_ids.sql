@@ -0,0 +1,11 @@
+-- Recipes referenced by a plan, in plan order, with recipe_id indexed for the
+-- lookup of plans that reference a recipe.
+
+create table plan_recipe_ids (
+    plan_id bigint not null,
+    list_index integer not null,
+    recipe_id bigint,
+    primary key (plan_id, list_index),
+    index idx_plan_recipe_ids_recipe (recipe_id),
+    constraint fk_plan_recipe_ids_plan foreign key (plan_id) references planing_model (id)
+) engine=InnoDB;
@@ -0,0 +1,5 @@
+-- Date-range queries over challenges: "starts before B and ends after A", and
+-- "starts between A and B".
+
+create index idx_challenge_start_end on challenge_model (start_date, end_date);
+create index idx_challenge_end on challenge_model (end_date);
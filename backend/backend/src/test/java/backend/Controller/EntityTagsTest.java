@@ -0,0 +1,36 @@
+package backend.Controller;
+
+import backend.Exception.PreconditionFailedException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * ETags from entity versions and If-Match checks.
+ */
+class EntityTagsTest {
+
+    @Test
+    void tagIsTheQuotedVersion() {
+        assertEquals("\"7\"", EntityTags.of(7L));
+        assertEquals("\"0\"", EntityTags.of(null));
+    }
+
+    @Test
+    void missingOrMatchingIfMatchPasses() {
+        assertDoesNotThrow(() -> EntityTags.checkIfMatch(null, 3L));
+        assertDoesNotThrow(() -> EntityTags.checkIfMatch(" ", 3L));
+        assertDoesNotThrow(() -> EntityTags.checkIfMatch("\"3\"", 3L));
+        assertDoesNotThrow(() -> EntityTags.checkIfMatch("\"1\", \"3\"", 3L));
+        assertDoesNotThrow(() -> EntityTags.checkIfMatch("*", 3L));
+    }
+
+    @Test
+    void staleOrWeakTagIsRejected() {
+        assertThrows(PreconditionFailedException.class, () -> EntityTags.checkIfMatch("\"2\"", 3L));
+        assertThrows(PreconditionFailedException.class, () -> EntityTags.checkIfMatch("W/\"3\"", 3L));
+        assertThrows(PreconditionFailedException.class, () -> EntityTags.checkIfMatch("3", 3L));
+    }
+}
@@ -0,0 +1,48 @@
+package backend.Controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class KeysetPageTest {
+
+    @Test
+    void sizeDefaultsAndIsCapped() {
+        assertEquals(KeysetPage.DEFAULT_LIMIT, KeysetPage.size(null));
+        assertEquals(KeysetPage.DEFAULT_LIMIT, KeysetPage.size(0));
+        assertEquals(KeysetPage.DEFAULT_LIMIT, KeysetPage.size(-5));
+        assertEquals(10, KeysetPage.size(10));
+        assertEquals(KeysetPage.MAX_LIMIT, KeysetPage.size(10_000));
+    }
+
+    @Test
+    void missingCursorStartsFromTheBeginning() {
+        assertEquals(0L, KeysetPage.after(null));
+        assertEquals(42L, KeysetPage.after(42L));
+    }
+
+    @Test
+    void fullPageNamesTheLastIdAsTheNextCursor() {
+        ResponseEntity<List<Long>> page = KeysetPage.of(ids(11, 20), 10, Function.identity());
+        assertEquals("20", page.getHeaders().getFirst(KeysetPage.NEXT_CURSOR_HEADER));
+        assertEquals(10, page.getBody().size());
+    }
+
+    @Test
+    void shortOrEmptyPageIsTheLast() {
+        assertNull(KeysetPage.of(ids(11, 15), 10, Function.identity())
+                .getHeaders().getFirst(KeysetPage.NEXT_CURSOR_HEADER));
+        assertNull(KeysetPage.of(List.<Long>of(), 10, Function.identity())
+                .getHeaders().getFirst(KeysetPage.NEXT_CURSOR_HEADER));
+    }
+
+    private static List<Long> ids(long from, long to) {
+        return LongStream.rangeClosed(from, to).boxed().toList();
+    }
+}
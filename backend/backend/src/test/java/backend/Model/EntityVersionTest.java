@@ -0,0 +1,53 @@
+package backend.Model;
+
+import jakarta.persistence.OptimisticLockException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Versions start at zero, move on every update and reject stale writes.
+ */
+@DataJpaTest
+class EntityVersionTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void updateBumpsTheVersion() {
+        ChallengeModel challenge = entityManager.persistFlushFind(new ChallengeModel(null, "Bake off", null,
+                "Baking", "Easy", LocalDate.of(2026, 5, 1), LocalDate.of(2026, 5, 7)));
+        assertEquals(0L, challenge.getVersion());
+
+        challenge.setChallengeTitle("Great bake off");
+        entityManager.flush();
+        assertEquals(1L, challenge.getVersion());
+    }
+
+    @Test
+    void staleCopyCannotBeMerged() {
+        PlaningModel plan = new PlaningModel();
+        plan.setPlanTitle("Week one");
+        Long id = entityManager.persistAndFlush(plan).getId();
+        entityManager.clear();
+
+        PlaningModel stale = entityManager.find(PlaningModel.class, id);
+        entityManager.detach(stale);
+        entityManager.find(PlaningModel.class, id).setPlanTitle("Week two");
+        entityManager.flush();
+        entityManager.clear();
+
+        stale.setPlanTitle("Week three");
+        assertThrows(OptimisticLockException.class, () -> {
+            entityManager.merge(stale);
+            entityManager.flush();
+        });
+    }
+}
@@ -0,0 +1,143 @@
+package backend.Model;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The SQL each kind of recipe edit costs. Batching is off so every row write
+ * is its own statement and can be counted.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.jdbc.batch_size=0",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=backend.Model.RecipeListWritesTest$RecordingInspector"
+})
+class RecipeListWritesTest {
+
+    private static final String RECIPES = "manage_recipe_model ";
+    private static final String INGREDIENTS = "manage_recipe_model_ingredients";
+    private static final String INSTRUCTIONS = "manage_recipe_model_instructions";
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Long recipeId;
+
+    @BeforeEach
+    void saveRecipe() {
+        ManageRecipeModel recipe = new ManageRecipeModel();
+        recipe.setRecipeName("Dhal");
+        recipe.setCategory("Curry");
+        List<String> ingredients = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ingredients.add("ingredient " + i);
+        }
+        List<String> instructions = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            instructions.add("step " + i);
+        }
+        recipe.setIngredients(ingredients);
+        recipe.setInstructions(instructions);
+        recipe.setMediaItems(new ArrayList<>(List.of(new ManageRecipeModel.MediaItem("/uploads/dhal.jpg", "image/jpeg", null))));
+        recipeId = entityManager.persistAndFlush(recipe).getId();
+        entityManager.clear();
+    }
+
+    @Test
+    void renameUpdatesOnlyTheRecipeRow() {
+        List<String> writes = edit(details -> details.setRecipeName("Red lentil dhal"));
+        assertEquals(1, writes.size(), writes::toString);
+        assertEquals(1, count(writes, "update " + RECIPES));
+    }
+
+    @Test
+    void changingOneIngredientUpdatesOneRow() {
+        List<String> writes = edit(details -> details.getIngredients().set(7, "2 cups red lentils"));
+        assertEquals(2, writes.size(), writes::toString);
+        assertEquals(1, count(writes, "update " + INGREDIENTS));
+        assertEquals(1, count(writes, "update " + RECIPES));
+        assertEquals("2 cups red lentils", reload().getIngredients().get(7));
+    }
+
+    @Test
+    void appendingAnInstructionInsertsOneRow() {
+        List<String> writes = edit(details -> details.getInstructions().add("Serve with rice"));
+        assertEquals(2, writes.size(), writes::toString);
+        assertEquals(1, count(writes, "insert into " + INSTRUCTIONS));
+        assertEquals(1, count(writes, "update " + RECIPES));
+        assertEquals("Serve with rice", reload().getInstructions().get(10));
+    }
+
+    @Test
+    void removingTheLastIngredientDeletesOneRow() {
+        List<String> writes = edit(details -> details.getIngredients().remove(19));
+        assertEquals(2, writes.size(), writes::toString);
+        assertEquals(1, count(writes, "delete from " + INGREDIENTS));
+        assertEquals(1, count(writes, "update " + RECIPES));
+        assertEquals(19, reload().getIngredients().size());
+    }
+
+    @Test
+    void resubmittingTheSameRecipeWritesNothing() {
+        List<String> writes = edit(details -> { });
+        assertEquals(List.of(), writes);
+    }
+
+    /**
+     * Applies an edit the way the update endpoint does, to a copy of the
+     * stored recipe, and returns the insert, update and delete statements the
+     * flush issued.
+     */
+    private List<String> edit(Consumer<ManageRecipeModel> change) {
+        ManageRecipeModel recipe = entityManager.find(ManageRecipeModel.class, recipeId);
+        ManageRecipeModel details = new ManageRecipeModel();
+        details.setRecipeName(recipe.getRecipeName());
+        details.setCategory(recipe.getCategory());
+        details.setIngredients(new ArrayList<>(recipe.getIngredients()));
+        details.setInstructions(new ArrayList<>(recipe.getInstructions()));
+        details.setMediaItems(new ArrayList<>(recipe.getMediaItems()));
+        change.accept(details);
+
+        RecordingInspector.STATEMENTS.clear();
+        recipe.applyUpdate(details);
+        entityManager.flush();
+        List<String> writes = RecordingInspector.STATEMENTS.stream()
+                .map(sql -> sql.toLowerCase(Locale.ROOT))
+                .filter(sql -> sql.startsWith("insert") || sql.startsWith("update") || sql.startsWith("delete"))
+                .toList();
+        entityManager.clear();
+        return writes;
+    }
+
+    private ManageRecipeModel reload() {
+        ManageRecipeModel recipe = entityManager.find(ManageRecipeModel.class, recipeId);
+        recipe.getIngredients().size();
+        recipe.getInstructions().size();
+        return recipe;
+    }
+
+    private static long count(List<String> writes, String prefix) {
+        return writes.stream().filter(sql -> sql.startsWith(prefix)).count();
+    }
+
+    public static class RecordingInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql.strip());
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package backend.Repository;
+
+import backend.Model.PlaningModel;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A plan's recipe references keep their order and duplicates, and can be
+ * looked up by recipe.
+ */
+@DataJpaTest
+class PlaningRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PlaningRepository planingRepository;
+
+    @Test
+    void recipeIdsKeepPlanOrder() {
+        Long id = save(30L, 10L, 20L, 10L);
+        PlaningModel plan = entityManager.find(PlaningModel.class, id);
+        assertEquals(List.of(30L, 10L, 20L, 10L), plan.getRecipeIds());
+
+        plan.getRecipeIds().add(1, 40L);
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(List.of(30L, 40L, 10L, 20L, 10L), entityManager.find(PlaningModel.class, id).getRecipeIds());
+    }
+
+    @Test
+    void plansAreFoundByAReferencedRecipe() {
+        Long first = save(10L, 20L, 10L);
+        Long second = save(20L);
+        save(30L);
+        assertEquals(List.of(first), planingRepository.findIdsByRecipeId(10L));
+        assertEquals(List.of(first, second), planingRepository.findIdsByRecipeId(20L).stream().sorted().toList());
+        assertEquals(List.of(), planingRepository.findIdsByRecipeId(99L));
+    }
+
+    private Long save(Long... recipeIds) {
+        PlaningModel plan = new PlaningModel();
+        plan.setPlanTitle("Week");
+        plan.setRecipeIds(new ArrayList<>(List.of(recipeIds)));
+        Long id = entityManager.persistAndFlush(plan).getId();
+        entityManager.clear();
+        return id;
+    }
+}
@@ -0,0 +1,64 @@
+package backend.Service;
+
+import backend.Service.ChallengeIntervalTree.Interval;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Interval tree queries checked against a linear scan.
+ */
+class ChallengeIntervalTreeTest {
+
+    @Test
+    void bothEndsAreInclusive() {
+        ChallengeIntervalTree tree = ChallengeIntervalTree.build(List.of(
+                interval(1, 10, 20), interval(2, 21, 30), interval(3, 5, 9)));
+        assertEquals(List.of(1L), ids(tree.overlapping(20, 20)));
+        assertEquals(List.of(1L, 2L), ids(tree.overlapping(20, 21)));
+        assertEquals(List.of(3L, 1L), ids(tree.overlapping(9, 10)));
+        assertTrue(tree.overlapping(31, 40).isEmpty());
+        assertEquals(List.of(1L, 2L), ids(tree.startingBetween(10, 21)));
+        assertTrue(ChallengeIntervalTree.EMPTY.overlapping(0, Long.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    void queriesMatchALinearScan() {
+        Random random = new Random(13);
+        List<Interval> intervals = new ArrayList<>();
+        for (int id = 1; id <= 2_000; id++) {
+            long start = random.nextInt(3_650);
+            // Mostly short challenges with a few that run for years
+            long length = random.nextInt(10) == 0 ? random.nextInt(2_000) : random.nextInt(30);
+            intervals.add(interval(id, start, start + length));
+        }
+        ChallengeIntervalTree tree = ChallengeIntervalTree.build(intervals);
+        assertEquals(intervals.size(), tree.size());
+
+        for (int q = 0; q < 500; q++) {
+            long from = random.nextInt(4_000) - 100;
+            long to = from + random.nextInt(60);
+            List<Long> expectedOverlap = intervals.stream()
+                    .filter(i -> i.start() <= to && i.end() >= from)
+                    .map(Interval::id).sorted().toList();
+            List<Long> expectedStarting = intervals.stream()
+                    .filter(i -> i.start() >= from && i.start() <= to)
+                    .map(Interval::id).sorted().toList();
+            assertEquals(expectedOverlap, ids(tree.overlapping(from, to)).stream().sorted().toList());
+            assertEquals(expectedStarting, ids(tree.startingBetween(from, to)).stream().sorted().toList());
+        }
+    }
+
+    private static Interval interval(long id, long start, long end) {
+        return new Interval(id, start, end, "Baking", "Easy");
+    }
+
+    private static List<Long> ids(List<Interval> intervals) {
+        return intervals.stream().map(Interval::id).toList();
+    }
+}
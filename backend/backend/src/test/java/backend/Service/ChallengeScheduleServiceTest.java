@@ -0,0 +1,114 @@
+package backend.Service;
+
+import backend.Event.ChallengeChangedEvent;
+import backend.Event.ChangeType;
+import backend.Model.ChallengeModel;
+import backend.Repository.ChallengeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Paging, sorting and event updates of the in-memory challenge schedule,
+ * over a mocked challenge table.
+ */
+class ChallengeScheduleServiceTest {
+
+    private static final LocalDate MAY_1 = LocalDate.of(2026, 5, 1);
+
+    private final Map<Long, ChallengeModel> rows = new HashMap<>();
+    private ChallengeRepository repository;
+    private ChallengeScheduleService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void createService() {
+        save(challenge(1L, "baking", "Hard", MAY_1, MAY_1.plusDays(30)));
+        save(challenge(2L, "Vegan", "Easy", MAY_1.plusDays(10), MAY_1.plusDays(12)));
+        save(challenge(3L, "Soup", "Medium", MAY_1.plusDays(40), MAY_1.plusDays(50)));
+        save(challenge(4L, "Baking", "Easy", MAY_1.minusDays(5), MAY_1.plusDays(11)));
+
+        repository = mock(ChallengeRepository.class);
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenAnswer(invocation ->
+                rows.values().stream().sorted((a, b) -> Long.compare(a.getId(), b.getId())).toList());
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(4L), any(Limit.class))).thenReturn(List.of());
+        when(repository.findAllById(any())).thenAnswer(invocation ->
+                ((Collection<Long>) invocation.getArgument(0)).stream().map(rows::get).toList());
+        service = new ChallengeScheduleService(repository);
+    }
+
+    @Test
+    void queriesUseTheDatabaseUntilLoaded() {
+        PageRequest page = PageRequest.of(0, 10);
+        service.overlapping(MAY_1, MAY_1.plusDays(1), page);
+        verify(repository).findByStartDateLessThanEqualAndEndDateGreaterThanEqual(
+                MAY_1.plusDays(1), MAY_1, PageRequest.of(0, 10, Sort.by("id")));
+    }
+
+    @Test
+    void activeChallengesAreSortedAndPaged() {
+        service.load();
+        Page<ChallengeModel> first = service.activeOn(MAY_1.plusDays(11),
+                PageRequest.of(0, 2, Sort.by("category", "difficulty")));
+        assertEquals(3, first.getTotalElements());
+        // Categories compare case-insensitively, then by difficulty
+        assertEquals(List.of(4L, 1L), ids(first));
+        Page<ChallengeModel> second = service.activeOn(MAY_1.plusDays(11),
+                PageRequest.of(1, 2, Sort.by("category", "difficulty")));
+        assertEquals(List.of(2L), ids(second));
+    }
+
+    @Test
+    void upcomingChallengesStartWithinTheRange() {
+        service.load();
+        Page<ChallengeModel> upcoming = service.startingBetween(MAY_1, MAY_1.plusDays(40),
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "startDate")));
+        assertEquals(List.of(3L, 2L, 1L), ids(upcoming));
+    }
+
+    @Test
+    void eventsUpdateTheTree() {
+        service.load();
+        ChallengeModel moved = challenge(3L, "Soup", "Medium", MAY_1.plusDays(5), MAY_1.plusDays(6));
+        save(moved);
+        service.onChallengeChanged(new ChallengeChangedEvent(3L, moved, ChangeType.UPDATED));
+        rows.remove(1L);
+        service.onChallengeChanged(new ChallengeChangedEvent(1L, null, ChangeType.DELETED));
+        assertEquals(List.of(3L, 4L), ids(service.activeOn(MAY_1.plusDays(5), PageRequest.of(0, 10))));
+    }
+
+    @Test
+    void unknownSortPropertyIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.activeOn(MAY_1, PageRequest.of(0, 10, Sort.by("challengeTitle"))));
+    }
+
+    private void save(ChallengeModel challenge) {
+        rows.put(challenge.getId(), challenge);
+    }
+
+    private static List<Long> ids(Page<ChallengeModel> page) {
+        return page.getContent().stream().map(ChallengeModel::getId).toList();
+    }
+
+    private static ChallengeModel challenge(Long id, String category, String difficulty, LocalDate start, LocalDate end) {
+        return new ChallengeModel(id, "Challenge " + id, null, category, difficulty, start, end);
+    }
+}
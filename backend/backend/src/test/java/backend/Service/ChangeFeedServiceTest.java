@@ -0,0 +1,149 @@
+package backend.Service;
+
+import backend.Controller.ChangeFeedController;
+import backend.Event.ChangeType;
+import backend.Service.ChangeFeedService.Change;
+import backend.Service.ChangeFeedService.Entity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Coalescing, Last-Event-ID replay and the subscriber limit of the change
+ * feed, read through its endpoint. The coalescing window is long enough never
+ * to elapse, so each test flushes the feed itself.
+ */
+class ChangeFeedServiceTest {
+
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\d+-\\d+)");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ChangeFeedService feed;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        feed = new ChangeFeedService(new ObjectMapper(), meterRegistry, Duration.ofHours(1),
+                3, 16, 3, Duration.ofMinutes(1), Duration.ofMinutes(5));
+        mockMvc = MockMvcBuilders.standaloneSetup(new ChangeFeedController(feed)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.shutdown();
+    }
+
+    @Test
+    void changesToOneEntityWithinTheWindowAreSentOnce() throws Exception {
+        MockHttpServletResponse response = open("/api/changes");
+        feed.publish(new Change(Entity.RECIPE, 1L, ChangeType.CREATED, 0L));
+        feed.publish(new Change(Entity.RECIPE, 1L, ChangeType.UPDATED, 1L));
+        feed.publish(new Change(Entity.RECIPE, 2L, ChangeType.CREATED, 0L));
+        feed.publish(new Change(Entity.RECIPE, 2L, ChangeType.DELETED, null));
+        feed.publish(new Change(Entity.PLAN, 3L, ChangeType.UPDATED, 4L));
+        feed.publish(new Change(Entity.PLAN, 3L, ChangeType.DELETED, null));
+        feed.flush();
+
+        String body = awaitContent(response, "\"id\":3");
+        assertEquals(2, EVENT_ID.matcher(body).results().count(), body);
+        assertTrue(body.contains("{\"entity\":\"RECIPE\",\"id\":1,\"type\":\"CREATED\",\"version\":1}"), body);
+        assertTrue(body.contains("{\"entity\":\"PLAN\",\"id\":3,\"type\":\"DELETED\",\"version\":null}"), body);
+        assertFalse(body.contains("\"id\":2"), body);
+        assertEquals(3, meterRegistry.counter("changefeed.coalesced").count());
+        assertEquals(2, meterRegistry.counter("changefeed.events").count());
+    }
+
+    @Test
+    void reconnectingWithLastEventIdReplaysOnlyTheMissedChanges() throws Exception {
+        MockHttpServletResponse first = open("/api/changes");
+        feed.publish(new Change(Entity.RECIPE, 1L, ChangeType.UPDATED, 1L));
+        feed.flush();
+        String lastEventId = lastEventId(awaitContent(first, "\"id\":1"));
+
+        feed.publish(new Change(Entity.RECIPE, 2L, ChangeType.UPDATED, 1L));
+        feed.flush();
+        feed.publish(new Change(Entity.CHALLENGE, 3L, ChangeType.UPDATED, 1L));
+        feed.flush();
+
+        MockHttpServletResponse resumed = open("/api/changes?entities=recipe&lastEventId=" + lastEventId);
+        String body = awaitContent(resumed, "\"id\":2");
+        assertFalse(body.contains("\"id\":1,"), body);
+        assertFalse(body.contains("CHALLENGE"), body);
+        assertFalse(body.contains("event:reset"), body);
+    }
+
+    @Test
+    void idsFromAnotherRunOrPastTheHistoryGetAReset() throws Exception {
+        MockHttpServletResponse first = open("/api/changes");
+        feed.publish(new Change(Entity.RECIPE, 1L, ChangeType.UPDATED, 1L));
+        feed.flush();
+        String lastEventId = lastEventId(awaitContent(first, "\"id\":1"));
+        // The history holds three changes, so the one after the first is gone
+        for (long id = 2; id <= 5; id++) {
+            feed.publish(new Change(Entity.RECIPE, id, ChangeType.UPDATED, 1L));
+            feed.flush();
+        }
+
+        awaitContent(open("/api/changes?lastEventId=" + lastEventId), "event:reset");
+        awaitContent(open("/api/changes?lastEventId=1-1"), "event:reset");
+    }
+
+    @Test
+    void subscribersBeyondTheLimitAreTurnedAway() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            open("/api/changes");
+        }
+        mockMvc.perform(get("/api/changes"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "30"));
+        mockMvc.perform(get("/api/changes?entities=ingredient"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private MockHttpServletResponse open(String uri) throws Exception {
+        return mockMvc.perform(get(uri))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (System.nanoTime() < deadline) {
+            String body = response.getContentAsString();
+            if (body.contains(expected)) {
+                return body;
+            }
+            Thread.sleep(10);
+        }
+        return fail("Timed out waiting for " + expected + " in " + response.getContentAsString());
+    }
+
+    private static String lastEventId(String body) {
+        Matcher matcher = EVENT_ID.matcher(body);
+        String last = null;
+        while (matcher.find()) {
+            last = matcher.group(1);
+        }
+        assertTrue(last != null, body);
+        return last;
+    }
+}
@@ -0,0 +1,142 @@
+package backend.Service;
+
+import backend.Model.ManageRecipeModel.MediaItem;
+import backend.Model.MediaBlob;
+import backend.Repository.MediaBlobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Staging, deduplicating commits and reference counting, with the blob table
+ * mocked.
+ */
+class ContentAddressedMediaStoreTest {
+
+    private static final byte[] CONTENT = "not really a jpeg".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path uploads;
+
+    private MediaBlobRepository blobs;
+    private ContentAddressedMediaStore store;
+
+    @BeforeEach
+    void createStore() {
+        MediaFileService files = mock(MediaFileService.class);
+        when(files.getUploadPath()).thenReturn(uploads);
+        when(files.blobPath(anyString())).thenAnswer(invocation -> {
+            String hash = invocation.getArgument(0);
+            return uploads.resolve("cas").resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+        });
+        blobs = mock(MediaBlobRepository.class);
+        store = new ContentAddressedMediaStore(files, blobs, "content-addressed");
+    }
+
+    @Test
+    void stagingHashesTheContent() throws Exception {
+        ContentAddressedMediaStore.StagedMedia staged = store.stage(new ByteArrayInputStream(CONTENT), ".jpg");
+        assertEquals(sha256(CONTENT), staged.hash());
+        assertEquals(CONTENT.length, staged.size());
+        assertArrayEquals(CONTENT, Files.readAllBytes(staged.file()));
+        assertEquals(staged.hash(), store.stageFile(staged.file(), ".jpg").hash());
+    }
+
+    @Test
+    void firstCommitStoresTheBlobUnderItsHash() throws Exception {
+        ContentAddressedMediaStore.StagedMedia staged = store.stage(new ByteArrayInputStream(CONTENT), ".jpg");
+        String name = store.commit(staged);
+
+        assertEquals(staged.hash() + ".jpg", name);
+        assertFalse(Files.exists(staged.file()));
+        Path blob = uploads.resolve("cas").resolve(name.substring(0, 2)).resolve(name.substring(2, 4)).resolve(staged.hash());
+        assertArrayEquals(CONTENT, Files.readAllBytes(blob));
+        verify(blobs).save(any(MediaBlob.class));
+    }
+
+    @Test
+    void duplicateContentIsStoredOnceAndTouched() throws Exception {
+        String first = store.commit(store.stage(new ByteArrayInputStream(CONTENT), ".jpg"));
+        Path blob = uploads.resolve("cas").resolve(first.substring(0, 2)).resolve(first.substring(2, 4))
+                .resolve(first.substring(0, 64));
+        Files.setLastModifiedTime(blob, FileTime.from(Instant.now().minusSeconds(86_400)));
+        when(blobs.existsById(first.substring(0, 64))).thenReturn(true);
+
+        ContentAddressedMediaStore.StagedMedia again = store.stage(new ByteArrayInputStream(CONTENT), ".jpg");
+        assertEquals(first, store.commit(again));
+        assertFalse(Files.exists(again.file()));
+        assertTrue(Files.getLastModifiedTime(blob).toInstant().isAfter(Instant.now().minusSeconds(60)));
+        verify(blobs, times(1)).save(any(MediaBlob.class));
+    }
+
+    @Test
+    void aRecipeCountsOncePerBlob() {
+        String a = hash('a');
+        store.retain(List.of(item(a + ".jpg"), item(a + ".jpg"), item("1700000000_12.jpg")));
+        verify(blobs).adjustRefCount(Set.of(a), 1);
+
+        store.release(List.of(item("1700000000_12.jpg")));
+        verify(blobs, never()).adjustRefCount(any(), eq(-1));
+    }
+
+    @Test
+    void replaceMovesOnlyTheChangedReferences() {
+        String a = hash('a');
+        String b = hash('b');
+        String c = hash('c');
+        store.replace(List.of(item(a + ".jpg"), item(b + ".mp4")), List.of(item(b + ".mp4"), item(c + ".png")));
+        verify(blobs).adjustRefCount(Set.of(c), 1);
+        verify(blobs).adjustRefCount(Set.of(a), -1);
+        verify(blobs, never()).adjustRefCount(eq(Set.of(b)), anyInt());
+    }
+
+    @Test
+    void retainAllGroupsBlobsByCount() {
+        String a = hash('a');
+        String b = hash('b');
+        String c = hash('c');
+        store.retainAll(List.of(
+                List.of(item(a + ".jpg"), item(b + ".jpg")),
+                List.of(item(a + ".jpg")),
+                List.of(item(a + ".jpg"), item(c + ".jpg"))));
+        verify(blobs).adjustRefCount(Set.of(a), 3);
+        verify(blobs).adjustRefCount(Set.of(b, c), 1);
+    }
+
+    private static MediaItem item(String path) {
+        return new MediaItem(path, "image/jpeg", null);
+    }
+
+    private static String hash(char c) {
+        return String.valueOf(c).repeat(64);
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
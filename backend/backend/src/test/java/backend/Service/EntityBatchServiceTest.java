@@ -0,0 +1,197 @@
+package backend.Service;
+
+import backend.Event.ChallengeChangedEvent;
+import backend.Event.ChangeType;
+import backend.Model.ChallengeModel;
+import backend.Model.ManageRecipeModel;
+import backend.Repository.ChallengeRepository;
+import backend.Repository.ManageRecipeRepository;
+import backend.Repository.PlaningRepository;
+import backend.Service.EntityBatchService.BatchGet;
+import backend.Service.EntityBatchService.ItemResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Per-item outcomes of batch writes, and request-ordered multi-gets, over an
+ * embedded database. Caches and change events are mocks.
+ */
+@DataJpaTest
+class EntityBatchServiceTest {
+
+    private static final int MAX_ITEMS = 5;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ManageRecipeRepository manageRecipeRepository;
+
+    @Autowired
+    private ChallengeRepository challengeRepository;
+
+    @Autowired
+    private PlaningRepository planingRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final EntityLookupService entityLookupService = mock(EntityLookupService.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final ContentAddressedMediaStore mediaStore = mock(ContentAddressedMediaStore.class);
+
+    private EntityBatchService service;
+    private Long existing;
+
+    @BeforeEach
+    void setUp() {
+        service = new EntityBatchService(manageRecipeRepository, challengeRepository, planingRepository,
+                new MediaUploadRules(new ObjectMapper()), mediaStore, entityLookupService,
+                mock(MealPlanService.class), eventPublisher, transactionManager, MAX_ITEMS);
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+        existing = testEntityManager.persistAndGetId(challenge("Plank"), Long.class);
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    @Test
+    void multiGetKeepsRequestOrderAndReportsMissingIds() {
+        BatchGet<ChallengeModel> batch = service.getChallenges(List.of(999L, existing, existing));
+        assertEquals(3, batch.items().size());
+        assertNull(batch.items().get(0));
+        assertEquals("Plank", batch.items().get(1).getChallengeTitle());
+        assertEquals(existing, batch.items().get(2).getId());
+        assertEquals(List.of(999L), batch.missing());
+
+        assertThrows(IllegalArgumentException.class, () -> service.getChallenges(Arrays.asList(existing, null)));
+    }
+
+    @Test
+    void createReportsEachItemByPosition() {
+        ChallengeModel stale = challenge("Squats");
+        stale.setId(existing);
+        stale.setVersion(7L);
+        List<ItemResult> results = service.createChallenges(Arrays.asList(challenge("Lunges"), null, stale));
+
+        assertEquals(201, results.get(0).status());
+        assertNotNull(results.get(0).id());
+        assertEquals(0L, results.get(0).version());
+        assertEquals(400, results.get(1).status());
+        assertEquals("Missing item", results.get(1).error());
+        // A create ignores any id and version the client sent
+        assertEquals(201, results.get(2).status());
+        assertNotEquals(existing, results.get(2).id());
+        assertEquals(List.of(0, 1, 2), results.stream().map(ItemResult::index).toList());
+        assertEquals(3, challengeRepository.count());
+        verify(eventPublisher, times(2)).publishEvent(any(ChallengeChangedEvent.class));
+    }
+
+    @Test
+    void recipesBreakingTheMediaRulesAreRejectedAlone() {
+        ManageRecipeModel noMedia = new ManageRecipeModel();
+        noMedia.setRecipeName("Toast");
+        ManageRecipeModel withPhoto = new ManageRecipeModel();
+        withPhoto.setRecipeName("Dhal");
+        withPhoto.setMediaItems(List.of(new ManageRecipeModel.MediaItem("/uploads/dhal.jpg", "photo", null)));
+
+        List<ItemResult> results = service.createRecipes(List.of(noMedia, withPhoto));
+
+        assertEquals(400, results.get(0).status());
+        assertEquals(EntityBatchService.MEDIA_RULES_ERROR, results.get(0).error());
+        assertEquals(201, results.get(1).status());
+        assertEquals(1, manageRecipeRepository.count());
+    }
+
+    @Test
+    void updateReportsUpdatedUnknownStaleAndInvalidItems() {
+        ChallengeModel current = challenge("Plank, harder");
+        current.setId(existing);
+        current.setVersion(0L);
+        ChallengeModel unknown = challenge("Ghost");
+        unknown.setId(999L);
+        ChallengeModel noId = challenge("Nameless");
+
+        List<ItemResult> results = service.updateChallenges(List.of(current, unknown, noId));
+
+        assertEquals(new ItemResult(0, 200, existing, 1L, null), results.get(0));
+        assertEquals(404, results.get(1).status());
+        assertEquals(999L, results.get(1).id());
+        assertEquals(400, results.get(2).status());
+        assertEquals("id is required", results.get(2).error());
+        testEntityManager.clear();
+        assertEquals("Plank, harder", challengeRepository.findById(existing).orElseThrow().getChallengeTitle());
+        verify(entityLookupService).putChallenge(any(ChallengeModel.class));
+
+        ArgumentCaptor<ChallengeChangedEvent> event = ArgumentCaptor.forClass(ChallengeChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(existing, event.getValue().challengeId());
+        assertEquals(ChangeType.UPDATED, event.getValue().type());
+
+        ChallengeModel stale = challenge("Plank, easier");
+        stale.setId(existing);
+        stale.setVersion(0L);
+        ItemResult rejected = service.updateChallenges(List.of(stale)).get(0);
+        assertEquals(412, rejected.status());
+        assertEquals("version 0 does not match current version 1", rejected.error());
+        testEntityManager.clear();
+        assertEquals("Plank, harder", challengeRepository.findById(existing).orElseThrow().getChallengeTitle());
+    }
+
+    @Test
+    void duplicateIdsInOneUpdateAreAllRejected() {
+        ChallengeModel first = challenge("One");
+        first.setId(existing);
+        ChallengeModel second = challenge("Two");
+        second.setId(existing);
+
+        List<ItemResult> results = service.updateChallenges(List.of(first, second));
+
+        for (ItemResult result : results) {
+            assertEquals(400, result.status());
+            assertEquals("id " + existing + " appears more than once", result.error());
+        }
+        verifyNoInteractions(entityLookupService);
+    }
+
+    @Test
+    void emptyAndOversizedBatchesFailAsAWhole() {
+        assertThrows(IllegalArgumentException.class, () -> service.createChallenges(List.of()));
+        List<ChallengeModel> tooMany = Stream.generate(() -> challenge("Burpees"))
+                .limit(MAX_ITEMS + 1).toList();
+        assertThrows(IllegalArgumentException.class, () -> service.createChallenges(tooMany));
+        assertEquals(1, challengeRepository.count());
+    }
+
+    private static ChallengeModel challenge(String title) {
+        return new ChallengeModel(null, title, "Every day", "Fitness", "Easy",
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+    }
+}
@@ -0,0 +1,106 @@
+package backend.Service;
+
+import backend.Exception.ChallengeNotFoundException;
+import backend.Model.ChallengeModel;
+import backend.Repository.ChallengeRepository;
+import backend.Repository.ManageRecipeRepository;
+import backend.Repository.PlaningRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Version-ordered caching of challenges, including lookups that race a
+ * write or a delete. The repository is mocked.
+ */
+class EntityLookupServiceTest {
+
+    private final ChallengeRepository challenges = mock(ChallengeRepository.class);
+    private final EntityLookupService service = new EntityLookupService(mock(ManageRecipeRepository.class),
+            challenges, mock(PlaningRepository.class),
+            new CaffeineCacheManager(EntityLookupService.RECIPES, EntityLookupService.CHALLENGES, EntityLookupService.PLANS),
+            mock(PlatformTransactionManager.class));
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void missIsLoadedOnceAndThenServedFromTheCache() {
+        when(challenges.findById(1L)).thenReturn(Optional.of(challenge(0L, "Plank")));
+        assertEquals("Plank", service.findChallenge(1L).getChallengeTitle());
+        assertEquals("Plank", service.findChallenge(1L).getChallengeTitle());
+        verify(challenges, times(1)).findById(1L);
+    }
+
+    @Test
+    void lookupThatReadTheOldRowCannotReplaceTheWrittenCopy() {
+        when(challenges.findById(1L)).thenAnswer(invocation -> {
+            // The update commits after this lookup read version 0
+            service.putChallenge(challenge(1L, "Plank, harder"));
+            return Optional.of(challenge(0L, "Plank"));
+        });
+
+        assertEquals("Plank", service.findChallenge(1L).getChallengeTitle());
+        assertEquals("Plank, harder", service.findChallenge(1L).getChallengeTitle());
+        assertEquals(1L, service.findChallenge(1L).getVersion());
+        verify(challenges, times(1)).findById(1L);
+    }
+
+    @Test
+    void writesReachTheCacheOnlyOnceCommitted() {
+        when(challenges.findById(1L)).thenReturn(Optional.of(challenge(0L, "Plank")));
+        service.findChallenge(1L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.putChallenge(challenge(1L, "Rolled back"));
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+        assertEquals("Plank", service.findChallenge(1L).getChallengeTitle());
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.putChallenge(challenge(1L, "Committed"));
+        assertEquals("Plank", service.findChallenge(1L).getChallengeTitle(), "cached before commit");
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertEquals("Committed", service.findChallenge(1L).getChallengeTitle());
+    }
+
+    @Test
+    void lookupRacingADeleteDoesNotBringTheEntityBack() {
+        when(challenges.findById(1L))
+                .thenAnswer(invocation -> {
+                    service.evictChallenge(1L);
+                    return Optional.of(challenge(3L, "Plank"));
+                })
+                .thenReturn(Optional.empty());
+
+        assertEquals("Plank", service.findChallenge(1L).getChallengeTitle());
+        assertThrows(ChallengeNotFoundException.class, () -> service.findChallenge(1L));
+        verify(challenges, times(2)).findById(1L);
+    }
+
+    private static ChallengeModel challenge(Long version, String title) {
+        ChallengeModel challenge = new ChallengeModel(1L, title, "Every day", "Fitness", "Easy", null, null);
+        challenge.setVersion(version);
+        return challenge;
+    }
+}
@@ -0,0 +1,97 @@
+package backend.Service;
+
+import backend.Model.ManageRecipeModel;
+import backend.Model.PlaningModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Field resolution and sparse keyset pages over an embedded database.
+ */
+@DataJpaTest
+@Import(FieldProjectionService.class)
+class FieldProjectionServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private FieldProjectionService service;
+
+    private Long first;
+    private Long second;
+
+    @BeforeEach
+    void saveRecipes() {
+        first = save("Dhal", List.of("lentils", "onion"), List.of(
+                new ManageRecipeModel.MediaItem("/uploads/dhal.jpg", "image/jpeg", null),
+                new ManageRecipeModel.MediaItem("/uploads/dhal.mp4", "video/mp4", 12L)));
+        second = save("Toast", List.of("bread"), List.of());
+        entityManager.clear();
+    }
+
+    @Test
+    void fieldsResolveCaseInsensitivelyWithTheIdFirst() {
+        assertEquals(List.of("id", "recipeName", "ingredients"),
+                service.resolveFields(ManageRecipeModel.class, "RECIPENAME, ingredients,,recipeName", null));
+        assertEquals(List.of("id", "PlanDescription"),
+                service.resolveFields(PlaningModel.class, "planDescription", null));
+    }
+
+    @Test
+    void summaryViewAndErrors() {
+        assertEquals(List.of("id", "recipeName", "category", "prepTime", "cookTime", "difficultyLevel",
+                        FieldProjectionService.COVER_MEDIA),
+                service.resolveFields(ManageRecipeModel.class, null, "summary"));
+        assertThrows(IllegalArgumentException.class, () -> service.resolveFields(ManageRecipeModel.class, "password", null));
+        assertThrows(IllegalArgumentException.class, () -> service.resolveFields(ManageRecipeModel.class, null, "full"));
+        assertThrows(IllegalArgumentException.class, () -> service.resolveFields(ManageRecipeModel.class, " ", null));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.resolveFields(PlaningModel.class, FieldProjectionService.COVER_MEDIA, null));
+    }
+
+    @Test
+    void pageHoldsOnlyTheRequestedFields() {
+        List<Map<String, Object>> page = service.keysetPage(ManageRecipeModel.class,
+                service.resolveFields(ManageRecipeModel.class, "recipeName,ingredients,coverMedia", null), 0, 10);
+        assertEquals(2, page.size());
+        Map<String, Object> dhal = page.get(0);
+        assertEquals(List.of("id", "recipeName", "ingredients", "coverMedia"), List.copyOf(dhal.keySet()));
+        assertEquals(first, dhal.get("id"));
+        assertEquals(List.of("lentils", "onion"), dhal.get("ingredients"));
+        assertEquals("/uploads/dhal.jpg", ((ManageRecipeModel.MediaItem) dhal.get("coverMedia")).getPath());
+        assertNull(page.get(1).get("coverMedia"));
+        assertEquals(List.of("bread"), page.get(1).get("ingredients"));
+    }
+
+    @Test
+    void pagesFollowTheKeysetCursor() {
+        List<String> fields = List.of("id", "recipeName");
+        assertEquals(List.of(Map.of("id", first, "recipeName", "Dhal")),
+                service.keysetPage(ManageRecipeModel.class, fields, 0, 1));
+        assertEquals(List.of(Map.of("id", second, "recipeName", "Toast")),
+                service.keysetPage(ManageRecipeModel.class, fields, first, 10));
+        assertEquals(List.of(), service.keysetPage(ManageRecipeModel.class, fields, second, 10));
+    }
+
+    private Long save(String name, List<String> ingredients, List<ManageRecipeModel.MediaItem> media) {
+        ManageRecipeModel recipe = new ManageRecipeModel();
+        recipe.setRecipeName(name);
+        recipe.setIngredients(new ArrayList<>(ingredients));
+        recipe.setInstructions(new ArrayList<>());
+        recipe.setMediaItems(new ArrayList<>(media));
+        return entityManager.persistAndFlush(recipe).getId();
+    }
+}
@@ -0,0 +1,50 @@
+package backend.Service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Canonical names, readable display forms and id assignment.
+ */
+class IngredientDictionaryTest {
+
+    @Test
+    void quantitiesUnitsAndDescriptorsAreDropped() {
+        assertEquals(IngredientDictionary.normalize("tomato"),
+                IngredientDictionary.normalize("2 cups chopped fresh tomatoes"));
+        assertEquals(IngredientDictionary.normalize("onion"),
+                IngredientDictionary.normalize("1 large onion, finely chopped"));
+        assertEquals(IngredientDictionary.normalize("olive oil"),
+                IngredientDictionary.normalize("200ml olive oil (extra virgin)"));
+        assertEquals("", IngredientDictionary.normalize("2 tbsp"));
+        assertEquals("", IngredientDictionary.normalize(null));
+    }
+
+    @Test
+    void displayNameIsReadable() {
+        assertEquals("tomatoes", IngredientDictionary.displayName("2 cups chopped fresh tomatoes"));
+        assertEquals("basmati rice", IngredientDictionary.displayName("1 cup basmati rice"));
+    }
+
+    @Test
+    void linesWithTheSameCanonicalNameShareAnId() {
+        IngredientDictionary dictionary = new IngredientDictionary();
+        int tomatoes = dictionary.register("3 tomatoes");
+        assertEquals(tomatoes, dictionary.register("1 diced tomato"));
+        assertEquals(tomatoes, dictionary.lookup("tomatoes"));
+        assertEquals(1, dictionary.register("1 cup rice"));
+        assertEquals(-1, dictionary.register("a pinch"));
+        assertEquals(-1, dictionary.lookup("saffron"));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    void nameIsTheFirstReadableFormNotTheStem() {
+        IngredientDictionary dictionary = new IngredientDictionary();
+        int cheese = dictionary.register("100g grated cheese");
+        dictionary.register("cheeses");
+        assertEquals("cheese", dictionary.name(cheese));
+        assertEquals("rice", dictionary.name(dictionary.register("2 cups rice")));
+    }
+}
@@ -0,0 +1,119 @@
+package backend.Service;
+
+import backend.Event.ChangeType;
+import backend.Event.RecipeChangedEvent;
+import backend.Model.ManageRecipeModel;
+import backend.Model.PlaningModel;
+import backend.Repository.ManageRecipeRepository;
+import backend.Repository.PlaningRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Plan expansion, shopping list merging and shopping list caching over
+ * mocked repositories.
+ */
+class MealPlanServiceTest {
+
+    private final EntityLookupService lookup = mock(EntityLookupService.class);
+    private final ManageRecipeRepository recipes = mock(ManageRecipeRepository.class);
+    private final PlaningRepository plans = mock(PlaningRepository.class);
+    private MealPlanService service;
+
+    @BeforeEach
+    void createService() {
+        when(lookup.findPlan(1L)).thenReturn(plan(0L));
+        when(recipes.findAllById(any())).thenReturn(List.of(
+                recipe(10L, "2 cups basmati rice", "1 onion, chopped", "salt to taste"),
+                recipe(20L, "1/2 cup basmati rice", "200g cheeses", "3 onions")));
+        when(plans.findIdsByRecipeId(10L)).thenReturn(List.of(1L));
+        service = new MealPlanService(lookup, recipes, plans, new ConcurrentMapCacheManager());
+    }
+
+    @Test
+    void expandKeepsPlanOrderAndReportsMissingRecipes() {
+        MealPlanService.ExpandedPlan expanded = service.expand(1L);
+        assertEquals(List.of(10L, 20L, 10L), expanded.recipes().stream().map(ManageRecipeModel::getId).toList());
+        assertEquals(List.of(99L), expanded.missingRecipeIds());
+    }
+
+    @Test
+    void shoppingListMergesByCanonicalNameAndShowsReadableNames() {
+        MealPlanService.ShoppingList list = service.shoppingList(1L);
+        assertEquals(3, list.recipeCount());
+        assertEquals(List.of("basmati rice", "cheeses", "onion", "salt"),
+                list.items().stream().map(MealPlanService.ShoppingItem::name).toList());
+
+        MealPlanService.ShoppingItem rice = list.items().get(0);
+        assertEquals(List.of(new MealPlanService.Quantity(4.5, "cup")), rice.quantities());
+        MealPlanService.ShoppingItem onion = list.items().get(2);
+        assertEquals(List.of(new MealPlanService.Quantity(5, "")), onion.quantities());
+        assertEquals(List.of(10L, 20L), List.copyOf(onion.recipeIds()));
+        assertEquals(2, list.items().get(3).unquantified());
+    }
+
+    @Test
+    void quantitiesAreParsedFromTheStartOfTheLine() {
+        assertEquals(new MealPlanService.Quantity(1.5, "tbsp"), MealPlanService.parseQuantity("1 1/2 tbsp oil"));
+        assertEquals(new MealPlanService.Quantity(200, "g"), MealPlanService.parseQuantity("200g pasta"));
+        assertEquals(new MealPlanService.Quantity(2, ""), MealPlanService.parseQuantity("2 eggs"));
+        assertNull(MealPlanService.parseQuantity("salt to taste"));
+    }
+
+    @Test
+    void shoppingListIsCachedForThePlanVersionItWasBuiltFrom() {
+        MealPlanService.ShoppingList first = service.shoppingList(1L);
+        assertSame(first, service.shoppingList(1L));
+        verify(recipes, times(1)).findAllById(any());
+
+        when(lookup.findPlan(1L)).thenReturn(plan(1L));
+        MealPlanService.ShoppingList updated = service.shoppingList(1L);
+        assertEquals(first, updated);
+        verify(recipes, times(2)).findAllById(any());
+        assertSame(updated, service.shoppingList(1L));
+    }
+
+    @Test
+    void listBuiltWhileARecipeChangesIsNotCached() {
+        when(recipes.findAllById(any())).thenAnswer(invocation -> {
+            // The recipe is updated after this read
+            service.onRecipeChanged(new RecipeChangedEvent(10L, null, ChangeType.UPDATED));
+            return List.of(recipe(10L, "2 cups basmati rice"));
+        }).thenReturn(List.of(recipe(10L, "3 cups basmati rice")));
+
+        service.shoppingList(1L);
+        MealPlanService.ShoppingList rebuilt = service.shoppingList(1L);
+        assertEquals(List.of(new MealPlanService.Quantity(6, "cup")), rebuilt.items().get(0).quantities());
+        assertSame(rebuilt, service.shoppingList(1L));
+        verify(recipes, times(2)).findAllById(any());
+    }
+
+    private static PlaningModel plan(Long version) {
+        PlaningModel plan = new PlaningModel();
+        plan.setId(1L);
+        plan.setVersion(version);
+        plan.setRecipeIds(new ArrayList<>(List.of(10L, 99L, 20L, 10L)));
+        return plan;
+    }
+
+    private static ManageRecipeModel recipe(Long id, String... ingredients) {
+        ManageRecipeModel recipe = new ManageRecipeModel();
+        recipe.setId(id);
+        recipe.setIngredients(new ArrayList<>(List.of(ingredients)));
+        recipe.setInstructions(new ArrayList<>());
+        return recipe;
+    }
+}
@@ -0,0 +1,113 @@
+package backend.Service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Derivative generation for an 800 pixel wide photo with the default widths
+ * of 320, 640 and 1280, and a pixel limit of two million.
+ */
+class MediaDerivativeServiceTest {
+
+    @TempDir
+    Path uploads;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MediaFileService files;
+    private MediaDerivativeService service;
+
+    @BeforeEach
+    void createService() throws IOException {
+        files = mock(MediaFileService.class);
+        when(files.getUploadPath()).thenReturn(uploads);
+        photo("photo.png", 800, 600);
+        service = new MediaDerivativeService(files, meterRegistry, new int[]{1280, 320, 640}, 1, 10, 2_000_000);
+    }
+
+    @AfterEach
+    void stopService() {
+        service.shutdown();
+    }
+
+    @Test
+    void originalIsServedUntilTheDerivativeIsReady() {
+        assertNull(service.find("photo.png", 300));
+    }
+
+    @Test
+    void smallestDerivativeAtLeastTheRequestedWidthIsServed() throws Exception {
+        generate();
+        assertEquals("photo_w320.jpg", service.find("photo.png", 300).getFileName().toString());
+        assertEquals("photo_w640.jpg", service.find("photo.png", 321).getFileName().toString());
+        BufferedImage scaled = ImageIO.read(service.find("photo.png", 640).toFile());
+        assertEquals(640, scaled.getWidth());
+        assertEquals(480, scaled.getHeight());
+    }
+
+    @Test
+    void photosAreNeverUpscaled() throws Exception {
+        generate();
+        assertNull(service.find("photo.png", 1000));
+        assertNull(service.find("photo.png", 5000));
+    }
+
+    @Test
+    void deleteAllRemovesEveryDerivative() throws Exception {
+        generate();
+        assertTrue(service.deleteAll("photo.png") > 0);
+        assertNull(service.find("photo.png", 300));
+        assertNull(service.find("photo.png", 640));
+    }
+
+    @Test
+    void largePhotosAreDecodedSubsampled() throws Exception {
+        photo("wide.png", 2600, 700);
+        service.submit("wide.png");
+        for (int i = 0; i < 500 && service.find("wide.png", 1280) == null; i++) {
+            Thread.sleep(10);
+        }
+        BufferedImage scaled = ImageIO.read(service.find("wide.png", 1280).toFile());
+        assertEquals(1280, scaled.getWidth());
+        assertEquals(345, scaled.getHeight());
+    }
+
+    @Test
+    void photosOverThePixelLimitAreSkipped() throws Exception {
+        photo("huge.png", 2000, 1001);
+        service.submit("huge.png");
+        for (int i = 0; i < 500 && meterRegistry.counter("media.derivatives.oversized").count() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, meterRegistry.counter("media.derivatives.oversized").count());
+        assertNull(service.find("huge.png", 320));
+        assertEquals(0, meterRegistry.counter("media.derivatives.failed").count());
+    }
+
+    private void photo(String name, int width, int height) throws IOException {
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", uploads.resolve(name).toFile());
+        when(files.resolve(name)).thenReturn(uploads.resolve(name));
+    }
+
+    private void generate() throws InterruptedException {
+        service.submit("photo.png");
+        for (int i = 0; i < 500 && service.find("photo.png", 640) == null; i++) {
+            Thread.sleep(10);
+        }
+        assertNotNull(service.find("photo.png", 640), "derivatives were not generated in time");
+    }
+}
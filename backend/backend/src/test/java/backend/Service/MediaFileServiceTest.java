@@ -0,0 +1,182 @@
+package backend.Service;
+
+import backend.Model.MediaBlob;
+import backend.Repository.MediaBlobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Range handling of {@link MediaFileService#write} over a 100-byte file, and
+ * the caching and content type headers that go with it.
+ */
+class MediaFileServiceTest {
+
+    private static final int SIZE = 100;
+
+    @TempDir
+    Path directory;
+
+    private static final String HASH = "ab".repeat(32);
+
+    private final MediaBlobRepository mediaBlobRepository = mock(MediaBlobRepository.class);
+    private final MediaFileService service = new MediaFileService(mediaBlobRepository);
+    private Path file;
+    private byte[] content;
+
+    @BeforeEach
+    void createFile() throws IOException {
+        content = new byte[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            content[i] = (byte) i;
+        }
+        file = Files.write(directory.resolve("clip.mp4"), content);
+    }
+
+    @Test
+    void noRangeSendsTheWholeFile() throws IOException {
+        MockHttpServletResponse response = serve(null);
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    void singleRangeIsPartialContent() throws IOException {
+        MockHttpServletResponse response = serve("bytes=10-19");
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 10-19/100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(10, response.getContentLength());
+        assertArrayEquals(slice(10, 20), response.getContentAsByteArray());
+    }
+
+    @Test
+    void rangePastTheEndIsClampedToTheFile() throws IOException {
+        MockHttpServletResponse response = serve("bytes=90-999");
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 90-99/100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(slice(90, 100), response.getContentAsByteArray());
+    }
+
+    @Test
+    void suffixRangeSendsTheTail() throws IOException {
+        MockHttpServletResponse response = serve("bytes=-5");
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 95-99/100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(slice(95, 100), response.getContentAsByteArray());
+    }
+
+    @Test
+    void rangeStartingAtOrBeyondTheEndIsNotSatisfiable() throws IOException {
+        for (String range : new String[]{"bytes=100-", "bytes=999999999-", "bytes=100-200", "bytes=-0"}) {
+            MockHttpServletResponse response = serve(range);
+            assertEquals(416, response.getStatus(), range);
+            assertEquals("bytes */100", response.getHeader(HttpHeaders.CONTENT_RANGE), range);
+            assertEquals(0, response.getContentAsByteArray().length, range);
+        }
+    }
+
+    @Test
+    void malformedRangeIsNotSatisfiable() throws IOException {
+        MockHttpServletResponse response = serve("bytes=20-10");
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void unsatisfiableRangesAreDroppedFromAMultiRangeRequest() throws IOException {
+        MockHttpServletResponse response = serve("bytes=0-4,500-600");
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 0-4/100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(slice(0, 5), response.getContentAsByteArray());
+    }
+
+    @Test
+    void multipleRangesAreSentAsMultipart() throws IOException {
+        MockHttpServletResponse response = serve("bytes=0-4,50-54");
+        assertEquals(206, response.getStatus());
+        assertTrue(response.getContentType().startsWith("multipart/byteranges"));
+        String body = response.getContentAsString();
+        assertTrue(body.contains("Content-Range: bytes 0-4/100"), body);
+        assertTrue(body.contains("Content-Range: bytes 50-54/100"), body);
+    }
+
+    @Test
+    void standInResponsesAreRevalidatedInsteadOfCachedForever() {
+        MockHttpServletResponse immutable = new MockHttpServletResponse();
+        service.applyCacheHeaders(immutable, true);
+        assertEquals("max-age=31536000, public, immutable", immutable.getHeader(HttpHeaders.CACHE_CONTROL));
+
+        MockHttpServletResponse standIn = new MockHttpServletResponse();
+        service.applyCacheHeaders(standIn, false);
+        assertEquals("no-cache", standIn.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals("bytes", standIn.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals("nosniff", immutable.getHeader("X-Content-Type-Options"));
+        assertEquals("nosniff", standIn.getHeader("X-Content-Type-Options"));
+    }
+
+    @Test
+    void contentAddressedNamesAreTypedByTheStoredExtension() {
+        when(mediaBlobRepository.findById(HASH))
+                .thenReturn(Optional.of(new MediaBlob(HASH, ".jpg", 10, 1, Instant.now())));
+        assertEquals(MediaType.IMAGE_JPEG, service.contentType(HASH + ".html"));
+        assertEquals(MediaType.IMAGE_JPEG, service.contentType(HASH + ".svg"));
+        assertEquals(MediaType.IMAGE_JPEG, service.contentType(HASH + ".jpg"));
+        verify(mediaBlobRepository, times(1)).findById(HASH);
+    }
+
+    @Test
+    void onlyPhotoAndVideoTypesAreServedAsSuch() {
+        when(mediaBlobRepository.findById(HASH))
+                .thenReturn(Optional.of(new MediaBlob(HASH, ".html", 10, 1, Instant.now())));
+        assertEquals(MediaType.APPLICATION_OCTET_STREAM, service.contentType(HASH + ".jpg"));
+        assertEquals(MediaType.APPLICATION_OCTET_STREAM, service.contentType("1700000000_1.svg"));
+        assertEquals(MediaType.APPLICATION_OCTET_STREAM, service.contentType("1700000000_1.html"));
+        assertEquals("video/mp4", service.contentType("1700000000_1.mp4").toString());
+        assertEquals(MediaType.IMAGE_PNG, service.contentType("1700000000_1.png"));
+    }
+
+    @Test
+    void blobWithoutARowIsUntypedUntilItHasOne() {
+        when(mediaBlobRepository.findById(HASH)).thenReturn(Optional.empty());
+        assertEquals(MediaType.APPLICATION_OCTET_STREAM, service.contentType(HASH + ".jpg"));
+        when(mediaBlobRepository.findById(HASH))
+                .thenReturn(Optional.of(new MediaBlob(HASH, ".jpg", 10, 1, Instant.now())));
+        assertEquals(MediaType.IMAGE_JPEG, service.contentType(HASH + ".jpg"));
+    }
+
+    private MockHttpServletResponse serve(String range) throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/clip.mp4");
+        if (range != null) {
+            request.addHeader(HttpHeaders.RANGE, range);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        service.write(file, "clip.mp4", attributes, request, response);
+        return response;
+    }
+
+    private byte[] slice(int from, int to) {
+        byte[] slice = new byte[to - from];
+        System.arraycopy(content, from, slice, 0, slice.length);
+        return slice;
+    }
+}
@@ -0,0 +1,118 @@
+package backend.Service;
+
+import backend.Model.MediaBlob;
+import backend.Repository.ManageRecipeRepository;
+import backend.Repository.MediaBlobRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * One sweep over content-addressed blobs and legacy files, in delete mode,
+ * with recipe references and blob rows mocked.
+ */
+class MediaGarbageCollectorTest {
+
+    private static final String KEPT = hash('a');
+    private static final String ORPHAN = hash('b');
+    private static final String UNREGISTERED_KEPT = hash('c');
+    private static final String UNREGISTERED_ORPHAN = hash('d');
+    private static final String IN_USE = hash('e');
+    private static final Set<String> REFERENCED = Set.of(KEPT + ".jpg", UNREGISTERED_KEPT + ".mp4", "old_kept.png");
+
+    @TempDir
+    Path uploads;
+
+    private MediaFileService files;
+    private MediaBlobRepository blobs;
+    private MediaGarbageCollector collector;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void createCollector() throws IOException {
+        files = mock(MediaFileService.class);
+        when(files.getUploadPath()).thenReturn(uploads);
+        MediaDerivativeService derivatives = mock(MediaDerivativeService.class);
+
+        ManageRecipeRepository recipes = mock(ManageRecipeRepository.class);
+        when(recipes.findReferencedMediaPaths(any())).thenAnswer(invocation ->
+                ((Collection<String>) invocation.getArgument(0)).stream().filter(REFERENCED::contains).toList());
+        when(recipes.isMediaHashReferenced(anyString())).thenAnswer(invocation -> {
+            String hash = invocation.getArgument(0);
+            return REFERENCED.stream().anyMatch(name -> name.startsWith(hash + "."));
+        });
+
+        blobs = mock(MediaBlobRepository.class);
+        when(blobs.findAllById(any())).thenReturn(List.of(
+                new MediaBlob(KEPT, ".jpg", 1, 0, Instant.EPOCH),
+                new MediaBlob(ORPHAN, ".png", 1, 0, Instant.EPOCH),
+                new MediaBlob(IN_USE, ".jpg", 1, 1, Instant.EPOCH)));
+
+        collector = new MediaGarbageCollector(files, derivatives, recipes, blobs, new SimpleMeterRegistry(),
+                true, "delete", Duration.ofHours(1), Duration.ofDays(7), 1_000_000);
+    }
+
+    @Test
+    void onlyUnreferencedOldFilesAreCollected() throws IOException {
+        for (String hash : List.of(KEPT, ORPHAN, UNREGISTERED_KEPT, UNREGISTERED_ORPHAN, IN_USE)) {
+            old(blob(hash));
+        }
+        Path legacyKept = old(uploads.resolve("old_kept.png"));
+        Path legacyOrphan = old(uploads.resolve("old_orphan.png"));
+        Path recent = Files.write(uploads.resolve("just_uploaded.png"), new byte[1]);
+
+        MediaGarbageCollector.SweepResult result = collector.sweep();
+
+        assertEquals(8, result.scanned());
+        assertEquals(3, result.collected());
+        assertTrue(Files.exists(blob(KEPT)));
+        assertTrue(Files.exists(blob(UNREGISTERED_KEPT)));
+        assertTrue(Files.exists(blob(IN_USE)));
+        assertTrue(Files.exists(legacyKept));
+        assertTrue(Files.exists(recent));
+        assertFalse(Files.exists(blob(ORPHAN)));
+        assertFalse(Files.exists(blob(UNREGISTERED_ORPHAN)));
+        assertFalse(Files.exists(legacyOrphan));
+        ArgumentCaptor<List<String>> removed = ArgumentCaptor.captor();
+        verify(blobs).deleteAllByIdInBatch(removed.capture());
+        assertEquals(Set.of(ORPHAN, UNREGISTERED_ORPHAN), Set.copyOf(removed.getValue()));
+    }
+
+    private Path blob(String hash) {
+        return uploads.resolve(MediaFileService.CAS_DIR).resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private static Path old(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        if (!Files.exists(file)) {
+            Files.write(file, new byte[1]);
+        }
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+        return file;
+    }
+
+    private static String hash(char c) {
+        return String.valueOf(c).repeat(64);
+    }
+}
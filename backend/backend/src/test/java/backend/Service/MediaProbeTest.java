@@ -0,0 +1,124 @@
+package backend.Service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Probing hand-built image headers and MP4 box layouts.
+ */
+class MediaProbeTest {
+
+    @TempDir
+    Path directory;
+
+    private final MediaProbe probe = new MediaProbe();
+
+    @Test
+    void imagesAreRecognisedByMagicBytes() throws IOException {
+        assertEquals("jpeg", image(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 0}));
+        assertEquals("png", image(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}));
+        assertEquals("gif", image("GIF89a....".getBytes(StandardCharsets.ISO_8859_1)));
+        assertEquals("webp", image("RIFF\0\0\0\0WEBPVP8 ".getBytes(StandardCharsets.ISO_8859_1)));
+        assertEquals("heif", image(box("ftyp", ascii("heic"), ByteBuffer.allocate(4)).array()));
+    }
+
+    @Test
+    void videoWithMoovFirst() throws IOException {
+        MediaProbe.MediaInfo info = probe.probe(write(ftyp(), moov(28_500, 1000, "vide"), mdat(4096)));
+        assertEquals(MediaProbe.Kind.VIDEO, info.kind());
+        assertEquals(28_500L, info.durationMillis());
+        assertEquals(29, info.durationSeconds());
+        assertEquals(1280, info.width());
+        assertEquals(720, info.height());
+        assertEquals("avc1", info.codec());
+    }
+
+    @Test
+    void videoWithMoovAfterTheMediaData() throws IOException {
+        MediaProbe.MediaInfo info = probe.probe(write(ftyp(), mdat(64 * 1024), moov(90, 3, "vide")));
+        assertEquals(30_000L, info.durationMillis());
+    }
+
+    @Test
+    void unreadableFilesAreRejected() throws IOException {
+        assertNull(probe.probe(write(ascii("just some text, not media"))));
+        // Fragmented: no duration in mvhd
+        assertNull(probe.probe(write(ftyp(), moov(0, 1000, "vide"), mdat(16))));
+        // Audio only
+        assertNull(probe.probe(write(ftyp(), moov(1000, 1000, "soun"), mdat(16))));
+        // Box sizes running past the end of the file
+        ByteBuffer truncated = mdat(16);
+        truncated.putInt(0, 1 << 20);
+        assertNull(probe.probe(write(ftyp(), truncated)));
+        // No moov at all
+        assertNull(probe.probe(write(ftyp(), mdat(16))));
+    }
+
+    private String image(byte[] head) throws IOException {
+        byte[] padded = Arrays.copyOf(head, 64);
+        MediaProbe.MediaInfo info = probe.probe(write(ByteBuffer.wrap(padded)));
+        assertEquals(MediaProbe.Kind.IMAGE, info.kind());
+        return info.format();
+    }
+
+    private Path write(ByteBuffer... boxes) throws IOException {
+        int size = 0;
+        for (ByteBuffer box : boxes) {
+            size += box.limit();
+        }
+        ByteBuffer file = ByteBuffer.allocate(size);
+        for (ByteBuffer box : boxes) {
+            file.put(box.duplicate().rewind());
+        }
+        return Files.write(Files.createTempFile(directory, "probe", ".bin"), file.array());
+    }
+
+    private static ByteBuffer ftyp() {
+        return box("ftyp", ascii("isom"), ByteBuffer.allocate(4), ascii("isomavc1"));
+    }
+
+    private static ByteBuffer mdat(int size) {
+        return box("mdat", ByteBuffer.allocate(size));
+    }
+
+    private static ByteBuffer moov(int duration, int timescale, String handler) {
+        ByteBuffer mvhd = ByteBuffer.allocate(100);
+        mvhd.putInt(12, timescale).putInt(16, duration);
+        ByteBuffer tkhd = ByteBuffer.allocate(84);
+        tkhd.putInt(76, 1280 << 16).putInt(80, 720 << 16);
+        ByteBuffer hdlr = ByteBuffer.allocate(25);
+        hdlr.put(8, ascii(handler), 0, 4);
+        ByteBuffer sampleEntry = ByteBuffer.allocate(78);
+        sampleEntry.putShort(24, (short) 1280).putShort(26, (short) 720);
+        ByteBuffer stsd = box("stsd", ByteBuffer.allocate(8).putInt(4, 1), box("avc1", sampleEntry));
+        ByteBuffer trak = box("trak", box("tkhd", tkhd),
+                box("mdia", box("hdlr", hdlr), box("minf", box("stbl", stsd))));
+        return box("moov", box("mvhd", mvhd), trak);
+    }
+
+    private static ByteBuffer box(String type, ByteBuffer... payloads) {
+        int size = 8;
+        for (ByteBuffer payload : payloads) {
+            size += payload.limit();
+        }
+        ByteBuffer box = ByteBuffer.allocate(size).putInt(size).put(ascii(type));
+        for (ByteBuffer payload : payloads) {
+            box.put(payload.duplicate().rewind());
+        }
+        return box.flip();
+    }
+
+    private static ByteBuffer ascii(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.ISO_8859_1));
+    }
+}
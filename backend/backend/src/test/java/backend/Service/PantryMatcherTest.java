@@ -0,0 +1,88 @@
+package backend.Service;
+
+import backend.Model.ManageRecipeModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bitset matching of a pantry against a handful of indexed recipes.
+ */
+class PantryMatcherTest {
+
+    private PantryMatcher matcher;
+
+    @BeforeEach
+    void indexRecipes() {
+        matcher = new PantryMatcher(new IngredientDictionary());
+        matcher.clear();
+        matcher.addAll(List.of(
+                recipe(1L, "2 cups rice", "1 onion", "3 tomatoes"),
+                recipe(2L, "1 cup rice", "200g cheese"),
+                recipe(3L, "4 eggs", "butter"),
+                recipe(4L)));
+        matcher.rebuildFinished();
+    }
+
+    @Test
+    void rankedByCoverageThenFewestMissing() {
+        List<PantryMatcher.PantryMatch> matches = matcher.match(List.of("rice", "tomato", "onions"), Integer.MAX_VALUE, 10);
+        assertEquals(List.of(1L, 2L), ids(matches));
+        assertEquals(3, matches.get(0).matched());
+        assertEquals(0, matches.get(0).missing());
+        assertEquals(1.0, matches.get(0).coverage());
+        assertEquals(0.5, matches.get(1).coverage());
+    }
+
+    @Test
+    void missingIngredientsAreReportedReadably() {
+        List<PantryMatcher.PantryMatch> matches = matcher.match(List.of("rice"), Integer.MAX_VALUE, 10);
+        assertEquals(List.of(2L, 1L), ids(matches));
+        assertEquals(List.of("cheese"), matches.get(0).missingIngredients());
+        assertEquals(List.of("onion", "tomatoes"), matches.get(1).missingIngredients());
+    }
+
+    @Test
+    void maxMissingAndLimitApply() {
+        assertEquals(List.of(2L), ids(matcher.match(List.of("rice"), 1, 10)));
+        assertEquals(List.of(2L), ids(matcher.match(List.of("rice"), Integer.MAX_VALUE, 1)));
+        assertEquals(List.of(), ids(matcher.match(List.of("saffron"), Integer.MAX_VALUE, 10)));
+    }
+
+    @Test
+    void upsertReplacesAndRemoveDrops() {
+        matcher.upsert(recipe(3L, "rice"));
+        assertEquals(List.of(3L, 2L, 1L), ids(matcher.match(List.of("rice"), Integer.MAX_VALUE, 10)));
+        matcher.remove(3L);
+        matcher.remove(2L);
+        assertEquals(List.of(1L), ids(matcher.match(List.of("rice"), Integer.MAX_VALUE, 10)));
+    }
+
+    @Test
+    void compactionKeepsLiveRecipes() {
+        for (long id = 100; id < 3_100; id++) {
+            matcher.upsert(recipe(id, "saffron"));
+        }
+        for (long id = 100; id < 3_100; id++) {
+            matcher.remove(id);
+        }
+        assertEquals(List.of(1L, 2L), ids(matcher.match(List.of("rice", "onion", "tomato"), Integer.MAX_VALUE, 10)));
+        assertTrue(matcher.match(List.of("saffron"), Integer.MAX_VALUE, 10).isEmpty());
+    }
+
+    private static List<Long> ids(List<PantryMatcher.PantryMatch> matches) {
+        return matches.stream().map(PantryMatcher.PantryMatch::recipeId).toList();
+    }
+
+    private static ManageRecipeModel recipe(Long id, String... ingredients) {
+        ManageRecipeModel recipe = new ManageRecipeModel();
+        recipe.setId(id);
+        recipe.setIngredients(new ArrayList<>(List.of(ingredients)));
+        return recipe;
+    }
+}
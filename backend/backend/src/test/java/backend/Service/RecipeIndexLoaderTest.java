@@ -0,0 +1,135 @@
+package backend.Service;
+
+import backend.Event.ChangeType;
+import backend.Event.RecipeChangedEvent;
+import backend.Model.ManageRecipeModel;
+import backend.Repository.ManageRecipeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Paged rebuilds, readiness and changes racing a rebuild, with the recipe
+ * table mocked.
+ */
+class RecipeIndexLoaderTest {
+
+    private final List<String> calls = new ArrayList<>();
+    private final List<Long> indexed = new ArrayList<>();
+    private ManageRecipeRepository recipes;
+    private RecipeIndexLoader loader;
+
+    @BeforeEach
+    void createLoader() {
+        recipes = mock(ManageRecipeRepository.class);
+        RecipeIndex index = new RecipeIndex() {
+            @Override
+            public void clear() {
+                calls.add("clear");
+            }
+
+            @Override
+            public void addAll(List<ManageRecipeModel> page) {
+                calls.add("add " + page.size());
+                page.forEach(recipe -> indexed.add(recipe.getId()));
+            }
+
+            @Override
+            public void rebuildFinished() {
+                calls.add("finished");
+            }
+
+            @Override
+            public void upsert(ManageRecipeModel recipe) {
+                calls.add("upsert " + recipe.getId());
+                indexed.remove(recipe.getId());
+                indexed.add(recipe.getId());
+            }
+
+            @Override
+            public void remove(Long recipeId) {
+                calls.add("remove " + recipeId);
+                indexed.remove(recipeId);
+            }
+        };
+        loader = new RecipeIndexLoader(List.of(index), recipes, mock(PlatformTransactionManager.class), Duration.ofMillis(1));
+    }
+
+    @Test
+    void rebuildPagesThroughTheTableByKey() {
+        when(recipes.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(List.of(recipe(1L), recipe(7L)));
+        when(recipes.findByIdGreaterThanOrderByIdAsc(eq(7L), any(Limit.class))).thenReturn(List.of(recipe(9L)));
+        when(recipes.findByIdGreaterThanOrderByIdAsc(eq(9L), any(Limit.class))).thenReturn(List.of());
+
+        assertFalse(loader.isReady());
+        loader.rebuild();
+        assertTrue(loader.isReady());
+        assertEquals(List.of("clear", "add 2", "add 1", "finished"), calls);
+    }
+
+    @Test
+    void failedRebuildStillFinishesAndIsNotReady() {
+        when(recipes.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(List.of(recipe(1L)));
+        when(recipes.findByIdGreaterThanOrderByIdAsc(eq(1L), any(Limit.class)))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+        assertThrows(DataAccessResourceFailureException.class, loader::rebuild);
+        assertFalse(loader.isReady());
+        assertEquals(List.of("clear", "add 1", "finished"), calls);
+    }
+
+    @Test
+    void startupRebuildIsRetriedUntilItSucceeds() {
+        when(recipes.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class)))
+                .thenThrow(new DataAccessResourceFailureException("database starting"))
+                .thenReturn(List.of());
+
+        loader.rebuildUntilReady();
+        assertTrue(loader.isReady());
+        assertEquals(List.of("clear", "finished", "clear", "finished"), calls);
+    }
+
+    @Test
+    void changesWhileAPageIsReadAreNotOverwrittenByIt() {
+        ManageRecipeModel renamed = recipe(9L);
+        renamed.setRecipeName("Dhal, new");
+        when(recipes.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenAnswer(invocation -> {
+            // The page has been read; these changes land before it is added
+            loader.onRecipeChanged(new RecipeChangedEvent(7L, null, ChangeType.DELETED));
+            loader.onRecipeChanged(new RecipeChangedEvent(9L, renamed, ChangeType.UPDATED));
+            return List.of(recipe(1L), recipe(7L), recipe(9L));
+        });
+        when(recipes.findByIdGreaterThanOrderByIdAsc(eq(9L), any(Limit.class))).thenReturn(List.of());
+
+        loader.rebuild();
+
+        assertEquals(List.of("clear", "remove 7", "upsert 9", "add 1", "finished"), calls);
+        assertEquals(List.of(9L, 1L), indexed);
+
+        // After the rebuild, changes are simply applied
+        loader.onRecipeChanged(new RecipeChangedEvent(1L, null, ChangeType.DELETED));
+        assertEquals(List.of(9L), indexed);
+    }
+
+    private static ManageRecipeModel recipe(Long id) {
+        ManageRecipeModel recipe = new ManageRecipeModel();
+        recipe.setId(id);
+        return recipe;
+    }
+}
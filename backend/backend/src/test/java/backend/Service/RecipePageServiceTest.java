@@ -0,0 +1,128 @@
+package backend.Service;
+
+import backend.Exception.RecipeNotFoundException;
+import backend.Model.ChallengeModel;
+import backend.Model.ManageRecipeModel;
+import backend.Model.PlaningModel;
+import backend.Repository.ChallengeRepository;
+import backend.Repository.PlaningRepository;
+import backend.config.DataSourceRouting;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The recipe page fan-out: results, partial pages and deadlines, with the
+ * lookups mocked.
+ */
+class RecipePageServiceTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private EntityLookupService lookup;
+    private ChallengeRepository challenges;
+    private PlaningRepository plans;
+    private RecipePageService service;
+
+    @BeforeEach
+    void createService() {
+        lookup = mock(EntityLookupService.class);
+        challenges = mock(ChallengeRepository.class);
+        plans = mock(PlaningRepository.class);
+        ManageRecipeModel recipe = new ManageRecipeModel();
+        recipe.setId(1L);
+        when(lookup.findRecipe(1L)).thenReturn(recipe);
+        when(lookup.findRecipe(2L)).thenThrow(new RecipeNotFoundException(2L));
+        when(challenges.findCurrentInRecipeCategory(eq(1L), any(LocalDate.class), any(Limit.class)))
+                .thenReturn(List.of(new ChallengeModel()));
+        when(plans.findIdsByRecipeId(1L)).thenReturn(List.of(5L));
+        when(plans.findAllById(anyList())).thenReturn(List.of(new PlaningModel()));
+        service = new RecipePageService(lookup, challenges, plans, mock(PlatformTransactionManager.class),
+                Duration.ofMillis(300));
+    }
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    void pageHoldsAllThreeParts() throws Exception {
+        RecipePageService.RecipePage page = service.page(1L);
+        assertEquals(1L, page.recipe().getId());
+        assertEquals(1, page.relatedChallenges().size());
+        assertEquals(1, page.plans().size());
+        assertTrue(page.partial().isEmpty());
+    }
+
+    @Test
+    void slowOrFailingRelatedListsLeaveAPartialPage() throws Exception {
+        when(challenges.findCurrentInRecipeCategory(eq(1L), any(LocalDate.class), any(Limit.class)))
+                .thenAnswer(invocation -> {
+                    release.await();
+                    return List.of();
+                });
+        when(plans.findIdsByRecipeId(1L)).thenThrow(new IllegalStateException("replica down"));
+
+        long started = System.nanoTime();
+        RecipePageService.RecipePage page = service.page(1L);
+        assertTrue(Duration.ofNanos(System.nanoTime() - started).toMillis() < 2_000);
+        assertEquals(1L, page.recipe().getId());
+        assertEquals(List.of(), page.relatedChallenges());
+        assertEquals(List.of(), page.plans());
+        assertEquals(List.of("relatedChallenges", "plans"), page.partial());
+    }
+
+    @Test
+    void branchesKeepTheRequestRoute() {
+        List<DataSourceRouting.Route> routes = new CopyOnWriteArrayList<>();
+        when(plans.findIdsByRecipeId(1L)).thenAnswer(invocation -> {
+            routes.add(DataSourceRouting.current());
+            return List.of();
+        });
+        when(lookup.findRecipe(1L)).thenAnswer(invocation -> {
+            routes.add(DataSourceRouting.current());
+            return new ManageRecipeModel();
+        });
+        DataSourceRouting.onPrimary(() -> {
+            try {
+                return service.page(1L);
+            } catch (TimeoutException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertEquals(List.of(DataSourceRouting.Route.PRIMARY, DataSourceRouting.Route.PRIMARY), routes);
+    }
+
+    @Test
+    void missingRecipeFailsThePage() {
+        assertThrows(RecipeNotFoundException.class, () -> service.page(2L));
+    }
+
+    @Test
+    void slowRecipeTimesOut() {
+        when(lookup.findRecipe(1L)).thenAnswer(invocation -> {
+            release.await();
+            return new ManageRecipeModel();
+        });
+        assertThrows(TimeoutException.class, () -> service.page(1L));
+    }
+}
@@ -0,0 +1,102 @@
+package backend.Service;
+
+import backend.Model.ManageRecipeModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Analysis and BM25 ranking over a few recipes.
+ */
+class RecipeSearchIndexTest {
+
+    private RecipeSearchIndex index;
+
+    @BeforeEach
+    void indexRecipes() {
+        index = new RecipeSearchIndex();
+        index.clear();
+        index.addAll(List.of(
+                recipe(1L, "Tomato soup", "Soup", "A warm starter", "4 tomatoes", "1 onion"),
+                recipe(2L, "Baked pasta", "Dinner", "Pasta baked with a tomato sauce", "pasta", "cheese"),
+                recipe(3L, "Lemon cake", "Dessert", "Light and zesty", "flour", "sugar", "lemons"),
+                recipe(4L, "Garden salad", "Lunch", "Fresh greens, cucumber and a few cherry tomatoes "
+                        + "with a long list of other garden vegetables and herbs", "lettuce")));
+        index.rebuildFinished();
+    }
+
+    @Test
+    void analyzerDropsStopWordsAndNumbersAndStems() {
+        assertEquals(List.of("tomato", "bak", "chop", "berry"), TextAnalyzer.analyze("2 Tomatoes, BAKING the chopped berries"));
+        assertEquals(TextAnalyzer.analyze("baked"), TextAnalyzer.analyze("bake"));
+        assertTrue(TextAnalyzer.analyze(null).isEmpty());
+    }
+
+    @Test
+    void nameMatchesOutrankDescriptionMatches() {
+        assertEquals(List.of(1L, 2L, 4L), ids(index.search("tomatoes", 10)));
+    }
+
+    @Test
+    void everyQueryTermAddsToTheScore() {
+        List<RecipeSearchIndex.SearchHit> hits = index.search("baking tomato", 10);
+        assertEquals(2L, hits.get(0).recipeId());
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+    }
+
+    @Test
+    void rareTermsWeighMoreThanCommonOnes() {
+        float common = index.search("tomato", 10).get(0).score();
+        float rare = index.search("lemon", 10).get(0).score();
+        assertTrue(rare > common, rare + " <= " + common);
+    }
+
+    @Test
+    void limitAndUnknownTerms() {
+        assertEquals(List.of(1L), ids(index.search("tomato", 1)));
+        assertTrue(index.search("saffron", 10).isEmpty());
+        assertTrue(index.search("the and of", 10).isEmpty());
+        assertTrue(index.search("tomato", 0).isEmpty());
+    }
+
+    @Test
+    void updatesReplaceAndRemoveRecipes() {
+        index.upsert(recipe(3L, "Tomato tart", "Dessert", null, "pastry"));
+        index.remove(1L);
+        assertEquals(3, index.size());
+        assertEquals(List.of(3L, 2L, 4L), ids(index.search("tomato", 10)));
+        assertTrue(index.search("lemon", 10).isEmpty());
+    }
+
+    @Test
+    void compactionKeepsLiveRecipes() {
+        for (long id = 100; id < 1_400; id++) {
+            index.upsert(recipe(id, "Saffron rice " + id, "Dinner", null, "rice"));
+        }
+        for (long id = 100; id < 1_400; id++) {
+            index.remove(id);
+        }
+        assertEquals(4, index.size());
+        assertTrue(index.search("saffron", 10).isEmpty());
+        assertEquals(List.of(1L, 2L, 4L), ids(index.search("tomato", 10)));
+    }
+
+    private static List<Long> ids(List<RecipeSearchIndex.SearchHit> hits) {
+        return hits.stream().map(RecipeSearchIndex.SearchHit::recipeId).toList();
+    }
+
+    private static ManageRecipeModel recipe(Long id, String name, String category, String description, String... ingredients) {
+        ManageRecipeModel recipe = new ManageRecipeModel();
+        recipe.setId(id);
+        recipe.setRecipeName(name);
+        recipe.setCategory(category);
+        recipe.setRecipeDescription(description);
+        recipe.setIngredients(new ArrayList<>(List.of(ingredients)));
+        return recipe;
+    }
+}
@@ -0,0 +1,100 @@
+package backend.Service;
+
+import backend.Model.ManageRecipeModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * MinHash/LSH candidates and exact Jaccard scoring over a small catalog.
+ */
+class RecipeSimilarityIndexTest {
+
+    private static final String[] CURRY = {"2 cups rice", "1 onion", "3 tomatoes", "garlic", "ginger", "lentils", "cumin", "turmeric"};
+
+    private RecipeSimilarityIndex index;
+
+    @BeforeEach
+    void indexRecipes() {
+        index = new RecipeSimilarityIndex();
+        index.clear();
+        index.addAll(List.of(
+                recipe(1L, "Dinner", CURRY),
+                recipe(2L, "Dinner", "1 cup rice", "onion", "tomato", "2 cloves garlic", "ginger", "lentils", "cumin", "turmeric"),
+                recipe(3L, "Dinner", "rice", "onion", "tomato", "garlic", "ginger", "lentils", "cumin", "chilli"),
+                recipe(4L, "Dessert", "flour", "sugar", "butter", "eggs", "vanilla")));
+        index.rebuildFinished();
+    }
+
+    @Test
+    void jaccardOfFeatureSets() {
+        assertEquals(0.5, RecipeSimilarityIndex.jaccard(new int[]{1, 2, 3}, new int[]{2, 3, 4}));
+        assertEquals(1.0, RecipeSimilarityIndex.jaccard(new int[]{1, 2}, new int[]{1, 2}));
+        assertEquals(0.0, RecipeSimilarityIndex.jaccard(new int[]{1}, new int[]{2}));
+        assertEquals(0.0, RecipeSimilarityIndex.jaccard(new int[0], new int[0]));
+    }
+
+    @Test
+    void featuresIgnoreQuantitiesAndCase() {
+        ManageRecipeModel a = recipe(1L, "Dinner", "2 cups rice", "1 large onion, chopped");
+        ManageRecipeModel b = recipe(2L, " dinner ", "rice", "onions");
+        assertArrayEquals(RecipeSimilarityIndex.features(a), RecipeSimilarityIndex.features(b));
+        assertEquals(0, RecipeSimilarityIndex.features(null).length);
+    }
+
+    @Test
+    void mostSimilarFirstExcludingTheRecipeItself() {
+        List<RecipeSimilarityIndex.SimilarRecipe> similar = index.similar(recipe(1L, "Dinner", CURRY), 10);
+        assertEquals(List.of(2L, 3L), ids(similar));
+        assertEquals(1.0, similar.get(0).similarity());
+        // Seven ingredients, category and difficulty shared out of eleven features
+        assertEquals(9 / 11.0, similar.get(1).similarity());
+        assertEquals(List.of(2L), ids(index.similar(recipe(1L, "Dinner", CURRY), 1)));
+    }
+
+    @Test
+    void unindexedQueryAndEmptyRecipe() {
+        assertEquals(List.of(1L, 2L, 3L), ids(index.similar(recipe(null, "Dinner", CURRY), 10)));
+        assertTrue(index.similar(recipe(5L, null), 10).isEmpty());
+    }
+
+    @Test
+    void updatesReplaceAndRemoveRecipes() {
+        index.upsert(recipe(4L, "Dinner", CURRY));
+        index.remove(2L);
+        assertEquals(List.of(4L, 3L), ids(index.similar(recipe(1L, "Dinner", CURRY), 10)));
+        assertTrue(index.similar(recipe(9L, "Dessert", "flour", "sugar", "butter", "eggs", "vanilla"), 10).isEmpty());
+    }
+
+    @Test
+    void compactionKeepsLiveRecipes() {
+        for (int round = 0; round < 3; round++) {
+            for (long id = 100; id < 1_100; id++) {
+                index.upsert(recipe(id, "Snack", "crackers " + id, "cheese " + id));
+            }
+            for (long id = 100; id < 1_100; id++) {
+                index.remove(id);
+            }
+        }
+        assertEquals(List.of(2L, 3L), ids(index.similar(recipe(1L, "Dinner", CURRY), 10)));
+    }
+
+    private static List<Long> ids(List<RecipeSimilarityIndex.SimilarRecipe> similar) {
+        return similar.stream().map(RecipeSimilarityIndex.SimilarRecipe::recipeId).toList();
+    }
+
+    private static ManageRecipeModel recipe(Long id, String category, String... ingredients) {
+        ManageRecipeModel recipe = new ManageRecipeModel();
+        recipe.setId(id);
+        recipe.setCategory(category);
+        recipe.setDifficultyLevel("Easy");
+        recipe.setIngredients(new ArrayList<>(List.of(ingredients)));
+        return recipe;
+    }
+}
@@ -0,0 +1,182 @@
+package backend.Service;
+
+import backend.Exception.UploadSessionNotFoundException;
+import backend.Service.UploadSessionService.UploadSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Resumable uploads into the legacy (non content-addressed) layout.
+ */
+class UploadSessionServiceTest {
+
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path uploads;
+
+    private UploadSessionService service;
+
+    @BeforeEach
+    void createService() {
+        MediaFileService files = mock(MediaFileService.class);
+        when(files.getUploadPath()).thenReturn(uploads);
+        when(files.legacyName(anyString())).thenAnswer(call -> "stored" + call.getArgument(0));
+        service = new UploadSessionService(files, mock(ContentAddressedMediaStore.class));
+    }
+
+    @Test
+    void chunksAreWrittenAtTheirOffsetsAndCompleteMovesTheFile() throws IOException {
+        UploadSession session = start();
+        assertEquals(4, service.append(session, 0, chunk(0, 4)));
+        assertFalse(session.isComplete());
+        assertEquals(10, service.append(session, 4, chunk(4, 10)));
+        assertTrue(session.isComplete());
+
+        String name = service.complete(session);
+        assertArrayEquals(CONTENT, Files.readAllBytes(uploads.resolve(name)));
+        assertFalse(Files.exists(session.getFile()));
+        assertNull(service.get(session.getId()));
+    }
+
+    @Test
+    void chunkAtTheWrongOffsetIsRefused() throws IOException {
+        UploadSession session = start();
+        service.append(session, 0, chunk(0, 4));
+        assertThrows(IllegalStateException.class, () -> service.append(session, 2, chunk(2, 6)));
+        assertEquals(4, session.getOffset());
+    }
+
+    @Test
+    void chunkRunningPastTheDeclaredLengthIsRefused() throws IOException {
+        UploadSession session = start();
+        assertThrows(IllegalArgumentException.class,
+                () -> service.append(session, 0, new ByteArrayInputStream(new byte[11])));
+    }
+
+    @Test
+    void incompleteUploadCannotBeCompleted() throws IOException {
+        UploadSession session = start();
+        service.append(session, 0, chunk(0, 4));
+        assertThrows(IllegalStateException.class, () -> service.complete(session));
+    }
+
+    @Test
+    void secondFinalizeOfTheSameSessionIsNotFound() throws IOException {
+        UploadSession session = start();
+        service.append(session, 0, chunk(0, 10));
+        assertEquals("stored", service.finalizeUpload(session, s -> service.complete(s)).substring(0, 6));
+        assertThrows(UploadSessionNotFoundException.class,
+                () -> service.finalizeUpload(session, s -> service.complete(s)));
+    }
+
+    @Test
+    void concurrentFinalizeCallsCompleteOnce() throws Exception {
+        UploadSession session = start();
+        service.append(session, 0, chunk(0, 10));
+        CountDownLatch firstHoldsTheLock = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> service.finalizeUpload(session, s -> {
+                firstHoldsTheLock.countDown();
+                await(release);
+                return service.complete(s);
+            }));
+            firstHoldsTheLock.await();
+            Future<String> second = executor.submit(() -> service.finalizeUpload(session, s -> service.complete(s)));
+            release.countDown();
+
+            assertTrue(Files.exists(uploads.resolve(first.get())));
+            Exception failure = assertThrows(Exception.class, second::get);
+            assertInstanceOf(UploadSessionNotFoundException.class, failure.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void chunkIsRefusedWhileTheUploadIsBeingFinalized() throws Exception {
+        UploadSession session = start();
+        service.append(session, 0, chunk(0, 4));
+        AtomicReference<Throwable> refused = new AtomicReference<>();
+        service.finalizeUpload(session, s -> {
+            Thread writer = new Thread(() -> {
+                try {
+                    service.append(session, 4, chunk(4, 10));
+                } catch (Throwable e) {
+                    refused.set(e);
+                }
+            });
+            writer.start();
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return null;
+        });
+        assertInstanceOf(IllegalStateException.class, refused.get());
+        assertEquals(4, session.getOffset());
+    }
+
+    @Test
+    void sweepRemovesOldOrphanedPartialsButKeepsLiveSessions() throws IOException {
+        UploadSession live = start();
+        Path partialDir = live.getFile().getParent();
+        Path orphan = Files.write(partialDir.resolve("lost-in-restart.part"), CONTENT);
+        Path recentOrphan = Files.write(partialDir.resolve("recent.part"), CONTENT);
+        FileTime old = FileTime.from(Instant.now().minus(Duration.ofDays(2)));
+        Files.setLastModifiedTime(orphan, old);
+        Files.setLastModifiedTime(live.getFile(), old);
+
+        service.expireIdleSessions();
+
+        assertFalse(Files.exists(orphan));
+        assertTrue(Files.exists(recentOrphan));
+        assertTrue(Files.exists(live.getFile()));
+    }
+
+    private UploadSession start() throws IOException {
+        return service.create("clip.mp4", "video", "video/mp4", CONTENT.length, 10L, List.of());
+    }
+
+    private static ByteArrayInputStream chunk(int from, int to) {
+        return new ByteArrayInputStream(CONTENT, from, to - from);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package backend.benchmark;
+
+import backend.Service.MediaProbe;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of probing one upload. The videos are 50MB MP4s with the {@code moov}
+ * box before the media data (fast start) and after it, the worst case for a
+ * probe that has to skip {@code mdat} to reach it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MediaProbeBenchmark {
+
+    private static final long MEDIA_DATA_SIZE = 50L * 1024 * 1024;
+
+    private MediaProbe probe;
+    private Path directory;
+    private Path moovFirst;
+    private Path moovLast;
+    private Path photo;
+
+    @Setup
+    public void setUp() throws IOException {
+        probe = new MediaProbe();
+        directory = Files.createTempDirectory("probe-bench");
+        moovFirst = directory.resolve("faststart.mp4");
+        moovLast = directory.resolve("moov-last.mp4");
+        photo = directory.resolve("photo.jpg");
+
+        ByteBuffer ftyp = box("ftyp", ascii("isom"), ByteBuffer.allocate(4), ascii("isomavc1"));
+        ByteBuffer moov = moov(28_500, 1000, 1280, 720);
+        writeVideo(moovFirst, ftyp.duplicate(), moov.duplicate(), false);
+        writeVideo(moovLast, ftyp.duplicate(), moov.duplicate(), true);
+
+        byte[] jpeg = new byte[1024 * 1024];
+        jpeg[0] = (byte) 0xFF;
+        jpeg[1] = (byte) 0xD8;
+        jpeg[2] = (byte) 0xFF;
+        Files.write(photo, jpeg);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public MediaProbe.MediaInfo probeVideoMoovFirst() throws IOException {
+        return probe.probe(moovFirst);
+    }
+
+    @Benchmark
+    public MediaProbe.MediaInfo probeVideoMoovLast() throws IOException {
+        return probe.probe(moovLast);
+    }
+
+    @Benchmark
+    public MediaProbe.MediaInfo probePhoto() throws IOException {
+        return probe.probe(photo);
+    }
+
+    // The media data is left sparse: the probe must never read it
+    private static void writeVideo(Path file, ByteBuffer ftyp, ByteBuffer moov, boolean moovLast) throws IOException {
+        ByteBuffer mdatHeader = ByteBuffer.allocate(8).putInt((int) (MEDIA_DATA_SIZE + 8)).put(ascii("mdat"));
+        mdatHeader.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ftyp);
+            if (!moovLast) {
+                channel.write(moov);
+            }
+            channel.write(mdatHeader);
+            channel.position(channel.position() + MEDIA_DATA_SIZE);
+            if (moovLast) {
+                channel.write(moov);
+            } else {
+                // Extend the file to the end of mdat
+                channel.write(ByteBuffer.allocate(1), channel.position() - 1);
+            }
+        }
+    }
+
+    private static ByteBuffer moov(int duration, int timescale, int width, int height) {
+        ByteBuffer mvhd = ByteBuffer.allocate(100);
+        mvhd.putInt(12, timescale).putInt(16, duration).putInt(20, 0x00010000).putShort(24, (short) 0x0100);
+        ByteBuffer tkhd = ByteBuffer.allocate(84);
+        tkhd.putInt(0, 0x00000003).putInt(12, 1).putInt(20, duration)
+                .putInt(76, width << 16).putInt(80, height << 16);
+        ByteBuffer hdlr = ByteBuffer.allocate(25);
+        hdlr.put(8, ascii("vide"), 0, 4);
+        ByteBuffer sampleEntry = ByteBuffer.allocate(78);
+        sampleEntry.putShort(6, (short) 1).putShort(24, (short) width).putShort(26, (short) height);
+        ByteBuffer stsd = box("stsd", ByteBuffer.allocate(8).putInt(4, 1), box("avc1", sampleEntry));
+        ByteBuffer trak = box("trak", box("tkhd", tkhd),
+                box("mdia", box("hdlr", hdlr), box("minf", box("stbl", stsd))));
+        return box("moov", box("mvhd", mvhd), trak);
+    }
+
+    private static ByteBuffer box(String type, ByteBuffer... payloads) {
+        int size = 8;
+        for (ByteBuffer payload : payloads) {
+            size += payload.limit();
+        }
+        ByteBuffer box = ByteBuffer.allocate(size).putInt(size).put(ascii(type));
+        for (ByteBuffer payload : payloads) {
+            box.put(payload.duplicate().rewind());
+        }
+        return box.flip();
+    }
+
+    private static ByteBuffer ascii(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.ISO_8859_1));
+    }
+}
@@ -0,0 +1,74 @@
+package backend.benchmark;
+
+import backend.Model.ManageRecipeModel.MediaItem;
+import backend.Service.MediaUploadRules;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Media rule checks and the existing-media JSON parsing done on every upload.
+ * {@code parseWithNewMapper} is the old per-request {@code new ObjectMapper()}
+ * kept as a reference point for the shared mapper.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MediaRulesBenchmark {
+
+    private static final String EXISTING_MEDIA_JSON = "["
+            + "{\"path\":\"1746594161997_868.jpg\",\"type\":\"photo\",\"duration\":null},"
+            + "{\"path\":\"1746594162001_12.jpg\",\"type\":\"photo\",\"duration\":null}]";
+
+    private MediaUploadRules rules;
+    private List<MediaItem> photos;
+    private List<MediaItem> video;
+    private List<MediaItem> mixed;
+
+    @Setup
+    public void setUp() {
+        rules = new MediaUploadRules(new ObjectMapper());
+        photos = List.of(new MediaItem("a.jpg", "photo", null), new MediaItem("b.jpg", "photo", null),
+                new MediaItem("c.jpg", "photo", null));
+        video = List.of(new MediaItem("a.mp4", "video", 20L));
+        mixed = List.of(new MediaItem("a.mp4", "video", 20L), new MediaItem("b.jpg", "photo", null));
+    }
+
+    @Benchmark
+    public boolean validatePhotos() {
+        return rules.validateMediaRequirements(photos);
+    }
+
+    @Benchmark
+    public boolean validateVideo() {
+        return rules.validateMediaRequirements(video);
+    }
+
+    @Benchmark
+    public boolean validateMixed() {
+        return rules.validateMediaRequirements(mixed);
+    }
+
+    @Benchmark
+    public String checkAgainstExisting() {
+        return rules.checkAgainstExisting("photo", null, photos.subList(0, 2));
+    }
+
+    @Benchmark
+    public List<MediaItem> parseWithSharedMapper() throws JsonProcessingException {
+        return rules.parseExistingMedia(EXISTING_MEDIA_JSON);
+    }
+
+    @Benchmark
+    public List<MediaItem> parseWithNewMapper() throws JsonProcessingException {
+        ObjectMapper mapper = new ObjectMapper();
+        return mapper.readValue(EXISTING_MEDIA_JSON,
+                mapper.getTypeFactory().constructCollectionType(List.class, MediaItem.class));
+    }
+}
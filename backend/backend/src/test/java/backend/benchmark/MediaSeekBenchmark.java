@@ -0,0 +1,103 @@
+package backend.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load harness for the media endpoint: concurrent clients that seek around a
+ * video. Each run is done twice, once re-downloading the whole file per seek
+ * (what browsers did before range support) and once with a 1MB Range request
+ * per seek, and reports bytes served and latency percentiles for both.
+ *
+ * <pre>
+ * java -cp target/test-classes backend.benchmark.MediaSeekBenchmark \
+ *     http://localhost:8081/api/recipes/media/1746594161997_868.mp4 32 20
+ * </pre>
+ */
+public class MediaSeekBenchmark {
+
+    private static final long SEEK_WINDOW = 1024 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        URI uri = URI.create(args.length > 0 ? args[0]
+                : "http://localhost:8081/api/recipes/media/1746594161997_868.mp4");
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        HttpResponse<Void> head = http.send(HttpRequest.newBuilder(uri)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.discarding());
+        long size = head.headers().firstValueAsLong("Content-Length").orElseThrow();
+
+        System.out.printf("file=%s size=%d clients=%d duration=%ds%n", uri, size, clients, seconds);
+        report("full-download", run(http, uri, size, clients, seconds, false));
+        report("range-seek", run(http, uri, size, clients, seconds, true));
+    }
+
+    private static Result run(HttpClient http, URI uri, long size, int clients, int seconds, boolean ranged)
+            throws InterruptedException {
+        Result result = new Result();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        for (int i = 0; i < clients; i++) {
+            pool.submit(() -> {
+                List<Long> latencies = new ArrayList<>();
+                while (System.nanoTime() < deadline) {
+                    HttpRequest.Builder request = HttpRequest.newBuilder(uri);
+                    if (ranged) {
+                        long start = ThreadLocalRandom.current().nextLong(Math.max(1, size - SEEK_WINDOW));
+                        request.header("Range", "bytes=" + start + "-" + (start + SEEK_WINDOW - 1));
+                    }
+                    long begin = System.nanoTime();
+                    try {
+                        HttpResponse<byte[]> response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+                        latencies.add(System.nanoTime() - begin);
+                        result.bytes.addAndGet(response.body().length);
+                    } catch (Exception e) {
+                        result.errors.incrementAndGet();
+                    }
+                }
+                synchronized (result.latencies) {
+                    result.latencies.addAll(latencies);
+                }
+                return null;
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+        return result;
+    }
+
+    private static void report(String name, Result result) {
+        List<Long> latencies = result.latencies;
+        Collections.sort(latencies);
+        System.out.printf("%-14s requests=%d errors=%d bytes=%d p50=%.2fms p99=%.2fms%n",
+                name, latencies.size(), result.errors.get(), result.bytes.get(),
+                percentile(latencies, 0.50), percentile(latencies, 0.99));
+    }
+
+    private static double percentile(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.size() - 1, Math.ceil(p * sorted.size()) - 1);
+        return sorted.get(Math.max(0, index)) / 1_000_000.0;
+    }
+
+    private static final class Result {
+        final AtomicLong bytes = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final List<Long> latencies = new ArrayList<>();
+    }
+}
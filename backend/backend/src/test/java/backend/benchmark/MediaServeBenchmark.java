@@ -0,0 +1,114 @@
+package backend.benchmark;
+
+import backend.Repository.MediaBlobRepository;
+import backend.Service.MediaFileService;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process throughput of {@link MediaFileService#write}: whole-file,
+ * single-range and multi-range responses for small photos and larger videos.
+ * The response body is discarded so only the file read and copy are measured,
+ * not the container's socket writes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MediaServeBenchmark {
+
+    @Param({"65536", "4194304", "33554432"})
+    public int fileSize;
+
+    private MediaFileService mediaFileService;
+    private Path file;
+    private String filename;
+    private BasicFileAttributes attributes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mediaFileService = new MediaFileService(Mockito.mock(MediaBlobRepository.class));
+        file = Files.createTempFile("media-bench", ".mp4");
+        filename = file.getFileName().toString();
+        byte[] content = new byte[fileSize];
+        new Random(42).nextBytes(content);
+        Files.write(file, content);
+        attributes = Files.readAttributes(file, BasicFileAttributes.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long fullFile() throws IOException {
+        return serve(null);
+    }
+
+    @Benchmark
+    public long singleRange() throws IOException {
+        long start = fileSize / 3;
+        return serve("bytes=" + start + "-" + (start + Math.min(fileSize / 3, 1024 * 1024) - 1));
+    }
+
+    @Benchmark
+    public long multiRange() throws IOException {
+        return serve("bytes=0-1023," + (fileSize / 2) + "-" + (fileSize / 2 + 4095) + ",-2048");
+    }
+
+    private long serve(String range) throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/recipes/media/" + filename);
+        if (range != null) {
+            request.addHeader("Range", range);
+        }
+        DiscardingResponse response = new DiscardingResponse();
+        mediaFileService.write(file, filename, attributes, request, response);
+        return response.out.count;
+    }
+
+    static final class DiscardingResponse extends MockHttpServletResponse {
+        final CountingOutputStream out = new CountingOutputStream();
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return out;
+        }
+    }
+
+    static final class CountingOutputStream extends ServletOutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+        }
+    }
+}
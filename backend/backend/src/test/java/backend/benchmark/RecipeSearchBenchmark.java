@@ -0,0 +1,112 @@
+package backend.benchmark;
+
+import backend.Model.ManageRecipeModel;
+import backend.Service.RecipeSearchIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds the search index over synthetic catalogs and reports build time,
+ * retained heap and query latency percentiles.
+ *
+ * <pre>
+ * java -Xmx4g -cp target/classes:target/test-classes:&lt;dependencies&gt; \
+ *     backend.benchmark.RecipeSearchBenchmark 100000 1000000
+ * </pre>
+ */
+public class RecipeSearchBenchmark {
+
+    private static final int VOCABULARY = 20_000;
+    private static final int QUERIES = 2_000;
+    private static final String[] CATEGORIES = {"Breakfast", "Lunch", "Dinner", "Dessert", "Snack", "Vegan", "Soup"};
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[]{100_000, 1_000_000};
+        String[] words = vocabulary();
+        for (int size : sizes) {
+            run(size, words);
+        }
+    }
+
+    private static void run(int size, String[] words) {
+        Random random = new Random(42);
+        RecipeSearchIndex index = new RecipeSearchIndex();
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        List<ManageRecipeModel> page = new ArrayList<>(1000);
+        for (long id = 1; id <= size; id++) {
+            page.add(recipe(id, random, words));
+            if (page.size() == 1000) {
+                index.addAll(page);
+                page.clear();
+            }
+        }
+        index.addAll(page);
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+        long heapMb = (usedHeap() - heapBefore) / (1024 * 1024);
+
+        long[] latencies = new long[QUERIES];
+        int totalHits = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            String query = zipf(random, words) + " " + zipf(random, words);
+            long begin = System.nanoTime();
+            totalHits += index.search(query, 20).size();
+            latencies[i] = System.nanoTime() - begin;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("recipes=%d build=%dms heap~%dMB queries=%d avgHits=%.1f p50=%.3fms p99=%.3fms%n",
+                size, buildMillis, heapMb, QUERIES, totalHits / (double) QUERIES,
+                latencies[QUERIES / 2] / 1e6, latencies[(int) (QUERIES * 0.99)] / 1e6);
+    }
+
+    private static ManageRecipeModel recipe(long id, Random random, String[] words) {
+        List<String> ingredients = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            ingredients.add((1 + random.nextInt(4)) + " cups " + zipf(random, words));
+        }
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < 25; i++) {
+            description.append(zipf(random, words)).append(' ');
+        }
+        ManageRecipeModel recipe = new ManageRecipeModel();
+        recipe.setId(id);
+        recipe.setRecipeName(zipf(random, words) + " " + zipf(random, words) + " " + zipf(random, words));
+        recipe.setRecipeDescription(description.toString());
+        recipe.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+        recipe.setIngredients(ingredients);
+        return recipe;
+    }
+
+    // Skewed word choice so a few terms are very common, like real recipe text
+    private static String zipf(Random random, String[] words) {
+        double u = random.nextDouble();
+        int rank = (int) Math.floor(Math.pow(words.length, u)) - 1;
+        return words[Math.max(0, Math.min(words.length - 1, rank))];
+    }
+
+    private static String[] vocabulary() {
+        String[] words = new String[VOCABULARY];
+        Random random = new Random(7);
+        for (int i = 0; i < words.length; i++) {
+            char[] chars = new char[4 + random.nextInt(6)];
+            for (int c = 0; c < chars.length; c++) {
+                chars[c] = (char) ('a' + random.nextInt(26));
+            }
+            words[i] = new String(chars);
+        }
+        return words;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
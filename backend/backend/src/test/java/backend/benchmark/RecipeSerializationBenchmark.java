@@ -0,0 +1,67 @@
+package backend.benchmark;
+
+import backend.Model.ManageRecipeModel;
+import backend.Model.ManageRecipeModel.MediaItem;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of recipe lists at the sizes the list endpoints
+ * return: a default page, a maximum page and an unpaged dump.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecipeSerializationBenchmark {
+
+    @Param({"10", "50", "200", "5000"})
+    public int size;
+
+    private ObjectWriter writer;
+    private List<ManageRecipeModel> recipes;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = new ObjectMapper();
+        writer = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, ManageRecipeModel.class));
+        recipes = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            recipes.add(recipe(id));
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(recipes);
+    }
+
+    static ManageRecipeModel recipe(long id) {
+        ManageRecipeModel recipe = new ManageRecipeModel();
+        recipe.setId(id);
+        recipe.setRecipeName("Spiced lentil soup " + id);
+        recipe.setRecipeDescription("A warming red lentil soup with cumin, smoked paprika and a squeeze of lemon. "
+                + "Ready in under an hour and freezes well.");
+        recipe.setPrepTime(15);
+        recipe.setCookTime(35);
+        recipe.setServings(4);
+        recipe.setDifficultyLevel("Easy");
+        recipe.setCategory("Soup");
+        recipe.setIngredients(new ArrayList<>(List.of("1 cup red lentils", "1 onion, chopped", "2 cloves garlic",
+                "1 tsp cumin", "1 tsp smoked paprika", "1 litre vegetable stock", "1 lemon", "2 tbsp olive oil")));
+        recipe.setInstructions(new ArrayList<>(List.of("Soften the onion and garlic in the oil.",
+                "Add the spices and cook for a minute.", "Add lentils and stock and simmer for 25 minutes.",
+                "Blend, season and finish with lemon juice.")));
+        recipe.setMediaItems(new ArrayList<>(List.of(new MediaItem(
+                "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08.jpg", "photo", null))));
+        return recipe;
+    }
+}
@@ -0,0 +1,172 @@
+package backend.benchmark;
+
+import backend.Model.ManageRecipeModel;
+import backend.Service.RecipeSimilarityIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+/**
+ * Builds the similarity index over synthetic catalogs and reports build
+ * time, retained heap, query latency percentiles and recall against exact
+ * Jaccard. Recipes are variants of shared templates, so every recipe has
+ * near neighbours as in a real catalog; the exact top ten for each sampled
+ * query comes from a brute-force scan.
+ *
+ * <pre>
+ * java -Xmx4g -cp target/classes:target/test-classes:&lt;dependencies&gt; \
+ *     backend.benchmark.RecipeSimilarityBenchmark 100000 1000000
+ * </pre>
+ */
+public class RecipeSimilarityBenchmark {
+
+    private static final int VOCABULARY = 5_000;
+    private static final int RECIPES_PER_TEMPLATE = 20;
+    private static final int QUERIES = 2_000;
+    private static final int RECALL_QUERIES = 200;
+    private static final int K = 10;
+    private static final String[] CATEGORIES = {"Breakfast", "Lunch", "Dinner", "Dessert", "Snack", "Vegan", "Soup"};
+    private static final String[] DIFFICULTIES = {"Easy", "Medium", "Hard"};
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[]{100_000, 1_000_000};
+        String[] words = vocabulary();
+        for (int size : sizes) {
+            run(size, words);
+        }
+    }
+
+    private static void run(int size, String[] words) {
+        Random random = new Random(42);
+        List<List<String>> templates = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, size / RECIPES_PER_TEMPLATE); i++) {
+            List<String> template = new ArrayList<>();
+            int ingredients = 8 + random.nextInt(5);
+            for (int j = 0; j < ingredients; j++) {
+                template.add(zipf(random, words));
+            }
+            templates.add(template);
+        }
+        ManageRecipeModel[] recipes = new ManageRecipeModel[size];
+        for (int i = 0; i < size; i++) {
+            recipes[i] = recipe(i + 1, random, words, templates);
+        }
+
+        RecipeSimilarityIndex index = new RecipeSimilarityIndex();
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        index.clear();
+        for (int from = 0; from < size; from += 500) {
+            index.addAll(Arrays.asList(recipes).subList(from, Math.min(size, from + 500)));
+        }
+        index.rebuildFinished();
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+        long heapMb = (usedHeap() - heapBefore) / (1024 * 1024);
+
+        long[] latencies = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            ManageRecipeModel query = recipes[random.nextInt(size)];
+            long begin = System.nanoTime();
+            index.similar(query, K);
+            latencies[i] = System.nanoTime() - begin;
+        }
+        Arrays.sort(latencies);
+
+        int[][] features = Arrays.stream(recipes).parallel()
+                .map(RecipeSimilarityIndex::features).toArray(int[][]::new);
+        int found = 0;
+        int relevant = 0;
+        int foundClose = 0;
+        int relevantClose = 0;
+        for (int q = 0; q < RECALL_QUERIES; q++) {
+            int query = random.nextInt(size);
+            double[] exact = exactTop(features, query);
+            Set<Long> approximate = new HashSet<>();
+            for (RecipeSimilarityIndex.SimilarRecipe hit : index.similar(recipes[query], K)) {
+                approximate.add(hit.recipeId());
+            }
+            // exact holds (id, similarity) pairs
+            for (int i = 0; i < exact.length; i += 2) {
+                boolean hit = approximate.contains((long) exact[i]);
+                relevant++;
+                found += hit ? 1 : 0;
+                if (exact[i + 1] >= 0.5) {
+                    relevantClose++;
+                    foundClose += hit ? 1 : 0;
+                }
+            }
+        }
+        System.out.printf("recipes=%d build=%dms heap~%dMB queries=%d p50=%.3fms p99=%.3fms "
+                        + "recall@%d=%.3f recall@%d(J>=0.5)=%.3f%n",
+                size, buildMillis, heapMb, QUERIES,
+                latencies[QUERIES / 2] / 1e6, latencies[(int) (QUERIES * 0.99)] / 1e6,
+                K, found / (double) Math.max(1, relevant), K, foundClose / (double) Math.max(1, relevantClose));
+    }
+
+    // The K most similar other recipes by brute force, as flattened (id, similarity) pairs
+    private static double[] exactTop(int[][] features, int query) {
+        double[] similarities = IntStream.range(0, features.length).parallel()
+                .mapToDouble(i -> i == query ? -1 : RecipeSimilarityIndex.jaccard(features[query], features[i]))
+                .toArray();
+        return IntStream.range(0, features.length)
+                .boxed()
+                .filter(i -> similarities[i] > 0)
+                .sorted((a, b) -> Double.compare(similarities[b], similarities[a]))
+                .limit(K)
+                .flatMapToDouble(i -> DoubleStream.of(i + 1, similarities[i]))
+                .toArray();
+    }
+
+    // A template's ingredients with a few swapped out, so recipes cluster around it
+    private static ManageRecipeModel recipe(long id, Random random, String[] words, List<List<String>> templates) {
+        int template = random.nextInt(templates.size());
+        List<String> ingredients = new ArrayList<>();
+        for (String word : templates.get(template)) {
+            String name = random.nextInt(4) == 0 ? zipf(random, words) : word;
+            ingredients.add((1 + random.nextInt(4)) + " cups " + name);
+        }
+        ManageRecipeModel recipe = new ManageRecipeModel();
+        recipe.setId(id);
+        recipe.setRecipeName("recipe " + id);
+        recipe.setCategory(CATEGORIES[random.nextInt(3) == 0 ? random.nextInt(CATEGORIES.length) : template % CATEGORIES.length]);
+        recipe.setDifficultyLevel(DIFFICULTIES[random.nextInt(DIFFICULTIES.length)]);
+        recipe.setIngredients(ingredients);
+        return recipe;
+    }
+
+    // Skewed word choice so a few ingredients are very common, like salt and onion
+    private static String zipf(Random random, String[] words) {
+        double u = random.nextDouble();
+        int rank = (int) Math.floor(Math.pow(words.length, u)) - 1;
+        return words[Math.max(0, Math.min(words.length - 1, rank))];
+    }
+
+    private static String[] vocabulary() {
+        String[] words = new String[VOCABULARY];
+        Random random = new Random(7);
+        for (int i = 0; i < words.length; i++) {
+            char[] chars = new char[4 + random.nextInt(6)];
+            for (int c = 0; c < chars.length; c++) {
+                chars[c] = (char) ('a' + random.nextInt(26));
+            }
+            words[i] = new String(chars);
+        }
+        return words;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,106 @@
+package backend.benchmark;
+
+import backend.BackendApplication;
+import backend.Model.ManageRecipeModel;
+import backend.Repository.ManageRecipeRepository;
+import org.hibernate.Hibernate;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository round trips through the real Spring Data and Hibernate setup,
+ * with an in-memory H2 database standing in for MySQL. Absolute numbers are
+ * lower than against a networked database; the value is in spotting query
+ * count and mapping regressions between runs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepositoryBenchmark {
+
+    private static final int SEEDED_RECIPES = 5_000;
+
+    private ConfigurableApplicationContext context;
+    private ManageRecipeRepository repository;
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.cache.type=none",
+                        "logging.level.root=WARN")
+                .run();
+        repository = context.getBean(ManageRecipeRepository.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+
+        List<ManageRecipeModel> batch = new ArrayList<>(500);
+        for (long i = 1; i <= SEEDED_RECIPES; i++) {
+            ManageRecipeModel recipe = RecipeSerializationBenchmark.recipe(i);
+            recipe.setId(null);
+            batch.add(recipe);
+            if (batch.size() == 500) {
+                repository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        repository.saveAll(batch);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ManageRecipeModel findById() {
+        long id = ThreadLocalRandom.current().nextLong(1, SEEDED_RECIPES);
+        return readOnlyTransaction.execute(status -> repository.findById(id)
+                .map(RepositoryBenchmark::initialize)
+                .orElse(null));
+    }
+
+    @Benchmark
+    public List<ManageRecipeModel> keysetPage() {
+        long after = ThreadLocalRandom.current().nextLong(0, SEEDED_RECIPES - 50);
+        return readOnlyTransaction.execute(status -> {
+            List<ManageRecipeModel> page = repository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(50));
+            page.forEach(RepositoryBenchmark::initialize);
+            return page;
+        });
+    }
+
+    @Benchmark
+    public ManageRecipeModel insert() {
+        ManageRecipeModel recipe = RecipeSerializationBenchmark.recipe(0);
+        recipe.setId(null);
+        return repository.save(recipe);
+    }
+
+    private static ManageRecipeModel initialize(ManageRecipeModel recipe) {
+        Hibernate.initialize(recipe.getIngredients());
+        Hibernate.initialize(recipe.getInstructions());
+        Hibernate.initialize(recipe.getMediaItems());
+        return recipe;
+    }
+}
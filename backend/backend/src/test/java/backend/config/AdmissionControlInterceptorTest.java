@@ -0,0 +1,122 @@
+package backend.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Admission decisions with one upload slot, an upload burst of 3 and a write
+ * burst of 2, at rates too low to refill during a test.
+ */
+class AdmissionControlInterceptorTest {
+
+    private final AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(
+            new SimpleMeterRegistry(), true, 1, 0, Duration.ZERO, Duration.ofSeconds(5), 0.001, 3, 0.001, 2);
+
+    @Test
+    void uploadsAreRateLimitedPerClient() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(admitAndComplete("POST", "upload", "10.0.0.1"));
+        }
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(request("POST", "10.0.0.1"), rejected, handler("upload")));
+        assertEquals(429, rejected.getStatus());
+        assertNotNull(rejected.getHeader("Retry-After"));
+        assertTrue(admitAndComplete("POST", "upload", "10.0.0.2"));
+    }
+
+    @Test
+    void resumableChunksAreChargedOnceWhenTheUploadStarts() throws Exception {
+        assertTrue(admitAndComplete("POST", "createSession", "10.0.0.1"));
+        for (int i = 0; i < 50; i++) {
+            assertTrue(admitAndComplete("PATCH", "chunk", "10.0.0.1"), "chunk " + i);
+        }
+        assertTrue(admitAndComplete("POST", "finalizeUpload", "10.0.0.1"));
+    }
+
+    @Test
+    void streamingRequestsNeedAnUploadSlot() throws Exception {
+        MockHttpServletRequest first = request("PATCH", "10.0.0.1");
+        assertTrue(interceptor.preHandle(first, new MockHttpServletResponse(), handler("chunk")));
+
+        MockHttpServletResponse busy = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(request("PATCH", "10.0.0.2"), busy, handler("chunk")));
+        assertEquals(429, busy.getStatus());
+
+        interceptor.afterCompletion(first, new MockHttpServletResponse(), handler("chunk"), null);
+        assertTrue(admitAndComplete("PATCH", "chunk", "10.0.0.2"));
+    }
+
+    @Test
+    void sessionCreationDoesNotHoldAnUploadSlot() throws Exception {
+        MockHttpServletRequest chunk = request("PATCH", "10.0.0.1");
+        assertTrue(interceptor.preHandle(chunk, new MockHttpServletResponse(), handler("chunk")));
+        assertTrue(admitAndComplete("POST", "createSession", "10.0.0.2"));
+        interceptor.afterCompletion(chunk, new MockHttpServletResponse(), handler("chunk"), null);
+    }
+
+    @Test
+    void writesAreRateLimitedButReadOnlyPostsAreNot() throws Exception {
+        assertTrue(admitAndComplete("POST", "write", "10.0.0.1"));
+        assertTrue(admitAndComplete("DELETE", "write", "10.0.0.1"));
+        assertFalse(admitAndComplete("PUT", "write", "10.0.0.1"));
+        for (int i = 0; i < 10; i++) {
+            assertTrue(admitAndComplete("POST", "batchGet", "10.0.0.1"));
+            assertTrue(admitAndComplete("GET", "write", "10.0.0.1"));
+        }
+    }
+
+    private boolean admitAndComplete(String method, String handlerName, String client) throws Exception {
+        MockHttpServletRequest request = request(method, client);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HandlerMethod handler = handler(handlerName);
+        boolean admitted = interceptor.preHandle(request, response, handler);
+        interceptor.afterCompletion(request, response, handler, null);
+        return admitted;
+    }
+
+    private static MockHttpServletRequest request(String method, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/recipes");
+        request.setRemoteAddr(client);
+        return request;
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Handlers(), Handlers.class.getMethod(name));
+    }
+
+    static class Handlers {
+
+        @UploadEndpoint
+        public void upload() {
+        }
+
+        @UploadEndpoint(streamsBody = false)
+        public void createSession() {
+        }
+
+        @UploadEndpoint(startsUpload = false)
+        public void chunk() {
+        }
+
+        @UploadEndpoint(startsUpload = false)
+        public void finalizeUpload() {
+        }
+
+        @ReadOnlyEndpoint
+        public void batchGet() {
+        }
+
+        public void write() {
+        }
+    }
+}
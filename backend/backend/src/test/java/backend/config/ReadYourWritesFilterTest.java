@@ -0,0 +1,90 @@
+package backend.config;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Which requests the read-your-writes filter pins to the primary.
+ */
+class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofMinutes(1));
+
+    @Test
+    void readsGoToReplicasUntilTheClientWrites() throws Exception {
+        assertEquals(DataSourceRouting.Route.READ_REQUEST, route(request("GET", "10.0.0.1", null)));
+        assertEquals(DataSourceRouting.Route.PRIMARY, route(request("POST", "10.0.0.1", null)));
+        assertEquals(DataSourceRouting.Route.DEFAULT, DataSourceRouting.current());
+    }
+
+    @Test
+    void firstWriteHandsOutAClientCookie() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("POST", "10.0.0.1", null), response, (req, res) -> { });
+        String cookie = response.getHeader(HttpHeaders.SET_COOKIE);
+        assertNotNull(cookie);
+        assertTrue(cookie.startsWith(ReadYourWritesFilter.COOKIE + "="), cookie);
+        assertTrue(cookie.contains("HttpOnly"), cookie);
+
+        MockHttpServletResponse again = new MockHttpServletResponse();
+        filter.doFilter(request("PUT", "10.0.0.1", "known"), again, (req, res) -> { });
+        assertNull(again.getHeader(HttpHeaders.SET_COOKIE));
+    }
+
+    @Test
+    void writerIsPinnedByCookieFromAnyAddress() throws Exception {
+        route(request("PUT", "10.0.0.1", "alice"));
+        assertEquals(DataSourceRouting.Route.PRIMARY, route(request("GET", "10.0.0.99", "alice")));
+    }
+
+    @Test
+    void otherClientsBehindTheSameAddressAreNotPinned() throws Exception {
+        route(request("PUT", "203.0.113.7", "alice"));
+        assertEquals(DataSourceRouting.Route.READ_REQUEST, route(request("GET", "203.0.113.7", "bob")));
+        assertEquals(DataSourceRouting.Route.READ_REQUEST, route(request("GET", "203.0.113.7", null)));
+    }
+
+    @Test
+    void clientsWithoutCookiesArePinnedByAddress() throws Exception {
+        route(request("POST", "10.0.0.2", null));
+        assertEquals(DataSourceRouting.Route.PRIMARY, route(request("GET", "10.0.0.2", null)));
+        assertEquals(DataSourceRouting.Route.READ_REQUEST, route(request("GET", "10.0.0.3", null)));
+    }
+
+    @Test
+    void zeroWindowNeverPins() throws Exception {
+        ReadYourWritesFilter off = new ReadYourWritesFilter(Duration.ZERO);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        off.doFilter(request("POST", "10.0.0.4", null), response, (req, res) -> { });
+        assertNull(response.getHeader(HttpHeaders.SET_COOKIE));
+        DataSourceRouting.Route[] seen = new DataSourceRouting.Route[1];
+        off.doFilter(request("GET", "10.0.0.4", null), new MockHttpServletResponse(),
+                (req, res) -> seen[0] = DataSourceRouting.current());
+        assertEquals(DataSourceRouting.Route.READ_REQUEST, seen[0]);
+    }
+
+    private DataSourceRouting.Route route(MockHttpServletRequest request) throws Exception {
+        DataSourceRouting.Route[] seen = new DataSourceRouting.Route[1];
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> seen[0] = DataSourceRouting.current());
+        return seen[0];
+    }
+
+    private static MockHttpServletRequest request(String method, String address, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/recipes");
+        request.setRemoteAddr(address);
+        if (client != null) {
+            request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, client));
+        }
+        return request;
+    }
+}
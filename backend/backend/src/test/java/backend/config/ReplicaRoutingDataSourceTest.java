@@ -0,0 +1,154 @@
+package backend.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Routing over embedded H2 databases, each holding a row that names it.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replicaA;
+    private DataSource replicaB;
+
+    @BeforeEach
+    void createDatabases() {
+        primary = database("primary");
+        replicaA = database("replica-a");
+        replicaB = database("replica-b");
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplicasRoundRobin() {
+        Router router = new Router(primary, replicaA, replicaB);
+        assertEquals("replica-a", router.read());
+        assertEquals("replica-b", router.read());
+        assertEquals("replica-a", router.read());
+    }
+
+    @Test
+    void writeTransactionsStayOnPrimary() {
+        Router router = new Router(primary, replicaA);
+        assertEquals("primary", router.write());
+    }
+
+    @Test
+    void statementsOutsideTransactionsUseReplicaOnlyForReadRequests() {
+        Router router = new Router(primary, replicaA);
+        assertEquals("primary", router.withoutTransaction());
+        DataSourceRouting.set(DataSourceRouting.Route.READ_REQUEST);
+        try {
+            assertEquals("replica-a", router.withoutTransaction());
+        } finally {
+            DataSourceRouting.clear();
+        }
+    }
+
+    @Test
+    void pinnedClientsReadFromPrimary() {
+        Router router = new Router(primary, replicaA);
+        assertEquals("primary", DataSourceRouting.onPrimary(router::read));
+        assertEquals("replica-a", router.read());
+    }
+
+    @Test
+    void failedReplicaIsSkippedUntilHealthy() {
+        FlakyDataSource flaky = new FlakyDataSource(replicaA);
+        Router router = new Router(primary, flaky, replicaB);
+
+        flaky.down = true;
+        assertEquals("replica-b", router.read());
+        assertEquals("replica-b", router.read());
+
+        flaky.down = false;
+        assertEquals("replica-b", router.read());
+        router.routing.checkHealth();
+        assertEquals(2, router.routing.healthyReplicas());
+    }
+
+    @Test
+    void readsFallBackToPrimaryWhenNoReplicaIsUp() {
+        FlakyDataSource flaky = new FlakyDataSource(replicaA);
+        flaky.down = true;
+        Router router = new Router(primary, flaky);
+        assertEquals("primary", router.read());
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table if not exists node (name varchar(32))");
+        jdbc.execute("delete from node");
+        jdbc.update("insert into node values (?)", name);
+        return dataSource;
+    }
+
+    private static final class Router {
+        private final ReplicaRoutingDataSource routing;
+        private final JdbcTemplate jdbc;
+        private final TransactionTemplate readOnly;
+        private final TransactionTemplate readWrite;
+
+        private Router(DataSource primary, DataSource... replicas) {
+            Map<String, DataSource> byName = new LinkedHashMap<>();
+            for (int i = 0; i < replicas.length; i++) {
+                byName.put("replica-" + i, replicas[i]);
+            }
+            routing = new ReplicaRoutingDataSource(primary, byName);
+            DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            jdbc = new JdbcTemplate(dataSource);
+            readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            readWrite = new TransactionTemplate(transactionManager);
+        }
+
+        String read() {
+            return readOnly.execute(status -> node());
+        }
+
+        String write() {
+            return readWrite.execute(status -> node());
+        }
+
+        String withoutTransaction() {
+            return node();
+        }
+
+        private String node() {
+            return jdbc.queryForObject("select name from node", String.class);
+        }
+    }
+
+    private static final class FlakyDataSource extends DelegatingDataSource {
+        private volatile boolean down;
+
+        private FlakyDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("Connection refused");
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package backend.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void burstIsAdmittedAtOnceThenTheRateApplies() {
+        TokenBucket bucket = new TokenBucket(2, 3, 0);
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(SECOND / 2, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(SECOND / 2));
+        assertTrue(bucket.tryAcquire(SECOND / 2) > 0);
+    }
+
+    @Test
+    void rejectedRequestsDoNotUseUpTokens() {
+        TokenBucket bucket = new TokenBucket(1, 1, 0);
+        assertEquals(0, bucket.tryAcquire(0));
+        for (int i = 0; i < 10; i++) {
+            assertTrue(bucket.tryAcquire(0) > 0);
+        }
+        assertEquals(0, bucket.tryAcquire(SECOND));
+    }
+
+    @Test
+    void idleTimeRefillsUpToTheBurstOnly() {
+        TokenBucket bucket = new TokenBucket(1, 2, 0);
+        long later = 60 * SECOND;
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(SECOND, bucket.tryAcquire(later));
+    }
+}
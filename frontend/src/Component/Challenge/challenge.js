@@ -1,5 +1,6 @@
 import React, { useState, useEffect } from 'react';
 import axios from 'axios';
+import { fetchAll } from '../fetchAll';
 import './Challenge.css';
 
 const ChallengeForm = () => {
@@ -24,8 +25,8 @@ const ChallengeForm = () => {
 
   const fetchChallenges = async () => {
     try {
-      const response = await axios.get('http://localhost:8081/api/challenges');
-      setChallenges(response.data);
+      const items = await fetchAll('http://localhost:8081/api/challenges');
+      setChallenges(items);
     } catch (error) {
       console.error('Error fetching challenges:', error);
     }
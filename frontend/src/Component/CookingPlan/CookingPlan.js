@@ -1,5 +1,6 @@
 import React, { useState, useEffect } from 'react';
 import axios from 'axios';
+import { fetchAll } from '../fetchAll';
 import './CookingPlan.css';
 
 const PlanForm = () => {
@@ -25,8 +26,8 @@ const PlanForm = () => {
 
   const fetchPlans = async () => {
     try {
-      const response = await axios.get('http://localhost:8081/plans/plans');
-      setPlans(response.data);
+      const items = await fetchAll('http://localhost:8081/plans/plans');
+      setPlans(items);
     } catch (error) {
       console.error('Error fetching plans:', error);
     }
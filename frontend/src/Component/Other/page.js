@@ -1,5 +1,6 @@
 import React, { useState, useEffect } from 'react';
 import axios from 'axios';
+import { fetchAll } from '../fetchAll';
 import './page.css';
 
 // Configure axios defaults
@@ -68,8 +69,8 @@ const UserProfile = () => {
 
   const fetchRecipes = async () => {
     try {
-      const response = await axios.get('/api/recipes');
-      setRecipes(response.data);
+      const items = await fetchAll('/api/recipes');
+      setRecipes(items);
       setIsLoading(prev => ({ ...prev, recipes: false }));
     } catch (error) {
       console.error('Error fetching recipes:', error);
@@ -79,8 +80,8 @@ const UserProfile = () => {
 
   const fetchPlans = async () => {
     try {
-      const response = await axios.get('/plans/plans');
-      setPlans(response.data);
+      const items = await fetchAll('/plans/plans');
+      setPlans(items);
       setIsLoading(prev => ({ ...prev, plans: false }));
     } catch (error) {
       console.error('Error fetching plans:', error);
@@ -90,8 +91,8 @@ const UserProfile = () => {
 
   const fetchChallenges = async () => {
     try {
-      const response = await axios.get('/api/challenges');
-      setChallenges(response.data);
+      const items = await fetchAll('/api/challenges');
+      setChallenges(items);
       setIsLoading(prev => ({ ...prev, challenges: false }));
     } catch (error) {
       console.error('Error fetching challenges:', error);
@@ -1,5 +1,6 @@
 import React, { useState, useEffect, useRef } from 'react';
 import axios from 'axios';
+import { fetchAll } from '../fetchAll';
 import { ErrorBoundary } from 'react-error-boundary';
 import './Recipe.css';
 
@@ -55,8 +56,8 @@ const RecipeForm = () => {
 
   const fetchRecipes = async () => {
     try {
-      const response = await axios.get('/api/recipes');
-      setRecipes(response.data);
+      const items = await fetchAll('/api/recipes');
+      setRecipes(items);
     } catch (error) {
       console.error('Error fetching recipes:', error);
     }
@@ -0,0 +1,16 @@
+import axios from 'axios';
+
+// List endpoints return one page at a time and name the id to continue after
+// in the X-Next-Cursor header; follow it until the last page.
+const PAGE_SIZE = 200;
+
+export const fetchAll = async (url) => {
+  const items = [];
+  let after;
+  do {
+    const response = await axios.get(url, { params: { limit: PAGE_SIZE, after } });
+    items.push(...response.data);
+    after = response.headers['x-next-cursor'];
+  } while (after);
+  return items;
+};